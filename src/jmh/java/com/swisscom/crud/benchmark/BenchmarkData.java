@@ -0,0 +1,30 @@
+package com.swisscom.crud.benchmark;
+
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BenchmarkData {
+    private BenchmarkData() {
+    }
+
+    public static Service service(int resourceCount, int ownersPerResource) {
+        List<Resource> resources = new ArrayList<>(resourceCount);
+        for (int r = 0; r < resourceCount; r++) {
+            resources.add(new Resource(ObjectId.get().toString(), "Resource " + r, owners(ownersPerResource)));
+        }
+        return new Service(1L, ObjectId.get().toString(), "Benchmark Service", resources);
+    }
+
+    public static List<Owner> owners(int count) {
+        List<Owner> owners = new ArrayList<>(count);
+        for (int o = 0; o < count; o++) {
+            owners.add(new Owner(ObjectId.get().toString(), "Owner " + o, "ACC" + o, o % 5));
+        }
+        return owners;
+    }
+}
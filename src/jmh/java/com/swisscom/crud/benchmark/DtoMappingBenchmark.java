@@ -0,0 +1,90 @@
+package com.swisscom.crud.benchmark;
+
+import com.swisscom.crud.dto.ReadOwnerDto;
+import com.swisscom.crud.dto.ReadResourceDto;
+import com.swisscom.crud.dto.ReadServiceDto;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int listSize;
+
+    private ModelMapper modelMapper;
+    private DtoMapper dtoMapper;
+    private List<Service> services;
+    private List<Resource> resources;
+    private List<Owner> owners;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setSkipNullEnabled(true);
+        dtoMapper = new DtoMapper();
+        services = new ArrayList<>(listSize);
+        resources = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            services.add(new Service((long) i, "service" + i, "Service " + i, new ArrayList<>()));
+            List<Owner> owners = List.of(
+                    new Owner("owner" + i + "a", "Owner A", "ACC" + i, 1),
+                    new Owner("owner" + i + "b", "Owner B", "ACC" + i, 2));
+            resources.add(new Resource("resource" + i, "Resource " + i, new ArrayList<>(owners)));
+        }
+        owners = BenchmarkData.owners(listSize);
+    }
+
+    @Benchmark
+    public List<ReadServiceDto> modelMapperServiceList() {
+        return services.stream().map(service -> modelMapper.map(service, ReadServiceDto.class)).toList();
+    }
+
+    @Benchmark
+    public List<ReadServiceDto> dtoMapperServiceList() {
+        return services.stream().map(dtoMapper::toReadServiceDto).toList();
+    }
+
+    @Benchmark
+    public List<ReadResourceDto> modelMapperResourceList() {
+        return resources.stream().map(resource -> modelMapper.map(resource, ReadResourceDto.class)).toList();
+    }
+
+    @Benchmark
+    public List<ReadResourceDto> dtoMapperResourceList() {
+        return resources.stream().map(dtoMapper::toReadResourceDto).toList();
+    }
+
+    @Benchmark
+    public List<ReadOwnerDto> modelMapperOwnerList() {
+        return owners.stream().map(owner -> modelMapper.map(owner, ReadOwnerDto.class)).toList();
+    }
+
+    @Benchmark
+    public List<ReadOwnerDto> dtoMapperOwnerList() {
+        return owners.stream().map(dtoMapper::toReadOwnerDto).toList();
+    }
+}
@@ -0,0 +1,56 @@
+package com.swisscom.crud.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swisscom.crud.model.Service;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int resourceCount;
+
+    @Param({"10", "100"})
+    private int ownersPerResource;
+
+    private ObjectMapper objectMapper;
+    private Service service;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        service = BenchmarkData.service(resourceCount, ownersPerResource);
+        json = objectMapper.writeValueAsBytes(service);
+    }
+
+    @Benchmark
+    public byte[] serializeAggregate() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(service);
+    }
+
+    @Benchmark
+    public Service deserializeAggregate() throws IOException {
+        return objectMapper.readValue(json, Service.class);
+    }
+}
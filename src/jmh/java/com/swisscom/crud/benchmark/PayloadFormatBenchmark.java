@@ -0,0 +1,90 @@
+package com.swisscom.crud.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swisscom.crud.dto.ReadResourceDto;
+import com.swisscom.crud.mapper.DtoMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// The /resources payload of a large service in each negotiable format. Encoded and gzipped sizes are printed
+// once per parameter set, since JMH only reports times.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    private static final TypeReference<List<ReadResourceDto>> RESOURCES = new TypeReference<>() {
+    };
+
+    @Param({"100", "1000"})
+    private int resourceCount;
+
+    @Param({"10", "100"})
+    private int ownersPerResource;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private List<ReadResourceDto> resources;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        DtoMapper dtoMapper = new DtoMapper();
+        resources = BenchmarkData.service(resourceCount, ownersPerResource).getResources().stream()
+                .map(dtoMapper::toReadResourceDto)
+                .toList();
+        encoded = objectMapper.writeValueAsBytes(resources);
+        System.out.printf("%n%s %d x %d: %d bytes, %d bytes gzipped%n",
+                format, resourceCount, ownersPerResource, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return objectMapper.writeValueAsBytes(resources);
+    }
+
+    @Benchmark
+    public byte[] encodeGzipped() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(resources));
+    }
+
+    @Benchmark
+    public List<ReadResourceDto> decode() throws IOException {
+        return objectMapper.readValue(encoded, RESOURCES);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
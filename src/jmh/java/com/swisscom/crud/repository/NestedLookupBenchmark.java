@@ -0,0 +1,67 @@
+package com.swisscom.crud.repository;
+
+import com.swisscom.crud.benchmark.BenchmarkData;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Lives in the repository package to reach the id scans that resolve resources and owners inside loaded aggregates.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NestedLookupBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int resourceCount;
+
+    @Param({"10", "100"})
+    private int ownersPerResource;
+
+    private Service service;
+    private Resource lastResource;
+    private String lastResourceId;
+    private String lastOwnerId;
+
+    @Setup
+    public void setUp() {
+        service = BenchmarkData.service(resourceCount, ownersPerResource);
+        List<Resource> resources = service.getResources();
+        lastResource = resources.get(resources.size() - 1);
+        lastResourceId = lastResource.getId();
+        lastOwnerId = lastResource.getOwners().get(ownersPerResource - 1).getId();
+    }
+
+    @Benchmark
+    public Optional<Resource> resourceLookupWorstCase() {
+        return EmbeddedServiceStorage.resourceOf(service, lastResourceId);
+    }
+
+    @Benchmark
+    public Optional<Owner> ownerLookupWorstCase() {
+        return EmbeddedServiceStorage.ownerOf(lastResource, lastOwnerId);
+    }
+
+    @Benchmark
+    public Optional<Owner> resourceThenOwnerLookup() {
+        return EmbeddedServiceStorage.resourceOf(service, lastResourceId)
+                .flatMap(resource -> EmbeddedServiceStorage.ownerOf(resource, lastOwnerId));
+    }
+}
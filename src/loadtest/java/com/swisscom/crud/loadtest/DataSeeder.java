@@ -0,0 +1,63 @@
+package com.swisscom.crud.loadtest;
+
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class DataSeeder {
+    private static final int BATCH_SIZE = 100;
+
+    private final MongoTemplate mongoTemplate;
+
+    DataSeeder(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    List<SeededService> seed(LoadTestConfig config) {
+        List<SeededService> seeded = new ArrayList<>(config.services());
+        List<Service> batch = new ArrayList<>(BATCH_SIZE);
+        for (int s = 0; s < config.services(); s++) {
+            Service service = service(s, config.resourcesPerService(), config.ownersPerResource());
+            batch.add(service);
+            seeded.add(SeededService.of(service));
+            if (batch.size() == BATCH_SIZE) {
+                mongoTemplate.insertAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insertAll(batch);
+        }
+        return seeded;
+    }
+
+    private static Service service(int index, int resourceCount, int ownerCount) {
+        List<Resource> resources = new ArrayList<>(resourceCount);
+        for (int r = 0; r < resourceCount; r++) {
+            List<Owner> owners = new ArrayList<>(ownerCount);
+            for (int o = 0; o < ownerCount; o++) {
+                owners.add(new Owner(ObjectId.get().toString(), "Owner " + o, "ACC" + (index * 1000 + o), o % 5));
+            }
+            resources.add(new Resource(ObjectId.get().toString(), "Resource " + r, owners));
+        }
+        return new Service(null, ObjectId.get().toString(), "Service " + index, resources);
+    }
+
+    record SeededService(String id, List<String> resourceIds, List<List<String>> ownerIds) {
+
+        static SeededService of(Service service) {
+            List<String> resourceIds = new ArrayList<>();
+            List<List<String>> ownerIds = new ArrayList<>();
+            for (Resource resource : service.getResources()) {
+                resourceIds.add(resource.getId());
+                ownerIds.add(resource.getOwners().stream().map(Owner::getId).toList());
+            }
+            return new SeededService(service.getId(), resourceIds, ownerIds);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.swisscom.crud.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class LatencyReport {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+    void record(String operation, long latencyNanos, boolean success) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS);
+        recorders.computeIfAbsent(operation, op -> new Recorder(HIGHEST_TRACKABLE_MICROS, 3)).recordValue(micros);
+        if (!success) {
+            errors.computeIfAbsent(operation, op -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    void reset() {
+        recorders.values().forEach(Recorder::reset);
+        errors.clear();
+    }
+
+    void write(LoadTestConfig config, long elapsedNanos, PrintStream out) throws IOException {
+        Path directory = Path.of(config.reportDirectory());
+        Files.createDirectories(directory);
+        Map<String, Histogram> histograms = new TreeMap<>();
+        recorders.forEach((operation, recorder) -> histograms.put(operation, recorder.getIntervalHistogram()));
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        histograms.values().forEach(total::add);
+        histograms.put("all", total);
+
+        double seconds = elapsedNanos / 1_000_000_000d;
+        out.printf("Load test: %d services x %d resources x %d owners, target %d req/s, write ratio %.2f, %s mode%n",
+                config.services(), config.resourcesPerService(), config.ownersPerResource(),
+                config.requestsPerSecond(), config.writeRatio(), config.persistenceMode());
+        out.printf("%-16s %10s %10s %8s %10s %10s %10s %10s%n",
+                "operation", "count", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        histograms.forEach((operation, histogram) -> {
+            long errorCount = "all".equals(operation)
+                    ? errors.values().stream().mapToLong(AtomicLong::get).sum()
+                    : errors.getOrDefault(operation, new AtomicLong()).get();
+            out.printf("%-16s %10d %10.1f %8d %10.3f %10.3f %10.3f %10.3f%n",
+                    operation, histogram.getTotalCount(), histogram.getTotalCount() / seconds, errorCount,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+        });
+
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            try (PrintStream file = new PrintStream(Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm")))) {
+                entry.getValue().outputPercentileDistribution(file, 1000.0);
+            }
+        }
+        out.println("Percentile distributions (ms) written to " + directory.toAbsolutePath());
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
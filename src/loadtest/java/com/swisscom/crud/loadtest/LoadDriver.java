@@ -0,0 +1,96 @@
+package com.swisscom.crud.loadtest;
+
+import com.swisscom.crud.dto.CreateOwnerDto;
+import com.swisscom.crud.dto.UpdateOwnerDto;
+import com.swisscom.crud.dto.UpdateResourceDto;
+import com.swisscom.crud.loadtest.DataSeeder.SeededService;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+class LoadDriver {
+    private final WebClient webClient;
+    private final List<SeededService> services;
+    private final LoadTestConfig config;
+    private final LatencyReport report;
+
+    LoadDriver(WebClient webClient, List<SeededService> services, LoadTestConfig config, LatencyReport report) {
+        this.webClient = webClient;
+        this.services = services;
+        this.config = config;
+        this.report = report;
+    }
+
+    // Latency is measured from the scheduled send time, so requests queued behind slow ones are not under-reported.
+    Mono<Void> run(Duration duration) {
+        long periodNanos = 1_000_000_000L / config.requestsPerSecond();
+        long requests = duration.toNanos() / periodNanos;
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Flux.interval(Duration.ofNanos(periodNanos))
+                    .take(requests)
+                    .onBackpressureBuffer()
+                    .flatMap(tick -> execute(start + (tick + 1) * periodNanos), config.maxInFlight())
+                    .then();
+        });
+    }
+
+    private Mono<Void> execute(long scheduledAt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        SeededService service = services.get(random.nextInt(services.size()));
+        if (service.resourceIds().isEmpty()) {
+            return exchange("getService", webClient.get().uri("/api/services/{id}", service.id()), scheduledAt);
+        }
+        int resourceIndex = random.nextInt(service.resourceIds().size());
+        String resourceId = service.resourceIds().get(resourceIndex);
+        List<String> ownerIds = service.ownerIds().get(resourceIndex);
+        String ownerId = ownerIds.isEmpty() ? null : ownerIds.get(random.nextInt(ownerIds.size()));
+        int pick = random.nextInt(100);
+
+        if (random.nextDouble() < config.writeRatio()) {
+            if (pick < 50 && ownerId != null) {
+                return exchange("updateOwner", webClient.put()
+                        .uri("/api/services/{id}/resources/{resourceId}/owners/{ownerId}", service.id(), resourceId, ownerId)
+                        .bodyValue(new UpdateOwnerDto(null, null, random.nextInt(5))), scheduledAt);
+            }
+            if (pick < 80) {
+                return exchange("updateResource", webClient.put()
+                        .uri("/api/services/{id}/resources/{resourceId}", service.id(), resourceId)
+                        .bodyValue(new UpdateResourceDto("Resource " + pick)), scheduledAt);
+            }
+            return exchange("createOwner", webClient.post()
+                    .uri("/api/services/{id}/resources/{resourceId}/owners", service.id(), resourceId)
+                    .bodyValue(new CreateOwnerDto("Load Owner", "ACC-LOAD", 1)), scheduledAt);
+        }
+
+        if (pick < 25) {
+            return exchange("getService", webClient.get().uri("/api/services/{id}", service.id()), scheduledAt);
+        }
+        if (pick < 35) {
+            return exchange("getServicesPage", webClient.get().uri("/api/services?limit=50"), scheduledAt);
+        }
+        if (pick < 45) {
+            return exchange("getResources", webClient.get()
+                    .uri("/api/services/{id}/resources?limit=50", service.id()), scheduledAt);
+        }
+        if (pick < 70 || ownerId == null) {
+            return exchange("getResource", webClient.get()
+                    .uri("/api/services/{id}/resources/{resourceId}", service.id(), resourceId), scheduledAt);
+        }
+        return exchange("getOwner", webClient.get()
+                .uri("/api/services/{id}/resources/{resourceId}/owners/{ownerId}", service.id(), resourceId, ownerId), scheduledAt);
+    }
+
+    private Mono<Void> exchange(String operation, WebClient.RequestHeadersSpec<?> request, long scheduledAt) {
+        return request.retrieve()
+                .toBodilessEntity()
+                .map(response -> true)
+                .onErrorReturn(false)
+                .doOnNext(success -> report.record(operation, System.nanoTime() - scheduledAt, success))
+                .then();
+    }
+}
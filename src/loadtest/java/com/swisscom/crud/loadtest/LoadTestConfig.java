@@ -0,0 +1,29 @@
+package com.swisscom.crud.loadtest;
+
+import java.time.Duration;
+
+record LoadTestConfig(int services,
+                      int resourcesPerService,
+                      int ownersPerResource,
+                      int requestsPerSecond,
+                      Duration warmup,
+                      Duration duration,
+                      double writeRatio,
+                      int maxInFlight,
+                      String persistenceMode,
+                      String reportDirectory) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.services", 200),
+                Integer.getInteger("loadtest.resources-per-service", 20),
+                Integer.getInteger("loadtest.owners-per-resource", 10),
+                Integer.getInteger("loadtest.rate", 500),
+                Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 10)),
+                Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 60)),
+                Double.parseDouble(System.getProperty("loadtest.write-ratio", "0.2")),
+                Integer.getInteger("loadtest.max-in-flight", 256),
+                System.getProperty("loadtest.persistence-mode", "blocking"),
+                System.getProperty("loadtest.report-dir", "target/loadtest"));
+    }
+}
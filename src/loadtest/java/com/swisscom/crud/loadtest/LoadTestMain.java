@@ -0,0 +1,55 @@
+package com.swisscom.crud.loadtest;
+
+import com.swisscom.crud.CrudApplication;
+import com.swisscom.crud.loadtest.DataSeeder.SeededService;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+
+public class LoadTestMain {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestMain.class);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        MongoServer mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress mongoAddress = mongoServer.bind();
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CrudApplication.class)
+                .properties(Map.of(
+                        "spring.data.mongodb.uri", "mongodb://" + mongoAddress.getHostString() + ":" + mongoAddress.getPort() + "/loadtest",
+                        "server.port", "0",
+                        "custom.persistence.mode", config.persistenceMode(),
+                        "logging.level.com.swisscom.crud", "INFO",
+                        "logging.level.org.springframework.data.mongodb.core.MongoTemplate", "INFO"))
+                .run(args)) {
+            List<SeededService> services = new DataSeeder(context.getBean(MongoTemplate.class)).seed(config);
+            logger.info("Seeded {} services with {} resources and {} owners per resource",
+                    services.size(), config.resourcesPerService(), config.ownersPerResource());
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LatencyReport report = new LatencyReport();
+            LoadDriver driver = new LoadDriver(WebClient.create("http://localhost:" + port), services, config, report);
+
+            logger.info("Warming up for {}", config.warmup());
+            driver.run(config.warmup()).block();
+            report.reset();
+
+            logger.info("Running at {} req/s for {}", config.requestsPerSecond(), config.duration());
+            long start = System.nanoTime();
+            driver.run(config.duration()).block();
+            report.write(config, System.nanoTime() - start, System.out);
+        } finally {
+            mongoServer.shutdownNow();
+        }
+    }
+}
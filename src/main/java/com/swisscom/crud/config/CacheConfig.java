@@ -0,0 +1,114 @@
+package com.swisscom.crud.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import com.swisscom.crud.repository.ServiceRepository;
+import com.swisscom.crud.service.CachedAggregates;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Collections;
+
+@Configuration
+public class CacheConfig {
+    @Value("${custom.cache.maximum-weight:100000}")
+    private long maximumWeight;
+
+    @Value("${custom.cache.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    @Value("${custom.cache.refresh-after-write:1m}")
+    private Duration refreshAfterWrite;
+
+    @Bean
+    public CacheManager cacheManager(ServiceRepository serviceRepository, ServiceVersionFloors versionFloors,
+                                     ObjectProvider<CachedAggregates> cachedAggregates) {
+        ChildKeyIndex resourceKeys = new ChildKeyIndex();
+        ChildKeyIndex ownerKeys = new ChildKeyIndex();
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                if (CacheNames.SERVICES.equals(name) || CacheNames.SERVICE_AGGREGATES.equals(name)) {
+                    return new VersionedServiceCache(name, cache, isAllowNullValues(), versionFloors);
+                }
+                if (CacheNames.RESOURCES.equals(name)) {
+                    return new IndexedChildCache(name, cache, isAllowNullValues(), resourceKeys);
+                }
+                if (CacheNames.OWNERS.equals(name)) {
+                    return new IndexedChildCache(name, cache, isAllowNullValues(), ownerKeys);
+                }
+                return super.adaptCaffeineCache(name, cache);
+            }
+        };
+        cacheManager.setCacheNames(Collections.emptyList());
+
+        cacheManager.registerCustomCache(CacheNames.SERVICES, caffeine()
+                .build(key -> serviceRepository.findByServiceId(key.toString()).orElse(null)));
+        cacheManager.registerCustomCache(CacheNames.SERVICE_AGGREGATES, caffeine()
+                .build(key -> serviceRepository.findAggregate(key.toString()).orElse(null)));
+        cacheManager.registerCustomCache(CacheNames.RESOURCES, caffeine()
+                .evictionListener(resourceKeys::evicted)
+                .build(resourceLoader(serviceRepository, cachedAggregates)));
+        cacheManager.registerCustomCache(CacheNames.OWNERS, caffeine()
+                .evictionListener(ownerKeys::evicted)
+                .build(ownerLoader(serviceRepository, cachedAggregates)));
+        return cacheManager;
+    }
+
+    private Caffeine<Object, Object> caffeine() {
+        return Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Object key, Object value) -> weightOf(value))
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .recordStats();
+    }
+
+    // Every RESOURCES/OWNERS miss and refresh goes through these loaders, not the @Cacheable method bodies,
+    // so this is where a cached aggregate is tried before the projection query. The provider is resolved on
+    // first load because CachedAggregates itself reads from this cache manager.
+    private static CacheLoader<Object, Object> resourceLoader(ServiceRepository serviceRepository, ObjectProvider<CachedAggregates> cachedAggregates) {
+        return key -> {
+            CacheNames.ResourceKey ids = (CacheNames.ResourceKey) key;
+            return cachedAggregates.getObject().resource(ids.serviceId(), ids.resourceId())
+                    .or(() -> serviceRepository.findServiceWithResource(ids.serviceId(), ids.resourceId())
+                            .filter(service -> service.getResources() != null && !service.getResources().isEmpty())
+                            .map(service -> service.getResources().get(0)))
+                    .orElse(null);
+        };
+    }
+
+    private static CacheLoader<Object, Object> ownerLoader(ServiceRepository serviceRepository, ObjectProvider<CachedAggregates> cachedAggregates) {
+        return key -> {
+            CacheNames.OwnerKey ids = (CacheNames.OwnerKey) key;
+            return cachedAggregates.getObject().owner(ids.serviceId(), ids.resourceId(), ids.ownerId())
+                    .or(() -> serviceRepository.findOwner(ids.serviceId(), ids.resourceId(), ids.ownerId()))
+                    .orElse(null);
+        };
+    }
+
+    // Weight approximates the number of embedded documents held by an entry.
+    static int weightOf(Object value) {
+        if (value instanceof Service service) {
+            int weight = 1;
+            if (service.getResources() != null) {
+                for (Resource resource : service.getResources()) {
+                    weight += weightOf(resource);
+                }
+            }
+            return weight;
+        }
+        if (value instanceof Resource resource) {
+            return 1 + (resource.getOwners() == null ? 0 : resource.getOwners().size());
+        }
+        return 1;
+    }
+}
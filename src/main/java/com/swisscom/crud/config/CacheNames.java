@@ -0,0 +1,33 @@
+package com.swisscom.crud.config;
+
+public final class CacheNames {
+    public static final String SERVICES = "ServiceCache";
+    public static final String SERVICE_AGGREGATES = "ServiceAggregateCache";
+    public static final String RESOURCES = "ResourceCache";
+    public static final String OWNERS = "OwnerCache";
+
+    private CacheNames() {
+    }
+
+    // Child entries are keyed by records rather than joined strings: an id containing the separator would
+    // otherwise be parsed back into a different resource or owner by the loaders.
+    public interface ChildKey {
+        String serviceId();
+
+        String resourceId();
+    }
+
+    public record ResourceKey(String serviceId, String resourceId) implements ChildKey {
+    }
+
+    public record OwnerKey(String serviceId, String resourceId, String ownerId) implements ChildKey {
+    }
+
+    public static ResourceKey resourceKey(String serviceId, String resourceId) {
+        return new ResourceKey(serviceId, resourceId);
+    }
+
+    public static OwnerKey ownerKey(String serviceId, String resourceId, String ownerId) {
+        return new OwnerKey(serviceId, resourceId, ownerId);
+    }
+}
@@ -0,0 +1,31 @@
+package com.swisscom.crud.config;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CacheStatisticsLogger {
+    private static final Logger logger = LoggerFactory.getLogger(CacheStatisticsLogger.class);
+    private final CacheManager cacheManager;
+
+    public CacheStatisticsLogger(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Scheduled(fixedDelayString = "${custom.cache.stats-log-interval:5m}", initialDelayString = "${custom.cache.stats-log-interval:5m}")
+    public void logCacheStatistics() {
+        for (String cacheName : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(cacheName) instanceof CaffeineCache caffeineCache) {
+                CacheStats stats = caffeineCache.getNativeCache().stats();
+                logger.info("Cache {}: size={}, hitRate={}, hits={}, misses={}, evictions={}, evictionWeight={}",
+                        cacheName, caffeineCache.getNativeCache().estimatedSize(), String.format("%.3f", stats.hitRate()),
+                        stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.evictionWeight());
+            }
+        }
+    }
+}
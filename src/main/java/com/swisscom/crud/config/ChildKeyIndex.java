@@ -0,0 +1,58 @@
+package com.swisscom.crud.config;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keys of a child cache per service id. It may briefly hold keys whose entry is already gone, which only costs a
+// no-op eviction, but never misses a cached key: entries are indexed on every load, read and put.
+class ChildKeyIndex {
+    private final Map<String, Set<CacheNames.ChildKey>> keysByService = new ConcurrentHashMap<>();
+
+    void add(Object key) {
+        if (!(key instanceof CacheNames.ChildKey child)) {
+            return;
+        }
+        Set<CacheNames.ChildKey> keys = keysByService.get(child.serviceId());
+        if (keys != null && keys.contains(child)) {
+            return;
+        }
+        keysByService.compute(child.serviceId(), (serviceId, current) -> {
+            Set<CacheNames.ChildKey> updated = current == null ? ConcurrentHashMap.newKeySet() : current;
+            updated.add(child);
+            return updated;
+        });
+    }
+
+    void remove(Object key) {
+        if (key instanceof CacheNames.ChildKey child) {
+            keysByService.computeIfPresent(child.serviceId(), (serviceId, keys) -> {
+                keys.remove(child);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    // Size and expiry evictions happen inside Caffeine; explicit evictions go through IndexedChildCache.
+    void evicted(Object key, Object value, RemovalCause cause) {
+        remove(key);
+    }
+
+    // The keys of the service, or of one of its resources when resourceId is given.
+    List<CacheNames.ChildKey> keysOf(String serviceId, String resourceId) {
+        Set<CacheNames.ChildKey> keys = keysByService.get(serviceId);
+        if (keys == null) {
+            return List.of();
+        }
+        return keys.stream()
+                .filter(key -> resourceId == null || key.resourceId().equals(resourceId))
+                .toList();
+    }
+
+    void clear() {
+        keysByService.clear();
+    }
+}
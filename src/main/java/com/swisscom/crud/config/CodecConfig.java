@@ -0,0 +1,31 @@
+package com.swisscom.crud.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// application/cbor and application/x-jackson-smile next to JSON for service-to-service clients. The mappers come
+// from Boot's builder (a new one per call), so the binary formats carry the same Jackson settings as JSON.
+@Configuration
+public class CodecConfig {
+
+    @Bean
+    public CodecCustomizer binaryCodecCustomizer(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        return configurer -> {
+            ObjectMapper cbor = builders.getObject().factory(new CBORFactory()).build();
+            ObjectMapper smile = builders.getObject().factory(new SmileFactory()).build();
+            configurer.customCodecs().register(new Jackson2CborDecoder(cbor));
+            configurer.customCodecs().register(new CollectingCborEncoder(cbor));
+            configurer.customCodecs().register(new Jackson2SmileDecoder(smile));
+            configurer.customCodecs().register(new Jackson2SmileEncoder(smile));
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.swisscom.crud.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.config.BlockingExecutionConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+// WebFlux invokes controller methods with non-reactive return types (the blocking controllers,
+// and through them every ServiceManager/ResourceManager/OwnerManager call) on this executor
+// instead of the Netty event loop.
+@Configuration
+@ConditionalOnProperty(name = "custom.execution.mode", havingValue = "virtual")
+public class ExecutionConfig implements WebFluxConfigurer {
+
+    @Value("${custom.execution.max-concurrency:100}")
+    private int maxConcurrency;
+
+    private final MeterRegistry meterRegistry;
+
+    public ExecutionConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public LimitedVirtualThreadExecutor blockingExecutor() {
+        return new LimitedVirtualThreadExecutor(maxConcurrency, meterRegistry);
+    }
+
+    @Override
+    public void configureBlockingExecution(BlockingExecutionConfigurer configurer) {
+        configurer.setExecutor(blockingExecutor());
+    }
+}
@@ -0,0 +1,68 @@
+package com.swisscom.crud.config;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+
+// Resource and owner caches keep their keys indexed per service, so dropping the entries of one service costs
+// the number of its entries instead of a scan over the whole cache. A key leaves the index before its entry, so a
+// read racing the eviction can only leave a stale key behind, never an unindexed entry.
+public class IndexedChildCache extends CaffeineCache {
+    private final ChildKeyIndex index;
+
+    IndexedChildCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                      boolean allowNullValues, ChildKeyIndex index) {
+        super(name, cache, allowNullValues);
+        this.index = index;
+    }
+
+    public void evictChildren(String serviceId, String resourceId) {
+        for (CacheNames.ChildKey key : index.keysOf(serviceId, resourceId)) {
+            evict(key);
+        }
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        if (value != null) {
+            index.add(key);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(key, value);
+        index.add(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = super.putIfAbsent(key, value);
+        index.add(key);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        index.remove(key);
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        index.remove(key);
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        index.clear();
+        return super.invalidate();
+    }
+}
@@ -0,0 +1,65 @@
+package com.swisscom.crud.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One virtual thread per task, but at most maxConcurrency of them past the semaphore at a time.
+// Waiting tasks park their (cheap) virtual thread instead of queueing inside the Mongo connection pool.
+public class LimitedVirtualThreadExecutor implements AsyncTaskExecutor, DisposableBean {
+    private final ExecutorService delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("crud-vt-", 0).factory());
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Timer queueWait;
+
+    public LimitedVirtualThreadExecutor(int maxConcurrency, MeterRegistry meterRegistry) {
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+        Gauge.builder("crud.execution.queue.depth", queued, AtomicInteger::get)
+                .register(meterRegistry);
+        Gauge.builder("crud.execution.active", permits, p -> maxConcurrency - p.availablePermits())
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("crud.execution.queue.wait")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        delegate.execute(() -> {
+            queued.incrementAndGet();
+            long start = System.nanoTime();
+            // uninterruptibly: a task dropped here would leave its request hanging
+            permits.acquireUninterruptibly();
+            queued.decrementAndGet();
+            queueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    @Override
+    public void destroy() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,33 @@
+package com.swisscom.crud.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    // Boot already exports cache.gets/cache.evictions per cache; the ratio saves recomputing it in every dashboard.
+    @Bean
+    public MeterBinder cacheHitRatioMetrics(CacheManager cacheManager) {
+        return registry -> {
+            for (String cacheName : cacheManager.getCacheNames()) {
+                if (cacheManager.getCache(cacheName) instanceof CaffeineCache cache) {
+                    Gauge.builder("crud.cache.hit.ratio", cache, c -> c.getNativeCache().stats().hitRate())
+                            .tag("cache", cacheName)
+                            .register(registry);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.swisscom.crud.config;
+
+import com.swisscom.crud.model.Service;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterLoadEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+public class ServiceLoadMetricsListener extends AbstractMongoEventListener<Service> {
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+
+    private final DistributionSummary documentSize;
+    private final DistributionSummary resourceCount;
+    private final DistributionSummary ownerCount;
+    private final double sizeSampleRate;
+
+    public ServiceLoadMetricsListener(MeterRegistry meterRegistry,
+                                      @Value("${custom.metrics.document-size.sample-rate:0.01}") double sizeSampleRate) {
+        this.sizeSampleRate = sizeSampleRate;
+        this.documentSize = DistributionSummary.builder("crud.service.document.size")
+                .description("BSON size of a sample of loaded Service documents with resources")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.resourceCount = DistributionSummary.builder("crud.service.resources.size")
+                .description("Number of resources in loaded Service documents")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.ownerCount = DistributionSummary.builder("crud.resource.owners.size")
+                .description("Number of owners per resource in loaded Service documents")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Fired by both MongoTemplate and ReactiveMongoTemplate, so projected reads are measured as loaded.
+    // The size is only known by encoding the document again, which for large aggregates costs as much as the read
+    // itself, so it is taken from a sample of the loads that carry resources; summaries would only skew it.
+    @Override
+    public void onAfterLoad(AfterLoadEvent<Service> event) {
+        Document document = event.getDocument();
+        if (document == null) {
+            return;
+        }
+        if (document.get("resources") instanceof List<?> resources) {
+            if (sizeSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sizeSampleRate) {
+                documentSize.record(new RawBsonDocument(document, DOCUMENT_CODEC).getByteBuffer().remaining());
+            }
+            resourceCount.record(resources.size());
+            for (Object resource : resources) {
+                if (resource instanceof Document embedded && embedded.get("owners") instanceof List<?> owners) {
+                    ownerCount.record(owners.size());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.swisscom.crud.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.swisscom.crud.model.Service;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Lowest Service version a cache may still hold per service id, raised by every write. A floor only has
+// to outlive the cache entries written before it, so it expires with the same expire-after-write.
+@Component
+public class ServiceVersionFloors {
+    private static final long DELETED = Long.MAX_VALUE;
+    private final Cache<String, Long> floors;
+
+    public ServiceVersionFloors(@Value("${custom.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.floors = Caffeine.newBuilder()
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public void raise(String serviceId, long version) {
+        floors.asMap().merge(serviceId, version, Math::max);
+    }
+
+    // True when the floor moved, i.e. this instance had not yet seen a write up to that version.
+    public boolean advance(String serviceId, long version) {
+        boolean[] advanced = {false};
+        floors.asMap().compute(serviceId, (id, floor) -> {
+            if (floor != null && floor >= version) {
+                return floor;
+            }
+            advanced[0] = true;
+            return version;
+        });
+        return advanced[0];
+    }
+
+    // For writes that do not report their version (bulk writes): every write increments it by at least one.
+    public void raiseAbove(String serviceId, Long observedVersion) {
+        if (observedVersion != null) {
+            raise(serviceId, observedVersion + 1);
+        }
+    }
+
+    public void deleted(String serviceId) {
+        raise(serviceId, DELETED);
+    }
+
+    public boolean isStale(Object serviceId, Service service) {
+        Long floor = floors.getIfPresent(serviceId.toString());
+        return floor != null && service.getVersion() != null && service.getVersion() < floor;
+    }
+}
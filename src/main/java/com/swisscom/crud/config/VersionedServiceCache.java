@@ -0,0 +1,40 @@
+package com.swisscom.crud.config;
+
+import com.swisscom.crud.model.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+// Service caches refuse entries older than the version floor: a @CachePut or a load that read the
+// document before a concurrent write would otherwise re-populate the cache right after its eviction.
+class VersionedServiceCache extends CaffeineCache {
+    private static final Logger logger = LoggerFactory.getLogger(VersionedServiceCache.class);
+    private final ServiceVersionFloors versionFloors;
+
+    VersionedServiceCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                          boolean allowNullValues, ServiceVersionFloors versionFloors) {
+        super(name, cache, allowNullValues);
+        this.versionFloors = versionFloors;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        if (value instanceof Service service && versionFloors.isStale(key, service)) {
+            logger.debug("Dropping stale {} entry for {} at version {}", getName(), key, service.getVersion());
+            evict(key);
+            // a loading cache reloads the current document here, a plain cache reports a miss
+            return super.lookup(key);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value instanceof Service service && versionFloors.isStale(key, service)) {
+            logger.debug("Skipping stale {} put for {} at version {}", getName(), key, service.getVersion());
+            return;
+        }
+        super.put(key, value);
+    }
+}
@@ -0,0 +1,64 @@
+package com.swisscom.crud.controller;
+
+import com.swisscom.crud.dto.BatchItemResultDto;
+import com.swisscom.crud.dto.BatchOwnerItemDto;
+import com.swisscom.crud.dto.BatchResourceItemDto;
+import com.swisscom.crud.dto.BatchServiceItemDto;
+import com.swisscom.crud.exception.InvalidRequestException;
+import com.swisscom.crud.service.BatchManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Batches go through MongoTemplate bulk writes in both persistence modes, offloaded from the event loop.
+@RestController
+public class BatchController {
+    private final BatchManager batchManager;
+
+    @Value("${custom.batch.max-items:10000}")
+    private int maxItems;
+
+    public BatchController(BatchManager batchManager) {
+        this.batchManager = batchManager;
+    }
+
+    @PostMapping(value = "/api/services:batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<List<BatchItemResultDto>>> batchServices(@RequestBody Flux<BatchServiceItemDto> items) {
+        return run(items, batchManager::batchServices);
+    }
+
+    @PostMapping(value = "/api/services/{serviceId}/resources:batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<List<BatchItemResultDto>>> batchResources(@PathVariable String serviceId, @RequestBody Flux<BatchResourceItemDto> items) {
+        return run(items, batch -> batchManager.batchResources(serviceId, batch));
+    }
+
+    @PostMapping(value = "/api/services/{serviceId}/resources/{resourceId}/owners:batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<List<BatchItemResultDto>>> batchOwners(@PathVariable String serviceId, @PathVariable String resourceId, @RequestBody Flux<BatchOwnerItemDto> items) {
+        return run(items, batch -> batchManager.batchOwners(serviceId, resourceId, batch));
+    }
+
+    private <T> Mono<ResponseEntity<List<BatchItemResultDto>>> run(Flux<T> items, Function<List<T>, List<BatchItemResultDto>> batch) {
+        return items.take(maxItems + 1L)
+                .collectList()
+                .flatMap(list -> {
+                    if (list.size() > maxItems) {
+                        return Mono.error(new InvalidRequestException("Batch must not contain more than " + maxItems + " items"));
+                    }
+                    if (list.isEmpty()) {
+                        return Mono.error(new InvalidRequestException("Batch must contain at least one item"));
+                    }
+                    return Mono.fromCallable(() -> batch.apply(list)).subscribeOn(Schedulers.boundedElastic());
+                })
+                .map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,177 @@
+package com.swisscom.crud.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Strong entity tags derived from the service version. A service is tagged "<version>", a resource or owner
+// representation "<version>-<target>-<digest>", where <target> fingerprints the URL that issued it: any write to the
+// service changes the version, so a tag this URL issued at the current version is still valid without loading
+// anything else. Any other tag, and every tag once the version moved, is compared by the digest of the loaded
+// representation, so unrelated writes to the service do not invalidate it. JSON, CBOR and Smile carry the same
+// content in different bytes, so every format gets its own tag and tagged responses vary by Accept.
+final class ETags {
+    static final String ANY = "*";
+    // The formats the codecs write, in registration order.
+    static final List<MediaType> REPRESENTATIONS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, MediaTypes.SMILE);
+    private static final ObjectMapper DIGEST_MAPPER = new ObjectMapper();
+    private static final int DIGEST_LENGTH = 64;
+    private static final int TARGET_LENGTH = 16;
+
+    private ETags() {
+    }
+
+    // JSON keeps the bare version, so tags issued before the binary formats existed stay valid.
+    static String of(Long version, MediaType format) {
+        return MediaType.APPLICATION_JSON.equals(format) ? "\"" + version + "\"" : "\"" + version + "-" + format.getSubtype() + "\"";
+    }
+
+    static String of(Long version, String target, MediaType format, Object representation) {
+        return prefix(version, target, format) + digest(representation) + "\"";
+    }
+
+    // The format WebFlux will write for this Accept header: the most specific acceptable type wins, ties go to the
+    // registration order. Nothing acceptable or an unparsable header ends in 406 before a tag is sent.
+    static MediaType format(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            MimeTypeUtils.sortBySpecificity(acceptable);
+        } catch (InvalidMediaTypeException | InvalidMimeTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        for (MediaType type : acceptable) {
+            for (MediaType format : REPRESENTATIONS) {
+                if (type.isCompatibleWith(format)) {
+                    return format;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    // The resource or owner a tag belongs to, e.g. target("resources", serviceId, resourceId).
+    static String target(String... path) {
+        return String.join("/", path);
+    }
+
+    // SHA-256 of the JSON form; a 32-bit hashCode could collide and answer a changed representation with 304.
+    private static String digest(Object representation) {
+        try {
+            return sha256(DIGEST_MAPPER.writeValueAsBytes(representation));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot compute entity tag", e);
+        }
+    }
+
+    private static String prefix(Long version, String target, MediaType format) {
+        String fingerprinted = MediaType.APPLICATION_JSON.equals(format) ? target : target + ";" + format.getSubtype();
+        return "\"" + version + "-" + sha256(fingerprinted.getBytes(StandardCharsets.UTF_8)).substring(0, TARGET_LENGTH) + "-";
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot compute entity tag", e);
+        }
+    }
+
+    // Only a tag of the exact shape this target issues at this version may skip loading the representation;
+    // a bare service tag or another URL's tag carrying the same version must not.
+    private static boolean issuedFor(String tag, String prefix) {
+        if (!tag.startsWith(prefix) || !tag.endsWith("\"") || tag.length() != prefix.length() + DIGEST_LENGTH + 1) {
+            return false;
+        }
+        return tag.substring(prefix.length(), tag.length() - 1).chars().allMatch(c -> Character.digit(c, 16) >= 0);
+    }
+
+    // The service tag in the header if it was issued at this version; weak tags count for If-None-Match.
+    static String issuedAt(String ifNoneMatch, Long version, MediaType format) {
+        String current = of(version, format);
+        return tags(ifNoneMatch).stream().map(ETags::strip).anyMatch(current::equals) ? current : null;
+    }
+
+    // The resource or owner tag in the header that this target issued at this version, if any.
+    static String issuedAt(String ifNoneMatch, Long version, String target, MediaType format) {
+        String prefix = prefix(version, target, format);
+        return tags(ifNoneMatch).stream()
+                .map(ETags::strip)
+                .filter(tag -> issuedFor(tag, prefix))
+                .findFirst()
+                .orElse(null);
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    static <T> ResponseEntity<T> okOrNotModified(String ifNoneMatch, String etag, T body) {
+        boolean matches = tags(ifNoneMatch).stream()
+                .anyMatch(tag -> ANY.equals(tag) || etag.equals(strip(tag)));
+        return matches ? notModified(etag) : ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(body);
+    }
+
+    // If-Match uses strong comparison. The representation is only loaded when no tag was issued by this target at
+    // the current version; with "*" it is loaded to make sure the target exists. A match yields the version it was
+    // decided at, which then guards the write so that nothing can land between the check and the write. A tag of
+    // any format matches, since a client may read CBOR and write without an Accept header.
+    static Long matchingVersion(String ifMatch, Long version, String target, Supplier<Object> representation) {
+        List<String> tags = tags(ifMatch);
+        if (tags.contains(ANY)) {
+            representation.get();
+            return version;
+        }
+        List<String> strong = tags.stream().filter(tag -> !tag.startsWith("W/")).toList();
+        List<String> prefixes = REPRESENTATIONS.stream().map(format -> prefix(version, target, format)).toList();
+        if (strong.stream().anyMatch(tag -> prefixes.stream().anyMatch(prefix -> issuedFor(tag, prefix)))) {
+            return version;
+        }
+        if (strong.isEmpty()) {
+            return null;
+        }
+        String digest = digest(representation.get());
+        return prefixes.stream().anyMatch(prefix -> strong.contains(prefix + digest + "\"")) ? version : null;
+    }
+
+    // Service tags carry only the version, so a matching If-Match yields the version to guard the write with.
+    static Long matchingVersion(String ifMatch, Long version) {
+        List<String> tags = tags(ifMatch);
+        boolean matches = tags.contains(ANY) || tags.stream()
+                .filter(tag -> !tag.startsWith("W/"))
+                .anyMatch(tag -> REPRESENTATIONS.stream().anyMatch(format -> of(version, format).equals(tag)));
+        return matches ? version : null;
+    }
+
+    private static String strip(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static List<String> tags(String header) {
+        if (header == null || header.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(header.split(","))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,14 @@
+package com.swisscom.crud.controller;
+
+import org.springframework.http.MediaType;
+
+final class MediaTypes {
+    // RFC 7396; Jackson reads it like application/json. None of the patchable fields is optional,
+    // so a null member leaves the field unchanged instead of removing it.
+    static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+    // Registered by CodecConfig; Spring has no constant for it.
+    static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private MediaTypes() {
+    }
+}
@@ -1,59 +1,157 @@
 package com.swisscom.crud.controller;
 
 import com.swisscom.crud.dto.CreateOwnerDto;
+import com.swisscom.crud.dto.PageDto;
 import com.swisscom.crud.dto.ReadOwnerDto;
 import com.swisscom.crud.dto.UpdateOwnerDto;
+import com.swisscom.crud.exception.PreconditionFailedException;
+import com.swisscom.crud.mapper.DtoMapper;
 import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.service.CursorCodec;
 import com.swisscom.crud.service.OwnerManager;
+import com.swisscom.crud.service.ServiceManager;
 import jakarta.validation.Valid;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/services/{serviceId}/resources/{resourceId}/owners")
+@ConditionalOnProperty(name = "custom.persistence.mode", havingValue = "blocking", matchIfMissing = true)
 public class OwnerController {
     private final OwnerManager ownerManager;
-    private final ModelMapper modelMapper;
+    private final ServiceManager serviceManager;
+    private final DtoMapper dtoMapper;
+    @Value("${custom.pagination.max-page-size:500}")
+    private int maxPageSize;
+    @Value("${custom.pagination.stream-batch-size:200}")
+    private int streamBatchSize;
 
-    public OwnerController(OwnerManager ownerManager, ModelMapper modelMapper) {
+    public OwnerController(OwnerManager ownerManager, ServiceManager serviceManager, DtoMapper dtoMapper) {
         this.ownerManager = ownerManager;
-        this.modelMapper = modelMapper;
+        this.serviceManager = serviceManager;
+        this.dtoMapper = dtoMapper;
     }
 
     @PostMapping
     public ResponseEntity<ReadOwnerDto> createOwner(@Valid @RequestBody CreateOwnerDto createOwnerDto, @PathVariable String serviceId, @PathVariable String resourceId) {
         Owner createdOwner = ownerManager.createOwner(createOwnerDto, serviceId, resourceId);
-        return new ResponseEntity<>(modelMapper.map(createdOwner, ReadOwnerDto.class), HttpStatus.CREATED);
+        return new ResponseEntity<>(dtoMapper.toReadOwnerDto(createdOwner), HttpStatus.CREATED);
     }
 
     @GetMapping()
-    public ResponseEntity<List<ReadOwnerDto>> getOwnersPerResource(@PathVariable String serviceId, @PathVariable String resourceId) {
+    public ResponseEntity<List<ReadOwnerDto>> getOwnersPerResource(@PathVariable String serviceId, @PathVariable String resourceId,
+                                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        String target = ETags.target("owners", serviceId, resourceId);
+        Long version = tagVersion(serviceId, ifNoneMatch);
+        MediaType format = ETags.format(accept);
+        String unchanged = ETags.issuedAt(ifNoneMatch, version, target, format);
+        if (unchanged != null) {
+            return ETags.notModified(unchanged);
+        }
         List<Owner> owners = ownerManager.getOwnersPerResources(serviceId, resourceId);
         List<ReadOwnerDto> ownerDtos = owners.stream()
-                .map(owner -> modelMapper.map(owner, ReadOwnerDto.class))
+                .map(owner -> dtoMapper.toReadOwnerDto(owner))
                 .toList();
-        return new ResponseEntity<>(ownerDtos, HttpStatus.OK);
+        return ETags.okOrNotModified(ifNoneMatch, ETags.of(version, target, format, ownerDtos), ownerDtos);
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageDto<ReadOwnerDto>> getOwnersPage(@PathVariable String serviceId, @PathVariable String resourceId, @RequestParam int limit, @RequestParam(required = false) String cursor) {
+        PageDto<Owner> page = ownerManager.getOwnersPage(serviceId, resourceId, cursor, CursorCodec.pageSize(limit, maxPageSize));
+        List<ReadOwnerDto> ownerDtos = page.getItems().stream()
+                .map(owner -> dtoMapper.toReadOwnerDto(owner))
+                .toList();
+        return new ResponseEntity<>(new PageDto<>(ownerDtos, page.getNextCursor()), HttpStatus.OK);
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ReadOwnerDto> streamOwners(@PathVariable String serviceId, @PathVariable String resourceId) {
+        return PageStreams.blocking((String cursor) -> ownerManager.getOwnersPage(serviceId, resourceId, cursor, streamBatchSize))
+                .map(owner -> dtoMapper.toReadOwnerDto(owner));
     }
 
     @GetMapping("/{ownerId}")
-    public ResponseEntity<ReadOwnerDto> getOwnerById(@PathVariable String serviceId, @PathVariable String resourceId, @PathVariable String ownerId) {
-        Owner owner = ownerManager.getOwnerById(ownerId, serviceId, resourceId);
-        return new ResponseEntity<>(modelMapper.map(owner, ReadOwnerDto.class), HttpStatus.OK);
+    public ResponseEntity<ReadOwnerDto> getOwnerById(@PathVariable String serviceId, @PathVariable String resourceId, @PathVariable String ownerId,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        String target = ETags.target("owners", serviceId, resourceId, ownerId);
+        Long version = tagVersion(serviceId, ifNoneMatch);
+        MediaType format = ETags.format(accept);
+        String unchanged = ETags.issuedAt(ifNoneMatch, version, target, format);
+        if (unchanged != null) {
+            return ETags.notModified(unchanged);
+        }
+        ReadOwnerDto ownerDto = dtoMapper.toReadOwnerDto(ownerManager.getOwnerById(ownerId, serviceId, resourceId));
+        return ETags.okOrNotModified(ifNoneMatch, ETags.of(version, target, format, ownerDto), ownerDto);
     }
 
     @PutMapping("/{ownerId}")
-    public ResponseEntity<ReadOwnerDto> updateResource(@PathVariable String ownerId, @PathVariable String resourceId, @PathVariable String serviceId, @Valid @RequestBody UpdateOwnerDto updateOwnerDto) {
-        Owner updatedOwner = ownerManager.updateOwner(ownerId, serviceId, resourceId, updateOwnerDto);
-        return new ResponseEntity<>(modelMapper.map(updatedOwner, ReadOwnerDto.class), HttpStatus.OK);
+    public ResponseEntity<ReadOwnerDto> updateResource(@PathVariable String ownerId, @PathVariable String resourceId, @PathVariable String serviceId, @Valid @RequestBody UpdateOwnerDto updateOwnerDto,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            Owner updatedOwner = ownerManager.updateOwner(ownerId, serviceId, resourceId, updateOwnerDto);
+            return new ResponseEntity<>(dtoMapper.toReadOwnerDto(updatedOwner), HttpStatus.OK);
+        }
+        try {
+            Owner updatedOwner = ownerManager.updateOwner(ownerId, serviceId, resourceId, updateOwnerDto, matchingVersion(ifMatch, serviceId, resourceId, ownerId));
+            return new ResponseEntity<>(dtoMapper.toReadOwnerDto(updatedOwner), HttpStatus.OK);
+        } catch (OptimisticLockingFailureException e) {
+            throw preconditionFailed(ownerId);
+        }
+    }
+
+    @PatchMapping(value = "/{ownerId}", consumes = {MediaTypes.MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ReadOwnerDto> patchOwner(@PathVariable String ownerId, @PathVariable String resourceId, @PathVariable String serviceId, @Valid @RequestBody UpdateOwnerDto updateOwnerDto,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return updateResource(ownerId, resourceId, serviceId, updateOwnerDto, ifMatch);
     }
 
     @DeleteMapping("/{ownerId}")
-    public ResponseEntity<Void> deleteResource(@PathVariable String ownerId, @PathVariable String resourceId, @PathVariable String serviceId) {
-        ownerManager.deleteOwner(ownerId, serviceId, resourceId);
+    public ResponseEntity<Void> deleteResource(@PathVariable String ownerId, @PathVariable String resourceId, @PathVariable String serviceId,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            ownerManager.deleteOwner(ownerId, serviceId, resourceId);
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        try {
+            ownerManager.deleteOwner(ownerId, serviceId, resourceId, matchingVersion(ifMatch, serviceId, resourceId, ownerId));
+        } catch (OptimisticLockingFailureException e) {
+            throw preconditionFailed(ownerId);
+        }
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
-}
\ No newline at end of file
+
+    // A conditional GET is checked against the version-only projection; otherwise the tag takes the version of the
+    // cached service, so a cache hit on the content does not cost a MongoDB round trip.
+    private Long tagVersion(String serviceId, String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return serviceManager.getServiceByIdWithoutSummary(serviceId).getVersion();
+        }
+        return serviceManager.getServiceVersion(serviceId);
+    }
+
+    // The write is guarded by the version the tag matched at, so a write landing after the check fails it.
+    private Long matchingVersion(String ifMatch, String serviceId, String resourceId, String ownerId) {
+        Long version = ETags.matchingVersion(ifMatch, serviceManager.getServiceVersion(serviceId),
+                ETags.target("owners", serviceId, resourceId, ownerId),
+                () -> dtoMapper.toReadOwnerDto(ownerManager.getOwnerById(ownerId, serviceId, resourceId)));
+        if (version == null) {
+            throw preconditionFailed(ownerId);
+        }
+        return version;
+    }
+
+    private static PreconditionFailedException preconditionFailed(String ownerId) {
+        return new PreconditionFailedException("Owner " + ownerId + " has changed since it was read. Please refresh and try again.");
+    }
+}
@@ -0,0 +1,54 @@
+package com.swisscom.crud.controller;
+
+import com.swisscom.crud.dto.OwnerLocationDto;
+import com.swisscom.crud.dto.PageDto;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.model.OwnerLocation;
+import com.swisscom.crud.service.CursorCodec;
+import com.swisscom.crud.service.OwnerManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/owners")
+@ConditionalOnProperty(name = "custom.persistence.mode", havingValue = "blocking", matchIfMissing = true)
+public class OwnerLookupController {
+    private final OwnerManager ownerManager;
+    private final DtoMapper dtoMapper;
+    @Value("${custom.pagination.max-page-size:500}")
+    private int maxPageSize;
+    @Value("${custom.pagination.stream-batch-size:200}")
+    private int streamBatchSize;
+
+    public OwnerLookupController(OwnerManager ownerManager, DtoMapper dtoMapper) {
+        this.ownerManager = ownerManager;
+        this.dtoMapper = dtoMapper;
+    }
+
+    @GetMapping(params = "accountNumber")
+    public ResponseEntity<PageDto<OwnerLocationDto>> findOwnersByAccountNumber(@RequestParam String accountNumber,
+                                                                               @RequestParam(defaultValue = "100") int limit,
+                                                                               @RequestParam(required = false) String cursor) {
+        PageDto<OwnerLocation> page = ownerManager.findOwnersByAccountNumber(accountNumber, cursor, CursorCodec.pageSize(limit, maxPageSize));
+        List<OwnerLocationDto> locationDtos = page.getItems().stream()
+                .map(dtoMapper::toOwnerLocationDto)
+                .toList();
+        return new ResponseEntity<>(new PageDto<>(locationDtos, page.getNextCursor()), HttpStatus.OK);
+    }
+
+    @GetMapping(params = "accountNumber", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<OwnerLocationDto> streamOwnersByAccountNumber(@RequestParam String accountNumber) {
+        return PageStreams.blocking((String cursor) -> ownerManager.findOwnersByAccountNumber(accountNumber, cursor, streamBatchSize))
+                .map(dtoMapper::toOwnerLocationDto);
+    }
+}
@@ -0,0 +1,23 @@
+package com.swisscom.crud.controller;
+
+import com.swisscom.crud.dto.PageDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.function.Function;
+
+final class PageStreams {
+    private PageStreams() {
+    }
+
+    static <T> Flux<T> blocking(Function<String, PageDto<T>> pageLoader) {
+        return reactive(cursor -> Mono.fromCallable(() -> pageLoader.apply(cursor)).subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    static <T> Flux<T> reactive(Function<String, Mono<PageDto<T>>> pageLoader) {
+        return Mono.defer(() -> pageLoader.apply(null))
+                .expand(page -> page.getNextCursor() == null ? Mono.empty() : pageLoader.apply(page.getNextCursor()))
+                .concatMapIterable(PageDto::getItems);
+    }
+}
@@ -0,0 +1,117 @@
+package com.swisscom.crud.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.RawBsonDocument;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+// Streams BSON straight from the driver's bytes into a JSON buffer, renaming "_id" to "id" and writing
+// ObjectIds as hex strings, so the output matches the read DTOs without building any of them.
+final class RawJson {
+
+    @FunctionalInterface
+    interface Body {
+        void write(BsonReader reader, JsonGenerator json) throws IOException;
+    }
+
+    private RawJson() {
+    }
+
+    // The BSON size is a close estimate of the JSON size, so the buffer rarely has to grow.
+    static DataBuffer encode(RawBsonDocument document, DataBufferFactory bufferFactory, JsonFactory jsonFactory, Body body) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(document.getByteBuffer().remaining());
+        try (BsonReader reader = document.asBsonReader();
+             JsonGenerator json = jsonFactory.createGenerator(buffer.asOutputStream(), JsonEncoding.UTF8)) {
+            body.write(reader, json);
+            return buffer;
+        } catch (IOException e) {
+            DataBufferUtils.release(buffer);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+    }
+
+    static void document(BsonReader reader, JsonGenerator json) throws IOException {
+        reader.readStartDocument();
+        json.writeStartObject();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            json.writeFieldName("_id".equals(name) ? "id" : name);
+            value(reader, json);
+        }
+        reader.readEndDocument();
+        json.writeEndObject();
+    }
+
+    // Writes the array under field of the current document, or [] when the field is missing.
+    static void arrayField(BsonReader reader, JsonGenerator json, String field) throws IOException {
+        if (enterField(reader, field) && reader.getCurrentBsonType() == BsonType.ARRAY) {
+            value(reader, json);
+        } else {
+            json.writeStartArray();
+            json.writeEndArray();
+        }
+    }
+
+    // Moves into the first element of the array under field; false when there is none.
+    static boolean enterFirstElement(BsonReader reader, String field) {
+        if (!enterField(reader, field) || reader.getCurrentBsonType() != BsonType.ARRAY) {
+            return false;
+        }
+        reader.readStartArray();
+        return reader.readBsonType() != BsonType.END_OF_DOCUMENT;
+    }
+
+    private static boolean enterField(BsonReader reader, String field) {
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (field.equals(reader.readName())) {
+                return true;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    private static void value(BsonReader reader, JsonGenerator json) throws IOException {
+        switch (reader.getCurrentBsonType()) {
+            case DOCUMENT -> document(reader, json);
+            case ARRAY -> {
+                reader.readStartArray();
+                json.writeStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    value(reader, json);
+                }
+                reader.readEndArray();
+                json.writeEndArray();
+            }
+            case OBJECT_ID -> json.writeString(reader.readObjectId().toHexString());
+            case STRING -> json.writeString(reader.readString());
+            case INT32 -> json.writeNumber(reader.readInt32());
+            case INT64 -> json.writeNumber(reader.readInt64());
+            case DOUBLE -> json.writeNumber(reader.readDouble());
+            case DECIMAL128 -> json.writeNumber(reader.readDecimal128().bigDecimalValue());
+            case BOOLEAN -> json.writeBoolean(reader.readBoolean());
+            case DATE_TIME -> json.writeString(Instant.ofEpochMilli(reader.readDateTime()).toString());
+            case NULL -> {
+                reader.readNull();
+                json.writeNull();
+            }
+            default -> {
+                reader.skipValue();
+                json.writeNull();
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.swisscom.crud.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swisscom.crud.exception.ErrorResponse;
+import com.swisscom.crud.repository.RawServiceReads;
+import org.bson.RawBsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.server.RequestPredicate;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.accept;
+import static org.springframework.web.reactive.function.server.RequestPredicates.path;
+import static org.springframework.web.reactive.function.server.RequestPredicates.queryParam;
+
+// custom.read.mode=raw: the plain JSON reads of a service, its resources and a resource's owners bypass the
+// managers, the caches and the DTO mapping. Router functions are matched before the annotated controllers,
+// which still serve pages, streams, other media types and every write.
+@Configuration
+@ConditionalOnProperty(name = "custom.read.mode", havingValue = "raw")
+public class RawReadRoutes {
+    private static final Logger logger = LoggerFactory.getLogger(RawReadRoutes.class);
+
+    private final RawServiceReads rawServiceReads;
+    private final JsonFactory jsonFactory;
+
+    public RawReadRoutes(RawServiceReads rawServiceReads, ObjectMapper objectMapper) {
+        this.rawServiceReads = rawServiceReads;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> rawReadRouter() {
+        RequestPredicate plainJson = accept(MediaType.APPLICATION_JSON).and(queryParam("limit", limit -> true).negate());
+        return RouterFunctions.route()
+                .GET("/api/services/{id}", plainJson.and(path("/api/services/events").negate()), this::service)
+                .GET("/api/services/{serviceId}/resources", plainJson, this::resources)
+                .GET("/api/services/{serviceId}/resources/{resourceId}", plainJson, this::resource)
+                .GET("/api/services/{serviceId}/resources/{resourceId}/owners", plainJson, this::owners)
+                .build();
+    }
+
+    Mono<ServerResponse> service(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return rawServiceReads.findServiceSummary(id)
+                .flatMap(document -> ok(document, RawJson::document))
+                .switchIfEmpty(Mono.defer(() -> notFound(request, "Service not found with id: " + id)));
+    }
+
+    Mono<ServerResponse> resources(ServerRequest request) {
+        String serviceId = request.pathVariable("serviceId");
+        return rawServiceReads.findResources(serviceId)
+                .flatMap(document -> ok(document, (reader, json) -> RawJson.arrayField(reader, json, "resources")))
+                .switchIfEmpty(Mono.defer(() -> notFound(request, "Service not found with id: " + serviceId)));
+    }
+
+    Mono<ServerResponse> resource(ServerRequest request) {
+        return withResource(request, (reader, json) -> {
+            RawJson.enterFirstElement(reader, "resources");
+            RawJson.document(reader, json);
+        });
+    }
+
+    Mono<ServerResponse> owners(ServerRequest request) {
+        return withResource(request, (reader, json) -> {
+            RawJson.enterFirstElement(reader, "resources");
+            RawJson.arrayField(reader, json, "owners");
+        });
+    }
+
+    private Mono<ServerResponse> withResource(ServerRequest request, RawJson.Body body) {
+        String serviceId = request.pathVariable("serviceId");
+        String resourceId = request.pathVariable("resourceId");
+        return rawServiceReads.findResource(serviceId, resourceId)
+                .flatMap(document -> document.containsKey("resources")
+                        ? ok(document, body)
+                        : notFound(request, "Resource not found with id: " + resourceId))
+                .switchIfEmpty(Mono.defer(() -> notFound(request, "Service not found with id: " + serviceId)));
+    }
+
+    // The buffer comes from the response's own factory, which on Netty hands out pooled buffers.
+    private Mono<ServerResponse> ok(RawBsonDocument document, RawJson.Body body) {
+        BodyInserter<Object, ReactiveHttpOutputMessage> inserter = (message, context) ->
+                message.writeWith(Mono.fromCallable(() -> RawJson.encode(document, message.bufferFactory(), jsonFactory, body)));
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(inserter);
+    }
+
+    // Same body as GlobalExceptionHandler, which does not see router functions.
+    private Mono<ServerResponse> notFound(ServerRequest request, String message) {
+        logger.error(message);
+        HttpStatus status = HttpStatus.NOT_FOUND;
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ErrorResponse(status.value(), status.getReasonPhrase(), message, request.path()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.swisscom.crud.controller;
+
+import com.swisscom.crud.dto.CreateOwnerDto;
+import com.swisscom.crud.dto.PageDto;
+import com.swisscom.crud.dto.ReadOwnerDto;
+import com.swisscom.crud.dto.UpdateOwnerDto;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.service.CursorCodec;
+import com.swisscom.crud.service.ReactiveOwnerManager;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/services/{serviceId}/resources/{resourceId}/owners")
+@ConditionalOnProperty(name = "custom.persistence.mode", havingValue = "reactive")
+public class ReactiveOwnerController {
+    private final ReactiveOwnerManager ownerManager;
+    private final DtoMapper dtoMapper;
+    @Value("${custom.pagination.max-page-size:500}")
+    private int maxPageSize;
+    @Value("${custom.pagination.stream-batch-size:200}")
+    private int streamBatchSize;
+
+    public ReactiveOwnerController(ReactiveOwnerManager ownerManager, DtoMapper dtoMapper) {
+        this.ownerManager = ownerManager;
+        this.dtoMapper = dtoMapper;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<ReadOwnerDto>> createOwner(@Valid @RequestBody CreateOwnerDto createOwnerDto, @PathVariable String serviceId, @PathVariable String resourceId) {
+        return ownerManager.createOwner(createOwnerDto, serviceId, resourceId)
+                .map(createdOwner -> new ResponseEntity<>(dtoMapper.toReadOwnerDto(createdOwner), HttpStatus.CREATED));
+    }
+
+    @GetMapping()
+    public Flux<ReadOwnerDto> getOwnersPerResource(@PathVariable String serviceId, @PathVariable String resourceId) {
+        return ownerManager.getOwnersPerResources(serviceId, resourceId)
+                .map(owner -> dtoMapper.toReadOwnerDto(owner));
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<ResponseEntity<PageDto<ReadOwnerDto>>> getOwnersPage(@PathVariable String serviceId, @PathVariable String resourceId, @RequestParam int limit, @RequestParam(required = false) String cursor) {
+        return Mono.defer(() -> ownerManager.getOwnersPage(serviceId, resourceId, cursor, CursorCodec.pageSize(limit, maxPageSize)))
+                .map(page -> new ResponseEntity<>(new PageDto<>(page.getItems().stream()
+                        .map(owner -> dtoMapper.toReadOwnerDto(owner))
+                        .toList(), page.getNextCursor()), HttpStatus.OK));
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ReadOwnerDto> streamOwners(@PathVariable String serviceId, @PathVariable String resourceId) {
+        return PageStreams.reactive((String cursor) -> ownerManager.getOwnersPage(serviceId, resourceId, cursor, streamBatchSize))
+                .map(owner -> dtoMapper.toReadOwnerDto(owner));
+    }
+
+    @GetMapping("/{ownerId}")
+    public Mono<ResponseEntity<ReadOwnerDto>> getOwnerById(@PathVariable String serviceId, @PathVariable String resourceId, @PathVariable String ownerId) {
+        return ownerManager.getOwnerById(ownerId, serviceId, resourceId)
+                .map(owner -> new ResponseEntity<>(dtoMapper.toReadOwnerDto(owner), HttpStatus.OK));
+    }
+
+    @PutMapping("/{ownerId}")
+    public Mono<ResponseEntity<ReadOwnerDto>> updateOwner(@PathVariable String ownerId, @PathVariable String resourceId, @PathVariable String serviceId, @Valid @RequestBody UpdateOwnerDto updateOwnerDto) {
+        return ownerManager.updateOwner(ownerId, serviceId, resourceId, updateOwnerDto)
+                .map(updatedOwner -> new ResponseEntity<>(dtoMapper.toReadOwnerDto(updatedOwner), HttpStatus.OK));
+    }
+
+    @PatchMapping(value = "/{ownerId}", consumes = {MediaTypes.MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public Mono<ResponseEntity<ReadOwnerDto>> patchOwner(@PathVariable String ownerId, @PathVariable String resourceId, @PathVariable String serviceId, @Valid @RequestBody UpdateOwnerDto updateOwnerDto) {
+        return updateOwner(ownerId, resourceId, serviceId, updateOwnerDto);
+    }
+
+    @DeleteMapping("/{ownerId}")
+    public Mono<ResponseEntity<Void>> deleteOwner(@PathVariable String ownerId, @PathVariable String resourceId, @PathVariable String serviceId) {
+        return ownerManager.deleteOwner(ownerId, serviceId, resourceId)
+                .thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+}
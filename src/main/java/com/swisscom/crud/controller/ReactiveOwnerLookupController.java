@@ -0,0 +1,51 @@
+package com.swisscom.crud.controller;
+
+import com.swisscom.crud.dto.OwnerLocationDto;
+import com.swisscom.crud.dto.PageDto;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.service.CursorCodec;
+import com.swisscom.crud.service.ReactiveOwnerManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/owners")
+@ConditionalOnProperty(name = "custom.persistence.mode", havingValue = "reactive")
+public class ReactiveOwnerLookupController {
+    private final ReactiveOwnerManager ownerManager;
+    private final DtoMapper dtoMapper;
+    @Value("${custom.pagination.max-page-size:500}")
+    private int maxPageSize;
+    @Value("${custom.pagination.stream-batch-size:200}")
+    private int streamBatchSize;
+
+    public ReactiveOwnerLookupController(ReactiveOwnerManager ownerManager, DtoMapper dtoMapper) {
+        this.ownerManager = ownerManager;
+        this.dtoMapper = dtoMapper;
+    }
+
+    @GetMapping(params = "accountNumber")
+    public Mono<ResponseEntity<PageDto<OwnerLocationDto>>> findOwnersByAccountNumber(@RequestParam String accountNumber,
+                                                                                     @RequestParam(defaultValue = "100") int limit,
+                                                                                     @RequestParam(required = false) String cursor) {
+        return Mono.defer(() -> ownerManager.findOwnersByAccountNumber(accountNumber, cursor, CursorCodec.pageSize(limit, maxPageSize)))
+                .map(page -> new ResponseEntity<>(new PageDto<>(page.getItems().stream()
+                        .map(dtoMapper::toOwnerLocationDto)
+                        .toList(), page.getNextCursor()), HttpStatus.OK));
+    }
+
+    @GetMapping(params = "accountNumber", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<OwnerLocationDto> streamOwnersByAccountNumber(@RequestParam String accountNumber) {
+        return PageStreams.reactive((String cursor) -> ownerManager.findOwnersByAccountNumber(accountNumber, cursor, streamBatchSize))
+                .map(dtoMapper::toOwnerLocationDto);
+    }
+}
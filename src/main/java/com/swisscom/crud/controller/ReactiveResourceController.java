@@ -0,0 +1,84 @@
+package com.swisscom.crud.controller;
+
+import com.swisscom.crud.dto.CreateResourceDto;
+import com.swisscom.crud.dto.PageDto;
+import com.swisscom.crud.dto.ReadResourceDto;
+import com.swisscom.crud.dto.UpdateResourceDto;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.service.CursorCodec;
+import com.swisscom.crud.service.ReactiveResourceManager;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/services/{serviceId}/resources")
+@ConditionalOnProperty(name = "custom.persistence.mode", havingValue = "reactive")
+public class ReactiveResourceController {
+    private final ReactiveResourceManager resourceManager;
+    private final DtoMapper dtoMapper;
+    @Value("${custom.pagination.max-page-size:500}")
+    private int maxPageSize;
+    @Value("${custom.pagination.stream-batch-size:200}")
+    private int streamBatchSize;
+
+    public ReactiveResourceController(ReactiveResourceManager resourceManager, DtoMapper dtoMapper) {
+        this.dtoMapper = dtoMapper;
+        this.resourceManager = resourceManager;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<ReadResourceDto>> createResource(@Valid @RequestBody CreateResourceDto createResourceDto, @PathVariable String serviceId) {
+        return resourceManager.createResource(createResourceDto, serviceId)
+                .map(createdResource -> new ResponseEntity<>(dtoMapper.toReadResourceDto(createdResource), HttpStatus.CREATED));
+    }
+
+    @GetMapping()
+    public Flux<ReadResourceDto> getResourcePerService(@PathVariable String serviceId) {
+        return resourceManager.getResourcePerService(serviceId)
+                .map(resource -> dtoMapper.toReadResourceDto(resource));
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<ResponseEntity<PageDto<ReadResourceDto>>> getResourcesPage(@PathVariable String serviceId, @RequestParam int limit, @RequestParam(required = false) String cursor) {
+        return Mono.defer(() -> resourceManager.getResourcesPage(serviceId, cursor, CursorCodec.pageSize(limit, maxPageSize)))
+                .map(page -> new ResponseEntity<>(new PageDto<>(page.getItems().stream()
+                        .map(resource -> dtoMapper.toReadResourceDto(resource))
+                        .toList(), page.getNextCursor()), HttpStatus.OK));
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ReadResourceDto> streamResources(@PathVariable String serviceId) {
+        return PageStreams.reactive((String cursor) -> resourceManager.getResourcesPage(serviceId, cursor, streamBatchSize))
+                .map(resource -> dtoMapper.toReadResourceDto(resource));
+    }
+
+    @GetMapping("/{resourceId}")
+    public Mono<ResponseEntity<ReadResourceDto>> getResourceById(@PathVariable String resourceId, @PathVariable String serviceId) {
+        return resourceManager.getResourceById(resourceId, serviceId)
+                .map(resource -> new ResponseEntity<>(dtoMapper.toReadResourceDto(resource), HttpStatus.OK));
+    }
+
+    @PutMapping("/{resourceId}")
+    public Mono<ResponseEntity<ReadResourceDto>> updateResource(@PathVariable String resourceId, @PathVariable String serviceId, @Valid @RequestBody UpdateResourceDto updateResourceDto) {
+        return resourceManager.updateResource(resourceId, serviceId, updateResourceDto)
+                .map(updatedResource -> new ResponseEntity<>(dtoMapper.toReadResourceDto(updatedResource), HttpStatus.OK));
+    }
+
+    @PatchMapping(value = "/{resourceId}", consumes = {MediaTypes.MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public Mono<ResponseEntity<ReadResourceDto>> patchResource(@PathVariable String resourceId, @PathVariable String serviceId, @Valid @RequestBody UpdateResourceDto updateResourceDto) {
+        return updateResource(resourceId, serviceId, updateResourceDto);
+    }
+
+    @DeleteMapping("/{resourceId}")
+    public Mono<ResponseEntity<Void>> deleteResource(@PathVariable String resourceId, @PathVariable String serviceId) {
+        return resourceManager.deleteResource(resourceId, serviceId)
+                .thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+}
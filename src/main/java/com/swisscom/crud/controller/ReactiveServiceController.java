@@ -0,0 +1,83 @@
+package com.swisscom.crud.controller;
+
+import com.swisscom.crud.dto.CreateServiceDto;
+import com.swisscom.crud.dto.PageDto;
+import com.swisscom.crud.dto.ReadServiceDto;
+import com.swisscom.crud.dto.UpdateServiceDto;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.service.CursorCodec;
+import com.swisscom.crud.service.ReactiveServiceManager;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/services")
+@ConditionalOnProperty(name = "custom.persistence.mode", havingValue = "reactive")
+public class ReactiveServiceController {
+    private final ReactiveServiceManager serviceManager;
+    private final DtoMapper dtoMapper;
+
+    @Value("${custom.pagination.max-page-size:500}")
+    private int maxPageSize;
+
+    public ReactiveServiceController(ReactiveServiceManager serviceManager, DtoMapper dtoMapper) {
+        this.serviceManager = serviceManager;
+        this.dtoMapper = dtoMapper;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<ReadServiceDto>> createService(@Valid @RequestBody CreateServiceDto createServiceDto) {
+        return serviceManager.createService(createServiceDto)
+                .map(createdService -> new ResponseEntity<>(dtoMapper.toReadServiceDto(createdService), HttpStatus.CREATED));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ReadServiceDto>> getServiceById(@PathVariable String id) {
+        return serviceManager.getServiceByIdWithoutSummary(id)
+                .map(service -> new ResponseEntity<>(dtoMapper.toReadServiceDto(service), HttpStatus.OK));
+    }
+
+    @GetMapping
+    public Flux<ReadServiceDto> getAllServices() {
+        return serviceManager.getAllServices()
+                .map(service -> dtoMapper.toReadServiceDto(service));
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<ResponseEntity<PageDto<ReadServiceDto>>> getServicesPage(@RequestParam int limit, @RequestParam(required = false) String cursor) {
+        return Mono.defer(() -> serviceManager.getServicesPage(cursor, CursorCodec.pageSize(limit, maxPageSize)))
+                .map(page -> new ResponseEntity<>(new PageDto<>(page.getItems().stream()
+                        .map(service -> dtoMapper.toReadServiceDto(service))
+                        .toList(), page.getNextCursor()), HttpStatus.OK));
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ReadServiceDto> streamAllServices() {
+        return serviceManager.getAllServices()
+                .map(service -> dtoMapper.toReadServiceDto(service));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<ReadServiceDto>> updateService(@PathVariable String id, @Valid @RequestBody UpdateServiceDto updateServiceDto) {
+        return serviceManager.updateService(id, updateServiceDto)
+                .map(updatedService -> new ResponseEntity<>(dtoMapper.toReadServiceDto(updatedService), HttpStatus.OK));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {MediaTypes.MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public Mono<ResponseEntity<ReadServiceDto>> patchService(@PathVariable String id, @Valid @RequestBody UpdateServiceDto updateServiceDto) {
+        return updateService(id, updateServiceDto);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteService(@PathVariable String id) {
+        return serviceManager.deleteService(id)
+                .thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+}
@@ -1,59 +1,158 @@
 package com.swisscom.crud.controller;
 
 import com.swisscom.crud.dto.CreateResourceDto;
+import com.swisscom.crud.dto.PageDto;
 import com.swisscom.crud.dto.ReadResourceDto;
 import com.swisscom.crud.dto.UpdateResourceDto;
+import com.swisscom.crud.exception.PreconditionFailedException;
+import com.swisscom.crud.mapper.DtoMapper;
 import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.service.CursorCodec;
 import com.swisscom.crud.service.ResourceManager;
+import com.swisscom.crud.service.ServiceManager;
 import jakarta.validation.Valid;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/services/{serviceId}/resources")
+@ConditionalOnProperty(name = "custom.persistence.mode", havingValue = "blocking", matchIfMissing = true)
 public class ResourceController {
     private final ResourceManager resourceManager;
-    private final ModelMapper modelMapper;
+    private final ServiceManager serviceManager;
+    private final DtoMapper dtoMapper;
+    @Value("${custom.pagination.max-page-size:500}")
+    private int maxPageSize;
+    @Value("${custom.pagination.stream-batch-size:200}")
+    private int streamBatchSize;
 
-    public ResourceController(ResourceManager resourceManager, ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
+    public ResourceController(ResourceManager resourceManager, ServiceManager serviceManager, DtoMapper dtoMapper) {
+        this.dtoMapper = dtoMapper;
         this.resourceManager = resourceManager;
+        this.serviceManager = serviceManager;
     }
 
     @PostMapping
     public ResponseEntity<ReadResourceDto> createResource(@Valid @RequestBody CreateResourceDto createResourceDto, @PathVariable String serviceId) {
         Resource createdResource = resourceManager.createResource(createResourceDto, serviceId);
-        return new ResponseEntity<>(modelMapper.map(createdResource, ReadResourceDto.class), HttpStatus.CREATED);
+        return new ResponseEntity<>(dtoMapper.toReadResourceDto(createdResource), HttpStatus.CREATED);
     }
 
+    // The version is read before the resources, so a tag never claims a version newer than its content.
     @GetMapping()
-    public ResponseEntity<List<ReadResourceDto>> getResourcePerService(@PathVariable String serviceId) {
+    public ResponseEntity<List<ReadResourceDto>> getResourcePerService(@PathVariable String serviceId,
+                                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        String target = ETags.target("resources", serviceId);
+        Long version = tagVersion(serviceId, ifNoneMatch);
+        MediaType format = ETags.format(accept);
+        String unchanged = ETags.issuedAt(ifNoneMatch, version, target, format);
+        if (unchanged != null) {
+            return ETags.notModified(unchanged);
+        }
         List<Resource> resources = resourceManager.getResourcePerService(serviceId);
         List<ReadResourceDto> resourceDtos = resources.stream()
-                .map(resource -> modelMapper.map(resource, ReadResourceDto.class))
+                .map(resource -> dtoMapper.toReadResourceDto(resource))
                 .toList();
-        return new ResponseEntity<>(resourceDtos, HttpStatus.OK);
+        return ETags.okOrNotModified(ifNoneMatch, ETags.of(version, target, format, resourceDtos), resourceDtos);
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageDto<ReadResourceDto>> getResourcesPage(@PathVariable String serviceId, @RequestParam int limit, @RequestParam(required = false) String cursor) {
+        PageDto<Resource> page = resourceManager.getResourcesPage(serviceId, cursor, CursorCodec.pageSize(limit, maxPageSize));
+        List<ReadResourceDto> resourceDtos = page.getItems().stream()
+                .map(resource -> dtoMapper.toReadResourceDto(resource))
+                .toList();
+        return new ResponseEntity<>(new PageDto<>(resourceDtos, page.getNextCursor()), HttpStatus.OK);
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ReadResourceDto> streamResources(@PathVariable String serviceId) {
+        return PageStreams.blocking((String cursor) -> resourceManager.getResourcesPage(serviceId, cursor, streamBatchSize))
+                .map(resource -> dtoMapper.toReadResourceDto(resource));
     }
 
     @GetMapping("/{resourceId}")
-    public ResponseEntity<ReadResourceDto> getResourceById(@PathVariable String resourceId, @PathVariable String serviceId) {
-        Resource resource = resourceManager.getResourceById(resourceId, serviceId);
-        return new ResponseEntity<>(modelMapper.map(resource, ReadResourceDto.class), HttpStatus.OK);
+    public ResponseEntity<ReadResourceDto> getResourceById(@PathVariable String resourceId, @PathVariable String serviceId,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        String target = ETags.target("resources", serviceId, resourceId);
+        Long version = tagVersion(serviceId, ifNoneMatch);
+        MediaType format = ETags.format(accept);
+        String unchanged = ETags.issuedAt(ifNoneMatch, version, target, format);
+        if (unchanged != null) {
+            return ETags.notModified(unchanged);
+        }
+        ReadResourceDto resourceDto = dtoMapper.toReadResourceDto(resourceManager.getResourceById(resourceId, serviceId));
+        return ETags.okOrNotModified(ifNoneMatch, ETags.of(version, target, format, resourceDto), resourceDto);
     }
 
     @PutMapping("/{resourceId}")
-    public ResponseEntity<ReadResourceDto> updateResource(@PathVariable String resourceId, @PathVariable String serviceId, @Valid @RequestBody UpdateResourceDto updateResourceDto) {
-        Resource updatedResource = resourceManager.updateResource(resourceId, serviceId, updateResourceDto);
-        return new ResponseEntity<>(modelMapper.map(updatedResource, ReadResourceDto.class), HttpStatus.OK);
+    public ResponseEntity<ReadResourceDto> updateResource(@PathVariable String resourceId, @PathVariable String serviceId, @Valid @RequestBody UpdateResourceDto updateResourceDto,
+                                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            Resource updatedResource = resourceManager.updateResource(resourceId, serviceId, updateResourceDto);
+            return new ResponseEntity<>(dtoMapper.toReadResourceDto(updatedResource), HttpStatus.OK);
+        }
+        try {
+            Resource updatedResource = resourceManager.updateResource(resourceId, serviceId, updateResourceDto, matchingVersion(ifMatch, serviceId, resourceId));
+            return new ResponseEntity<>(dtoMapper.toReadResourceDto(updatedResource), HttpStatus.OK);
+        } catch (OptimisticLockingFailureException e) {
+            throw preconditionFailed(resourceId);
+        }
+    }
+
+    @PatchMapping(value = "/{resourceId}", consumes = {MediaTypes.MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ReadResourceDto> patchResource(@PathVariable String resourceId, @PathVariable String serviceId, @Valid @RequestBody UpdateResourceDto updateResourceDto,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return updateResource(resourceId, serviceId, updateResourceDto, ifMatch);
     }
 
     @DeleteMapping("/{resourceId}")
-    public ResponseEntity<Void> deleteResource(@PathVariable String resourceId, @PathVariable String serviceId) {
-        resourceManager.deleteResource(resourceId, serviceId);
+    public ResponseEntity<Void> deleteResource(@PathVariable String resourceId, @PathVariable String serviceId,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            resourceManager.deleteResource(resourceId, serviceId);
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        try {
+            resourceManager.deleteResource(resourceId, serviceId, matchingVersion(ifMatch, serviceId, resourceId));
+        } catch (OptimisticLockingFailureException e) {
+            throw preconditionFailed(resourceId);
+        }
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
-}
\ No newline at end of file
+
+    // A conditional GET is checked against the version-only projection; otherwise the tag takes the version of the
+    // cached service, so a cache hit on the content does not cost a MongoDB round trip.
+    private Long tagVersion(String serviceId, String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return serviceManager.getServiceByIdWithoutSummary(serviceId).getVersion();
+        }
+        return serviceManager.getServiceVersion(serviceId);
+    }
+
+    // The write is guarded by the version the tag matched at, so a write landing after the check fails it.
+    private Long matchingVersion(String ifMatch, String serviceId, String resourceId) {
+        Long version = ETags.matchingVersion(ifMatch, serviceManager.getServiceVersion(serviceId),
+                ETags.target("resources", serviceId, resourceId),
+                () -> dtoMapper.toReadResourceDto(resourceManager.getResourceById(resourceId, serviceId)));
+        if (version == null) {
+            throw preconditionFailed(resourceId);
+        }
+        return version;
+    }
+
+    private static PreconditionFailedException preconditionFailed(String resourceId) {
+        return new PreconditionFailedException("Resource " + resourceId + " has changed since it was read. Please refresh and try again.");
+    }
+}
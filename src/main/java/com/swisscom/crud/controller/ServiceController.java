@@ -1,59 +1,139 @@
 package com.swisscom.crud.controller;
 
 import com.swisscom.crud.dto.CreateServiceDto;
+import com.swisscom.crud.dto.PageDto;
 import com.swisscom.crud.dto.ReadServiceDto;
 import com.swisscom.crud.dto.UpdateServiceDto;
+import com.swisscom.crud.exception.PreconditionFailedException;
+import com.swisscom.crud.mapper.DtoMapper;
 import com.swisscom.crud.model.Service;
+import com.swisscom.crud.service.CursorCodec;
 import com.swisscom.crud.service.ServiceManager;
 import jakarta.validation.Valid;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/services")
+@ConditionalOnProperty(name = "custom.persistence.mode", havingValue = "blocking", matchIfMissing = true)
 public class ServiceController {
     private final ServiceManager serviceManager;
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
 
-    public ServiceController(ServiceManager serviceManager, ModelMapper modelMapper) {
+    @Value("${custom.pagination.max-page-size:500}")
+    private int maxPageSize;
+
+    public ServiceController(ServiceManager serviceManager, DtoMapper dtoMapper) {
         this.serviceManager = serviceManager;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
     }
 
     @PostMapping
     public ResponseEntity<ReadServiceDto> createService(@Valid @RequestBody CreateServiceDto createServiceDto) {
         Service createdService = serviceManager.createService(createServiceDto);
-        return new ResponseEntity<>(modelMapper.map(createdService, ReadServiceDto.class), HttpStatus.CREATED);
+        return new ResponseEntity<>(dtoMapper.toReadServiceDto(createdService), HttpStatus.CREATED);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ReadServiceDto> getServiceById(@PathVariable String id) {
+    public ResponseEntity<ReadServiceDto> getServiceById(@PathVariable String id,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType format = ETags.format(accept);
+        if (ifNoneMatch != null) {
+            String unchanged = ETags.issuedAt(ifNoneMatch, serviceManager.getServiceVersion(id), format);
+            if (unchanged != null) {
+                return ETags.notModified(unchanged);
+            }
+        }
         Service service = serviceManager.getServiceByIdWithoutSummary(id);
-        return new ResponseEntity<>(modelMapper.map(service, ReadServiceDto.class), HttpStatus.OK);
+        return ETags.okOrNotModified(ifNoneMatch, ETags.of(service.getVersion(), format), dtoMapper.toReadServiceDto(service));
     }
 
     @GetMapping
     public ResponseEntity<List<ReadServiceDto>> getAllServices() {
         List<Service> services = serviceManager.getAllServices();
         List<ReadServiceDto> serviceDtos = services.stream()
-                .map(service -> modelMapper.map(service, ReadServiceDto.class))
+                .map(service -> dtoMapper.toReadServiceDto(service))
                 .toList();
         return new ResponseEntity<>(serviceDtos, HttpStatus.OK);
     }
 
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageDto<ReadServiceDto>> getServicesPage(@RequestParam int limit, @RequestParam(required = false) String cursor) {
+        PageDto<Service> page = serviceManager.getServicesPage(cursor, CursorCodec.pageSize(limit, maxPageSize));
+        List<ReadServiceDto> serviceDtos = page.getItems().stream()
+                .map(service -> dtoMapper.toReadServiceDto(service))
+                .toList();
+        return new ResponseEntity<>(new PageDto<>(serviceDtos, page.getNextCursor()), HttpStatus.OK);
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ReadServiceDto> streamAllServices() {
+        return Flux.fromStream(serviceManager::streamAllServices)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(service -> dtoMapper.toReadServiceDto(service));
+    }
+
+    // If-Match takes the place of the version field; a stale tag fails with 412 instead of 409.
     @PutMapping("/{id}")
-    public ResponseEntity<ReadServiceDto> updateService(@PathVariable String id, @Valid @RequestBody UpdateServiceDto updateServiceDto) {
-        Service updatedService = serviceManager.updateService(id, updateServiceDto);
-        return new ResponseEntity<>(modelMapper.map(updatedService, ReadServiceDto.class), HttpStatus.OK);
+    public ResponseEntity<ReadServiceDto> updateService(@PathVariable String id, @Valid @RequestBody UpdateServiceDto updateServiceDto,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (ifMatch != null) {
+            updateServiceDto.setVersion(matchingVersion(id, ifMatch));
+        }
+        try {
+            Service updatedService = serviceManager.updateService(id, updateServiceDto);
+            return ResponseEntity.ok()
+                    .eTag(ETags.of(updatedService.getVersion(), ETags.format(accept)))
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(dtoMapper.toReadServiceDto(updatedService));
+        } catch (OptimisticLockingFailureException e) {
+            throw ifMatch == null ? e : preconditionFailed(id);
+        }
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {MediaTypes.MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ReadServiceDto> patchService(@PathVariable String id, @Valid @RequestBody UpdateServiceDto updateServiceDto,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return updateService(id, updateServiceDto, ifMatch, accept);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteService(@PathVariable String id) {
-        serviceManager.deleteService(id);
+    public ResponseEntity<Void> deleteService(@PathVariable String id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            serviceManager.deleteService(id);
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        try {
+            serviceManager.deleteService(id, matchingVersion(id, ifMatch));
+        } catch (OptimisticLockingFailureException e) {
+            throw preconditionFailed(id);
+        }
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
+
+    private Long matchingVersion(String id, String ifMatch) {
+        Long version = ETags.matchingVersion(ifMatch, serviceManager.getServiceVersion(id));
+        if (version == null) {
+            throw preconditionFailed(id);
+        }
+        return version;
+    }
+
+    private static PreconditionFailedException preconditionFailed(String id) {
+        return new PreconditionFailedException("Service " + id + " has changed since it was read. Please refresh and try again.");
+    }
 }
\ No newline at end of file
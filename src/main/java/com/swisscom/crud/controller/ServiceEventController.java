@@ -0,0 +1,65 @@
+package com.swisscom.crud.controller;
+
+import com.swisscom.crud.dto.ServiceEventDto;
+import com.swisscom.crud.service.ServiceEvents;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+// Served in both persistence modes: the events come from the managers' writes, not from the repositories.
+@RestController
+@RequestMapping("/api/services")
+public class ServiceEventController {
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    private final ServiceEvents serviceEvents;
+
+    @Value("${custom.events.heartbeat-interval:15s}")
+    private Duration heartbeatInterval;
+
+    public ServiceEventController(ServiceEvents serviceEvents) {
+        this.serviceEvents = serviceEvents;
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ServiceEventDto>> streamEvents(@RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        return toServerSentEvents(serviceEvents.subscribe(null, parseEventId(lastEventId)));
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ServiceEventDto>> streamServiceEvents(@PathVariable String id,
+                                                                      @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        return toServerSentEvents(serviceEvents.subscribe(id, parseEventId(lastEventId)));
+    }
+
+    // Heartbeat comments keep proxies from closing idle streams and let dead connections be noticed.
+    private Flux<ServerSentEvent<ServiceEventDto>> toServerSentEvents(Flux<ServiceEventDto> events) {
+        return events.publish(shared -> Flux.merge(
+                shared.map(event -> ServerSentEvent.builder(event)
+                        .id(String.valueOf(event.getId()))
+                        .event(ServiceEvents.RESET.equals(event.getType()) ? event.getType() : event.getEntity() + "." + event.getType())
+                        .build()),
+                Flux.interval(heartbeatInterval)
+                        .map(tick -> ServerSentEvent.<ServiceEventDto>builder().comment("heartbeat").build())
+                        .takeUntilOther(shared.then())));
+    }
+
+    // An id this instance cannot have issued is answered with a reset event.
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
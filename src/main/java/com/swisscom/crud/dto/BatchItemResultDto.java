@@ -0,0 +1,15 @@
+package com.swisscom.crud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResultDto {
+    private int index;
+    private int status;
+    private String id;
+    private String error;
+}
@@ -0,0 +1,7 @@
+package com.swisscom.crud.dto;
+
+public enum BatchOperation {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,16 @@
+package com.swisscom.crud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOwnerItemDto {
+    private BatchOperation op;
+    private String id;
+    private String name;
+    private String accountNumber;
+    private Integer level;
+}
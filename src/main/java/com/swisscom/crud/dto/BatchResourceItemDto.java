@@ -0,0 +1,14 @@
+package com.swisscom.crud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResourceItemDto {
+    private BatchOperation op;
+    private String id;
+    private String name;
+}
@@ -0,0 +1,15 @@
+package com.swisscom.crud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchServiceItemDto {
+    private BatchOperation op;
+    private String id;
+    private Long version;
+    private String name;
+}
@@ -0,0 +1,14 @@
+package com.swisscom.crud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OwnerLocationDto {
+    private String serviceId;
+    private String resourceId;
+    private ReadOwnerDto owner;
+}
@@ -11,4 +11,6 @@ public class ReadServiceDto {
     private String id;
     private Long version;
     private String name;
+    private long resourceCount;
+    private long ownerCount;
 }
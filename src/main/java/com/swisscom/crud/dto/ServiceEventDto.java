@@ -0,0 +1,24 @@
+package com.swisscom.crud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceEventDto {
+    private Long id;
+    // created | updated | deleted, or reset when the requested events are no longer buffered
+    private String type;
+    // service | resource | owner
+    private String entity;
+    private String serviceId;
+    private String resourceId;
+    private String ownerId;
+    // Service version after the write, null when the write does not report it
+    private Long version;
+    private Instant timestamp;
+}
@@ -1,6 +1,5 @@
 package com.swisscom.crud.dto;
 
-import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,7 +8,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class UpdateServiceDto {
-    @NotNull(message = "Version is required for updates to enable optimistic locking.")
+    // Required unless the request carries If-Match, which the controller turns into this version.
     private Long version;
     private String name;
 }
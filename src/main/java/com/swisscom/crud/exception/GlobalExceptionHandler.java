@@ -1,5 +1,6 @@
 package com.swisscom.crud.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.OptimisticLockingFailureException;
@@ -19,6 +20,11 @@ import java.util.List;
 @ControllerAdvice
 public class GlobalExceptionHandler {
     private final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
     @ExceptionHandler(RecordNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
@@ -31,10 +37,33 @@ public class GlobalExceptionHandler {
         return new ErrorResponse(status.value(), status.getReasonPhrase(), e.getMessage(), path);
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public ErrorResponse handleInvalidRequestException(InvalidRequestException e, ServerWebExchange exchange) {
+        String path = exchange.getRequest().getURI().getPath();
+        logger.warn(e.getMessage());
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+
+        return new ErrorResponse(status.value(), status.getReasonPhrase(), e.getMessage(), path);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    @ResponseBody
+    public ErrorResponse handlePreconditionFailedException(PreconditionFailedException e, ServerWebExchange exchange) {
+        String path = exchange.getRequest().getURI().getPath();
+        logger.warn(e.getMessage());
+        HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+
+        return new ErrorResponse(status.value(), status.getReasonPhrase(), e.getMessage(), path);
+    }
+
     @ExceptionHandler(OptimisticLockingFailureException.class)
     public ResponseEntity<ErrorResponse> handleOptimisticLockingConflict(
             OptimisticLockingFailureException ex, ServerWebExchange exchange) {
         logger.warn("Optimistic locking conflict for path {}: {}", exchange.getRequest().getPath().value(), ex.getMessage());
+        meterRegistry.counter("crud.optimistic.lock.conflicts", "method", exchange.getRequest().getMethod().name()).increment();
         HttpStatus status = HttpStatus.CONFLICT;
 
         ErrorResponse apiErrorResponse = new ErrorResponse(
@@ -0,0 +1,7 @@
+package com.swisscom.crud.exception;
+
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
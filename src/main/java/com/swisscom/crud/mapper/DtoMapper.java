@@ -0,0 +1,109 @@
+package com.swisscom.crud.mapper;
+
+import com.swisscom.crud.dto.CreateOwnerDto;
+import com.swisscom.crud.dto.CreateResourceDto;
+import com.swisscom.crud.dto.CreateServiceDto;
+import com.swisscom.crud.dto.OwnerLocationDto;
+import com.swisscom.crud.dto.ReadOwnerDto;
+import com.swisscom.crud.dto.ReadResourceDto;
+import com.swisscom.crud.dto.ReadServiceDto;
+import com.swisscom.crud.dto.UpdateOwnerDto;
+import com.swisscom.crud.dto.UpdateResourceDto;
+import com.swisscom.crud.dto.UpdateServiceDto;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.OwnerLocation;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class DtoMapper {
+
+    public ReadServiceDto toReadServiceDto(Service service) {
+        if (service == null) {
+            return null;
+        }
+        return new ReadServiceDto(service.getId(), service.getVersion(), service.getName(),
+                service.getResourceCount(), service.getOwnerCount());
+    }
+
+    public ReadResourceDto toReadResourceDto(Resource resource) {
+        if (resource == null) {
+            return null;
+        }
+        List<Owner> owners = resource.getOwners() == null ? null : new ArrayList<>(resource.getOwners());
+        return new ReadResourceDto(resource.getId(), resource.getName(), owners);
+    }
+
+    public ReadOwnerDto toReadOwnerDto(Owner owner) {
+        if (owner == null) {
+            return null;
+        }
+        Integer level = owner.getLevel() == null ? null : owner.getLevel().intValue();
+        return new ReadOwnerDto(owner.getId(), owner.getName(), owner.getAccountNumber(), level);
+    }
+
+    public OwnerLocationDto toOwnerLocationDto(OwnerLocation location) {
+        if (location == null) {
+            return null;
+        }
+        return new OwnerLocationDto(location.getServiceId(), location.getResourceId(), toReadOwnerDto(location.getOwner()));
+    }
+
+    public Service toService(CreateServiceDto createServiceDto) {
+        Service service = new Service();
+        service.setName(createServiceDto.getName());
+        return service;
+    }
+
+    public Resource toResource(CreateResourceDto createResourceDto) {
+        Resource resource = new Resource();
+        resource.setName(createResourceDto.getName());
+        return resource;
+    }
+
+    public Owner toOwner(CreateOwnerDto createOwnerDto) {
+        Owner owner = new Owner();
+        owner.setName(createOwnerDto.getName());
+        owner.setAccountNumber(createOwnerDto.getAccountNumber());
+        owner.setLevel(createOwnerDto.getLevel());
+        return owner;
+    }
+
+    // Null fields in an update leave the stored value untouched, as ModelMapper's skip-null setting did;
+    // the version is the client's precondition, not a change.
+    public Map<String, Object> changesOf(UpdateServiceDto updateServiceDto) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        if (updateServiceDto.getName() != null) {
+            changes.put("name", updateServiceDto.getName());
+        }
+        return changes;
+    }
+
+    public Map<String, Object> changesOf(UpdateResourceDto updateResourceDto) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        if (updateResourceDto.getName() != null) {
+            changes.put("name", updateResourceDto.getName());
+        }
+        return changes;
+    }
+
+    public Map<String, Object> changesOf(UpdateOwnerDto updateOwnerDto) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        if (updateOwnerDto.getName() != null) {
+            changes.put("name", updateOwnerDto.getName());
+        }
+        if (updateOwnerDto.getAccountNumber() != null) {
+            changes.put("accountNumber", updateOwnerDto.getAccountNumber());
+        }
+        if (updateOwnerDto.getLevel() != null) {
+            changes.put("level", updateOwnerDto.getLevel());
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,16 @@
+package com.swisscom.crud.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OwnerLocation {
+    private String serviceId;
+    private String resourceId;
+    private int resourceIndex;
+    private int ownerIndex;
+    private Owner owner;
+}
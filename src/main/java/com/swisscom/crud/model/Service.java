@@ -21,4 +21,20 @@ public class Service {
     private String id;
     private String name;
     private List<Resource> resources = new ArrayList<>();
+    // Denormalized counters, kept in step by every nested create and delete so summaries never load resources.
+    private long resourceCount;
+    private long ownerCount;
+
+    public Service(Long version, String id, String name, List<Resource> resources) {
+        this(version, id, name, resources, resources == null ? 0 : resources.size(), ownersIn(resources));
+    }
+
+    public static long ownersIn(List<Resource> resources) {
+        if (resources == null) {
+            return 0;
+        }
+        return resources.stream()
+                .mapToLong(resource -> resource.getOwners() == null ? 0 : resource.getOwners().size())
+                .sum();
+    }
 }
@@ -0,0 +1,233 @@
+package com.swisscom.crud.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.OwnerLocation;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Resources and owners embedded in the service document: every nested write is a single atomic update.
+class EmbeddedServiceStorage implements ServiceRepositoryCustom {
+    final MongoTemplate mongoTemplate;
+
+    EmbeddedServiceStorage(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<Service> findAggregate(String serviceId) {
+        return Optional.ofNullable(mongoTemplate.findOne(ServiceQueries.service(serviceId), Service.class));
+    }
+
+    @Override
+    public void deleteAggregate(String serviceId) {
+        mongoTemplate.remove(ServiceQueries.service(serviceId), Service.class);
+    }
+
+    @Override
+    public boolean deleteAggregate(String serviceId, Long version) {
+        return mongoTemplate.remove(ServiceQueries.serviceVersion(serviceId, version), Service.class).getDeletedCount() > 0;
+    }
+
+    @Override
+    public boolean groupsNestedCreates() {
+        return true;
+    }
+
+    @Override
+    public List<Service> findServicesAfter(String lastId, int limit) {
+        return mongoTemplate.find(ServiceQueries.servicesAfter(lastId, limit), Service.class);
+    }
+
+    @Override
+    public Optional<Service> findServiceWithResource(String serviceId, String resourceId) {
+        return Optional.ofNullable(mongoTemplate.findOne(ServiceQueries.serviceWithResource(serviceId, resourceId), Service.class));
+    }
+
+    @Override
+    public Optional<Service> findServiceWithResourcesSlice(String serviceId, int skip, int limit) {
+        return Optional.ofNullable(mongoTemplate.findOne(ServiceQueries.serviceWithResourcesSlice(serviceId, skip, limit), Service.class));
+    }
+
+    @Override
+    public Optional<Resource> findResourceWithOwnersSlice(String serviceId, String resourceId, int skip, int limit) {
+        return Optional.ofNullable(mongoTemplate.aggregate(
+                ServiceQueries.resourceWithOwnersSlice(serviceId, resourceId, skip, limit), ServiceQueries.COLLECTION, Resource.class)
+                .getUniqueMappedResult());
+    }
+
+    @Override
+    public Optional<Owner> findOwner(String serviceId, String resourceId, String ownerId) {
+        return Optional.ofNullable(mongoTemplate.aggregate(
+                ServiceQueries.ownerLookup(serviceId, resourceId, ownerId), ServiceQueries.COLLECTION, Owner.class)
+                .getUniqueMappedResult());
+    }
+
+    @Override
+    public Optional<Service> findServiceIds(String serviceId) {
+        return Optional.ofNullable(mongoTemplate.findOne(ServiceQueries.serviceIds(serviceId), Service.class));
+    }
+
+    @Override
+    public List<Service> findServiceVersions(Collection<String> serviceIds) {
+        return mongoTemplate.find(ServiceQueries.versionsOf(serviceIds), Service.class);
+    }
+
+    @Override
+    public List<OwnerLocation> findOwnersByAccountNumber(String accountNumber, OwnerPosition after, int limit) {
+        return mongoTemplate.aggregate(
+                ServiceQueries.ownersByAccountNumber(accountNumber, after, limit), ServiceQueries.COLLECTION, OwnerLocation.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public boolean existsResource(String serviceId, String resourceId) {
+        return mongoTemplate.exists(ServiceQueries.resource(serviceId, resourceId), Service.class);
+    }
+
+    @Override
+    public boolean existsOwner(String serviceId, String resourceId, String ownerId) {
+        return mongoTemplate.exists(ServiceQueries.owner(serviceId, resourceId, ownerId), Service.class);
+    }
+
+    @Override
+    public Optional<Service> updateServiceFields(String serviceId, Long version, Map<String, Object> fields) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                ServiceQueries.serviceSummaryVersion(serviceId, version),
+                ServiceQueries.setServiceFields(fields),
+                FindAndModifyOptions.options().returnNew(true),
+                Service.class));
+    }
+
+    @Override
+    public Optional<Long> pushResource(String serviceId, Resource resource) {
+        return newVersion(ServiceQueries.serviceWithoutResource(serviceId, resource.getId()), ServiceQueries.pushResource(resource));
+    }
+
+    @Override
+    public Optional<Versioned<Resource>> updateResourceFields(String serviceId, String resourceId, Map<String, Object> fields) {
+        return updateResourceFields(serviceId, resourceId, null, fields);
+    }
+
+    @Override
+    public Optional<Versioned<Resource>> updateResourceFields(String serviceId, String resourceId, Long version, Map<String, Object> fields) {
+        Service updated = mongoTemplate.findAndModify(
+                ServiceQueries.withResourceProjection(ServiceQueries.atVersion(ServiceQueries.resource(serviceId, resourceId), version), resourceId),
+                ServiceQueries.setResourceFields(resourceId, fields),
+                FindAndModifyOptions.options().returnNew(true),
+                Service.class);
+        return Optional.ofNullable(updated).flatMap(service -> resourceOf(service, resourceId)
+                .map(resource -> new Versioned<>(service.getVersion(), resource)));
+    }
+
+    @Override
+    public Optional<Long> pullResource(String serviceId, String resourceId) {
+        return pullResource(serviceId, resourceId, null);
+    }
+
+    @Override
+    public Optional<Long> pullResource(String serviceId, String resourceId, Long version) {
+        return newVersion(ServiceQueries.atVersion(ServiceQueries.resource(serviceId, resourceId), version), ServiceQueries.pullResource(resourceId));
+    }
+
+    @Override
+    public Optional<Long> pushOwner(String serviceId, String resourceId, Owner owner) {
+        return newVersion(ServiceQueries.resourceWithoutOwner(serviceId, resourceId, owner.getId()), ServiceQueries.pushOwner(resourceId, owner));
+    }
+
+    @Override
+    public Optional<Versioned<Owner>> updateOwnerFields(String serviceId, String resourceId, String ownerId, Map<String, Object> fields) {
+        return updateOwnerFields(serviceId, resourceId, ownerId, null, fields);
+    }
+
+    @Override
+    public Optional<Versioned<Owner>> updateOwnerFields(String serviceId, String resourceId, String ownerId, Long version, Map<String, Object> fields) {
+        Service updated = mongoTemplate.findAndModify(
+                ServiceQueries.withResourceProjection(ServiceQueries.atVersion(ServiceQueries.owner(serviceId, resourceId, ownerId), version), resourceId),
+                ServiceQueries.setOwnerFields(resourceId, ownerId, fields),
+                FindAndModifyOptions.options().returnNew(true),
+                Service.class);
+        return Optional.ofNullable(updated).flatMap(service -> resourceOf(service, resourceId)
+                .flatMap(resource -> ownerOf(resource, ownerId))
+                .map(owner -> new Versioned<>(service.getVersion(), owner)));
+    }
+
+    @Override
+    public Optional<Long> pullOwner(String serviceId, String resourceId, String ownerId) {
+        return pullOwner(serviceId, resourceId, ownerId, null);
+    }
+
+    @Override
+    public Optional<Long> pullOwner(String serviceId, String resourceId, String ownerId, Long version) {
+        return newVersion(ServiceQueries.atVersion(ServiceQueries.owner(serviceId, resourceId, ownerId), version), ServiceQueries.pullOwner(resourceId, ownerId));
+    }
+
+    Optional<Long> newVersion(Query query, UpdateDefinition update) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                        ServiceQueries.versionOnly(query), update, FindAndModifyOptions.options().returnNew(true), Service.class))
+                .map(Service::getVersion);
+    }
+
+    @Override
+    public BulkWriteResult bulkWriteServices(List<Service> inserts, List<Service> updates, List<String> deletes) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Service.class);
+        if (!inserts.isEmpty()) {
+            bulk.insert(inserts);
+        }
+        updates.forEach(service -> bulk.updateOne(
+                ServiceQueries.serviceVersion(service.getId(), service.getVersion()), ServiceQueries.setServiceName(service.getName())));
+        deletes.forEach(serviceId -> bulk.remove(ServiceQueries.service(serviceId)));
+        return bulk.execute();
+    }
+
+    @Override
+    public BulkWriteResult bulkWriteResources(String serviceId, List<Resource> creates, Map<String, Map<String, Object>> updates, List<String> deletes) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Service.class);
+        if (!creates.isEmpty()) {
+            bulk.updateOne(ServiceQueries.service(serviceId), ServiceQueries.pushResources(creates));
+        }
+        updates.forEach((resourceId, fields) -> bulk.updateOne(
+                ServiceQueries.resource(serviceId, resourceId), ServiceQueries.setResourceFields(resourceId, fields)));
+        deletes.forEach(resourceId -> bulk.updateOne(
+                ServiceQueries.resource(serviceId, resourceId), ServiceQueries.pullResource(resourceId)));
+        return bulk.execute();
+    }
+
+    @Override
+    public BulkWriteResult bulkWriteOwners(String serviceId, String resourceId, List<Owner> creates, Map<String, Map<String, Object>> updates, List<String> deletes) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Service.class);
+        if (!creates.isEmpty()) {
+            bulk.updateOne(ServiceQueries.resource(serviceId, resourceId), ServiceQueries.pushOwners(resourceId, creates));
+        }
+        updates.forEach((ownerId, fields) -> bulk.updateOne(
+                ServiceQueries.owner(serviceId, resourceId, ownerId), ServiceQueries.setOwnerFields(resourceId, ownerId, fields)));
+        deletes.forEach(ownerId -> bulk.updateOne(
+                ServiceQueries.owner(serviceId, resourceId, ownerId), ServiceQueries.pullOwner(resourceId, ownerId)));
+        return bulk.execute();
+    }
+
+    static Optional<Resource> resourceOf(Service service, String resourceId) {
+        if (service.getResources() == null) {
+            return Optional.empty();
+        }
+        return service.getResources().stream()
+                .filter(resource -> resource.getId().equals(resourceId))
+                .findFirst();
+    }
+
+    static Optional<Owner> ownerOf(Resource resource, String ownerId) {
+        return resource.getOwners().stream()
+                .filter(owner -> owner.getId().equals(ownerId))
+                .findFirst();
+    }
+}
@@ -0,0 +1,137 @@
+package com.swisscom.crud.repository;
+
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+import static com.swisscom.crud.repository.ServiceQueries.storedId;
+
+// Normalized storage: one document per resource in "resources" and per owner in "owners", keyed by their
+// parent ids. Children are listed in _id order, which for generated ObjectIds is creation order.
+final class NormalizedQueries {
+    static final String RESOURCES = "resources";
+    static final String OWNERS = "owners";
+    static final String SERVICE_ID = "serviceId";
+    static final String RESOURCE_ID = "resourceId";
+    static final String ACCOUNT_NUMBER = "accountNumber";
+
+    private NormalizedQueries() {
+    }
+
+    static Query resourcesOf(String serviceId) {
+        return Query.query(Criteria.where(SERVICE_ID).is(storedId(serviceId)))
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+    }
+
+    static Query resourceIdsOf(String serviceId) {
+        Query query = resourcesOf(serviceId);
+        query.fields().include("_id");
+        return query;
+    }
+
+    static Query resource(String serviceId, String resourceId) {
+        return Query.query(Criteria.where("_id").is(storedId(resourceId)).and(SERVICE_ID).is(storedId(serviceId)));
+    }
+
+    static Query resources(String serviceId, Collection<String> resourceIds) {
+        return Query.query(Criteria.where(SERVICE_ID).is(storedId(serviceId))
+                .and("_id").in(resourceIds.stream().map(ServiceQueries::storedId).toList()));
+    }
+
+    static Query ownersOfService(String serviceId) {
+        return Query.query(Criteria.where(SERVICE_ID).is(storedId(serviceId)))
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+    }
+
+    static Query ownerIdsOfService(String serviceId) {
+        Query query = ownersOfService(serviceId);
+        query.fields().include("_id", RESOURCE_ID);
+        return query;
+    }
+
+    static Query ownersOf(String serviceId, String resourceId) {
+        return Query.query(Criteria.where(SERVICE_ID).is(storedId(serviceId)).and(RESOURCE_ID).is(storedId(resourceId)))
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+    }
+
+    static Query ownersOf(String serviceId, Collection<String> resourceIds) {
+        return Query.query(Criteria.where(SERVICE_ID).is(storedId(serviceId))
+                        .and(RESOURCE_ID).in(resourceIds.stream().map(ServiceQueries::storedId).toList()))
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+    }
+
+    static Query owner(String serviceId, String resourceId, String ownerId) {
+        return Query.query(Criteria.where("_id").is(storedId(ownerId))
+                .and(SERVICE_ID).is(storedId(serviceId))
+                .and(RESOURCE_ID).is(storedId(resourceId)));
+    }
+
+    // One service at a time: the matches inside serviceId after skip, or the first matches of later services.
+    static Query ownersByAccountNumber(String accountNumber, String serviceId, boolean laterServices, int skip, int limit) {
+        Criteria criteria = Criteria.where(ACCOUNT_NUMBER).is(accountNumber);
+        if (serviceId != null) {
+            criteria = laterServices
+                    ? criteria.and(SERVICE_ID).gt(storedId(serviceId))
+                    : criteria.and(SERVICE_ID).is(storedId(serviceId));
+        }
+        return Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, SERVICE_ID, "_id"))
+                .skip(skip)
+                .limit(limit);
+    }
+
+    static Update setFields(Map<String, Object> fields) {
+        Update update = new Update();
+        fields.forEach(update::set);
+        return update;
+    }
+
+    // The service counters move in the same update as the version, by what the child writes actually changed.
+    static Update incrementVersion(long resourceDelta, long ownerDelta) {
+        Update update = new Update().inc(ServiceQueries.VERSION, 1);
+        if (resourceDelta != 0) {
+            update.inc(ServiceQueries.RESOURCE_COUNT, resourceDelta);
+        }
+        if (ownerDelta != 0) {
+            update.inc(ServiceQueries.OWNER_COUNT, ownerDelta);
+        }
+        return update;
+    }
+
+    static Document resourceDocument(String serviceId, Resource resource) {
+        return new Document("_id", storedId(resource.getId()))
+                .append(SERVICE_ID, storedId(serviceId))
+                .append("name", resource.getName());
+    }
+
+    static Document ownerDocument(String serviceId, String resourceId, Owner owner) {
+        return new Document("_id", storedId(owner.getId()))
+                .append(SERVICE_ID, storedId(serviceId))
+                .append(RESOURCE_ID, storedId(resourceId))
+                .append("name", owner.getName())
+                .append(ACCOUNT_NUMBER, owner.getAccountNumber())
+                .append("level", owner.getLevel());
+    }
+
+    static Resource resourceOf(Document document) {
+        return new Resource(idOf(document.get("_id")), document.getString("name"), new ArrayList<>());
+    }
+
+    static Owner ownerOf(Document document) {
+        return new Owner(idOf(document.get("_id")), document.getString("name"),
+                document.getString(ACCOUNT_NUMBER), (Number) document.get("level"));
+    }
+
+    static String idOf(Object storedId) {
+        return storedId instanceof ObjectId objectId ? objectId.toHexString() : String.valueOf(storedId);
+    }
+}
@@ -0,0 +1,359 @@
+package com.swisscom.crud.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.OwnerLocation;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Resources and owners in their own collections, so a service document stays small however many children
+// it has. A nested write touches the child document and then increments the service version; the two are
+// not atomic, but a failed increment only leaves a cached copy for the cache coherence layer to expire.
+final class NormalizedServiceStorage extends EmbeddedServiceStorage {
+
+    NormalizedServiceStorage(MongoTemplate mongoTemplate) {
+        super(mongoTemplate);
+    }
+
+    @Override
+    public Optional<Service> findAggregate(String serviceId) {
+        return summary(serviceId).map(service -> {
+            List<Resource> resources = findResources(NormalizedQueries.resourcesOf(serviceId));
+            Map<String, Resource> byId = resources.stream()
+                    .collect(Collectors.toMap(Resource::getId, resource -> resource, (a, b) -> a, LinkedHashMap::new));
+            for (Document owner : mongoTemplate.find(NormalizedQueries.ownersOfService(serviceId), Document.class, NormalizedQueries.OWNERS)) {
+                Resource resource = byId.get(NormalizedQueries.idOf(owner.get(NormalizedQueries.RESOURCE_ID)));
+                if (resource != null) {
+                    resource.getOwners().add(NormalizedQueries.ownerOf(owner));
+                }
+            }
+            service.setResources(resources);
+            return service;
+        });
+    }
+
+    @Override
+    public void deleteAggregate(String serviceId) {
+        super.deleteAggregate(serviceId);
+        deleteChildren(serviceId);
+    }
+
+    @Override
+    public boolean deleteAggregate(String serviceId, Long version) {
+        if (!super.deleteAggregate(serviceId, version)) {
+            return false;
+        }
+        deleteChildren(serviceId);
+        return true;
+    }
+
+    @Override
+    public Optional<Service> findServiceWithResource(String serviceId, String resourceId) {
+        return summary(serviceId).map(service -> {
+            service.setResources(withOwners(serviceId, findResources(NormalizedQueries.resource(serviceId, resourceId))));
+            return service;
+        });
+    }
+
+    @Override
+    public Optional<Service> findServiceWithResourcesSlice(String serviceId, int skip, int limit) {
+        return summary(serviceId).map(service -> {
+            Query page = NormalizedQueries.resourcesOf(serviceId).skip(skip).limit(limit);
+            service.setResources(withOwners(serviceId, findResources(page)));
+            return service;
+        });
+    }
+
+    @Override
+    public Optional<Resource> findResourceWithOwnersSlice(String serviceId, String resourceId, int skip, int limit) {
+        return findResources(NormalizedQueries.resource(serviceId, resourceId)).stream().findFirst().map(resource -> {
+            Query page = NormalizedQueries.ownersOf(serviceId, resourceId).skip(skip).limit(limit);
+            resource.setOwners(findOwners(page));
+            return resource;
+        });
+    }
+
+    @Override
+    public Optional<Owner> findOwner(String serviceId, String resourceId, String ownerId) {
+        return findOwners(NormalizedQueries.owner(serviceId, resourceId, ownerId)).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Service> findServiceIds(String serviceId) {
+        return Optional.ofNullable(mongoTemplate.findOne(ServiceQueries.versionOnly(ServiceQueries.service(serviceId)), Service.class))
+                .map(service -> {
+                    Map<String, Resource> byId = new LinkedHashMap<>();
+                    for (Document resource : mongoTemplate.find(NormalizedQueries.resourceIdsOf(serviceId), Document.class, NormalizedQueries.RESOURCES)) {
+                        String id = NormalizedQueries.idOf(resource.get("_id"));
+                        byId.put(id, new Resource(id, null, new ArrayList<>()));
+                    }
+                    for (Document owner : mongoTemplate.find(NormalizedQueries.ownerIdsOfService(serviceId), Document.class, NormalizedQueries.OWNERS)) {
+                        Resource resource = byId.get(NormalizedQueries.idOf(owner.get(NormalizedQueries.RESOURCE_ID)));
+                        if (resource != null) {
+                            resource.getOwners().add(new Owner(NormalizedQueries.idOf(owner.get("_id")), null, null, null));
+                        }
+                    }
+                    service.setResources(new ArrayList<>(byId.values()));
+                    return service;
+                });
+    }
+
+    // Keyset over (serviceId, ordinal of the match inside that service); resourceIndex is always 0 here.
+    @Override
+    public List<OwnerLocation> findOwnersByAccountNumber(String accountNumber, OwnerPosition after, int limit) {
+        List<OwnerLocation> locations = new ArrayList<>();
+        if (after != null) {
+            int skip = after.ownerIndex() + 1;
+            addLocations(locations, NormalizedQueries.ownersByAccountNumber(accountNumber, after.serviceId(), false, skip, limit),
+                    after.serviceId(), skip);
+        }
+        if (locations.size() < limit) {
+            addLocations(locations, NormalizedQueries.ownersByAccountNumber(accountNumber, after == null ? null : after.serviceId(), true,
+                    0, limit - locations.size()), null, 0);
+        }
+        return locations;
+    }
+
+    private void addLocations(List<OwnerLocation> locations, Query query, String continuedServiceId, int firstOrdinal) {
+        String currentServiceId = continuedServiceId;
+        int ordinal = firstOrdinal - 1;
+        for (Document owner : mongoTemplate.find(query, Document.class, NormalizedQueries.OWNERS)) {
+            String serviceId = NormalizedQueries.idOf(owner.get(NormalizedQueries.SERVICE_ID));
+            if (!serviceId.equals(currentServiceId)) {
+                currentServiceId = serviceId;
+                ordinal = -1;
+            }
+            ordinal++;
+            locations.add(new OwnerLocation(serviceId, NormalizedQueries.idOf(owner.get(NormalizedQueries.RESOURCE_ID)),
+                    0, ordinal, NormalizedQueries.ownerOf(owner)));
+        }
+    }
+
+    @Override
+    public boolean existsResource(String serviceId, String resourceId) {
+        return mongoTemplate.exists(NormalizedQueries.resource(serviceId, resourceId), NormalizedQueries.RESOURCES);
+    }
+
+    @Override
+    public boolean existsOwner(String serviceId, String resourceId, String ownerId) {
+        return mongoTemplate.exists(NormalizedQueries.owner(serviceId, resourceId, ownerId), NormalizedQueries.OWNERS);
+    }
+
+    // The children are written before the version moves, so a reader never caches the new version without them.
+    // A retried create finds its own documents and counts nothing twice.
+    @Override
+    public Optional<Long> pushResource(String serviceId, Resource resource) {
+        if (!mongoTemplate.exists(ServiceQueries.service(serviceId), Service.class)) {
+            return Optional.empty();
+        }
+        long resources = insertIgnoringDuplicate(NormalizedQueries.resourceDocument(serviceId, resource), NormalizedQueries.RESOURCES);
+        long owners = 0;
+        if (resource.getOwners() != null) {
+            for (Owner owner : resource.getOwners()) {
+                owners += insertIgnoringDuplicate(NormalizedQueries.ownerDocument(serviceId, resource.getId(), owner), NormalizedQueries.OWNERS);
+            }
+        }
+        return incrementVersion(serviceId, resources, owners);
+    }
+
+    @Override
+    public Optional<Versioned<Resource>> updateResourceFields(String serviceId, String resourceId, Long version, Map<String, Object> fields) {
+        if (!claimVersion(serviceId, version)) {
+            return Optional.empty();
+        }
+        Document updated = mongoTemplate.findAndModify(NormalizedQueries.resource(serviceId, resourceId),
+                NormalizedQueries.setFields(fields), FindAndModifyOptions.options().returnNew(true),
+                Document.class, NormalizedQueries.RESOURCES);
+        if (updated == null) {
+            return Optional.empty();
+        }
+        Resource resource = NormalizedQueries.resourceOf(updated);
+        resource.setOwners(findOwners(NormalizedQueries.ownersOf(serviceId, resourceId)));
+        return incrementVersion(serviceId, 0, 0).map(version -> new Versioned<>(version, resource));
+    }
+
+    @Override
+    public Optional<Long> pullResource(String serviceId, String resourceId, Long version) {
+        if (!claimVersion(serviceId, version)) {
+            return Optional.empty();
+        }
+        DeleteResult deleted = mongoTemplate.remove(NormalizedQueries.resource(serviceId, resourceId), NormalizedQueries.RESOURCES);
+        if (deleted.getDeletedCount() == 0) {
+            return Optional.empty();
+        }
+        long owners = mongoTemplate.remove(NormalizedQueries.ownersOf(serviceId, resourceId), NormalizedQueries.OWNERS).getDeletedCount();
+        return incrementVersion(serviceId, -1, -owners);
+    }
+
+    @Override
+    public Optional<Long> pushOwner(String serviceId, String resourceId, Owner owner) {
+        if (!existsResource(serviceId, resourceId)) {
+            return Optional.empty();
+        }
+        long owners = insertIgnoringDuplicate(NormalizedQueries.ownerDocument(serviceId, resourceId, owner), NormalizedQueries.OWNERS);
+        return incrementVersion(serviceId, 0, owners);
+    }
+
+    @Override
+    public Optional<Versioned<Owner>> updateOwnerFields(String serviceId, String resourceId, String ownerId, Long version, Map<String, Object> fields) {
+        if (!claimVersion(serviceId, version)) {
+            return Optional.empty();
+        }
+        Document updated = mongoTemplate.findAndModify(NormalizedQueries.owner(serviceId, resourceId, ownerId),
+                NormalizedQueries.setFields(fields), FindAndModifyOptions.options().returnNew(true),
+                Document.class, NormalizedQueries.OWNERS);
+        if (updated == null) {
+            return Optional.empty();
+        }
+        Owner owner = NormalizedQueries.ownerOf(updated);
+        return incrementVersion(serviceId, 0, 0).map(version -> new Versioned<>(version, owner));
+    }
+
+    @Override
+    public Optional<Long> pullOwner(String serviceId, String resourceId, String ownerId, Long version) {
+        if (!claimVersion(serviceId, version)) {
+            return Optional.empty();
+        }
+        DeleteResult deleted = mongoTemplate.remove(NormalizedQueries.owner(serviceId, resourceId, ownerId), NormalizedQueries.OWNERS);
+        return deleted.getDeletedCount() == 0 ? Optional.empty() : incrementVersion(serviceId, 0, -1);
+    }
+
+    // Every child document is its own operation, so creates are not grouped into one.
+    @Override
+    public boolean groupsNestedCreates() {
+        return false;
+    }
+
+    @Override
+    public BulkWriteResult bulkWriteServices(List<Service> inserts, List<Service> updates, List<String> deletes) {
+        try {
+            return super.bulkWriteServices(inserts, updates, deletes);
+        } finally {
+            if (!deletes.isEmpty()) {
+                Set<String> remaining = findServiceVersions(deletes).stream().map(Service::getId).collect(Collectors.toSet());
+                deletes.stream().filter(serviceId -> !remaining.contains(serviceId)).forEach(this::deleteChildren);
+            }
+        }
+    }
+
+    @Override
+    public BulkWriteResult bulkWriteResources(String serviceId, List<Resource> creates, Map<String, Map<String, Object>> updates, List<String> deletes) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NormalizedQueries.RESOURCES);
+        creates.forEach(resource -> bulk.insert(NormalizedQueries.resourceDocument(serviceId, resource)));
+        updates.forEach((resourceId, fields) -> bulk.updateOne(
+                NormalizedQueries.resource(serviceId, resourceId), NormalizedQueries.setFields(fields)));
+        deletes.forEach(resourceId -> bulk.remove(NormalizedQueries.resource(serviceId, resourceId)));
+        BulkWriteResult result = null;
+        try {
+            result = bulk.execute();
+            return result;
+        } catch (BulkOperationException e) {
+            result = e.getResult();
+            throw e;
+        } finally {
+            long owners = 0;
+            if (!deletes.isEmpty()) {
+                Set<String> remaining = findResources(NormalizedQueries.resources(serviceId, deletes)).stream()
+                        .map(Resource::getId).collect(Collectors.toSet());
+                List<String> deleted = deletes.stream().filter(resourceId -> !remaining.contains(resourceId)).toList();
+                owners = mongoTemplate.remove(NormalizedQueries.ownersOf(serviceId, deleted), NormalizedQueries.OWNERS).getDeletedCount();
+            }
+            incrementVersion(serviceId, insertedMinusDeleted(result), -owners);
+        }
+    }
+
+    @Override
+    public BulkWriteResult bulkWriteOwners(String serviceId, String resourceId, List<Owner> creates, Map<String, Map<String, Object>> updates, List<String> deletes) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NormalizedQueries.OWNERS);
+        creates.forEach(owner -> bulk.insert(NormalizedQueries.ownerDocument(serviceId, resourceId, owner)));
+        updates.forEach((ownerId, fields) -> bulk.updateOne(
+                NormalizedQueries.owner(serviceId, resourceId, ownerId), NormalizedQueries.setFields(fields)));
+        deletes.forEach(ownerId -> bulk.remove(NormalizedQueries.owner(serviceId, resourceId, ownerId)));
+        BulkWriteResult result = null;
+        try {
+            result = bulk.execute();
+            return result;
+        } catch (BulkOperationException e) {
+            result = e.getResult();
+            throw e;
+        } finally {
+            incrementVersion(serviceId, 0, insertedMinusDeleted(result));
+        }
+    }
+
+    // A partially failed bulk still reports what it applied; without any result nothing is counted.
+    private static long insertedMinusDeleted(BulkWriteResult result) {
+        return result == null ? 0 : result.getInsertedCount() - result.getDeletedCount();
+    }
+
+    private Optional<Service> summary(String serviceId) {
+        return Optional.ofNullable(mongoTemplate.findOne(ServiceQueries.serviceSummary(serviceId), Service.class));
+    }
+
+    // Child and service documents cannot be updated together, so a guarded write first moves the service off the
+    // version the client checked: only one writer can claim it. The increment after the child write then
+    // publishes the change, so anything cached at the claimed version is already below the version the write reports.
+    private boolean claimVersion(String serviceId, Long version) {
+        return version == null || mongoTemplate.updateFirst(ServiceQueries.serviceVersion(serviceId, version),
+                new Update().inc(ServiceQueries.VERSION, 1), Service.class).getMatchedCount() > 0;
+    }
+
+    private Optional<Long> incrementVersion(String serviceId, long resourceDelta, long ownerDelta) {
+        return newVersion(ServiceQueries.service(serviceId), NormalizedQueries.incrementVersion(resourceDelta, ownerDelta));
+    }
+
+    private List<Resource> findResources(Query query) {
+        return mongoTemplate.find(query, Document.class, NormalizedQueries.RESOURCES).stream()
+                .map(NormalizedQueries::resourceOf)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private List<Owner> findOwners(Query query) {
+        return mongoTemplate.find(query, Document.class, NormalizedQueries.OWNERS).stream()
+                .map(NormalizedQueries::ownerOf)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private List<Resource> withOwners(String serviceId, List<Resource> resources) {
+        if (resources.isEmpty()) {
+            return resources;
+        }
+        Map<String, Resource> byId = resources.stream().collect(Collectors.toMap(Resource::getId, resource -> resource));
+        for (Document owner : mongoTemplate.find(NormalizedQueries.ownersOf(serviceId, byId.keySet()), Document.class, NormalizedQueries.OWNERS)) {
+            byId.get(NormalizedQueries.idOf(owner.get(NormalizedQueries.RESOURCE_ID))).getOwners().add(NormalizedQueries.ownerOf(owner));
+        }
+        return resources;
+    }
+
+    private void deleteChildren(String serviceId) {
+        mongoTemplate.remove(NormalizedQueries.ownersOfService(serviceId), NormalizedQueries.OWNERS);
+        mongoTemplate.remove(NormalizedQueries.resourcesOf(serviceId), NormalizedQueries.RESOURCES);
+    }
+
+    // A retried create finds its own document from the first attempt; returns how many documents were written.
+    private long insertIgnoringDuplicate(Document document, String collectionName) {
+        try {
+            mongoTemplate.insert(document, collectionName);
+            return 1;
+        } catch (DuplicateKeyException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.swisscom.crud.repository;
+
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+// Online migration to custom.storage.mode=normalized, run in passes while the application serves traffic.
+// In embedded mode a pass copies every service whose version changed since its last copy, so repeated passes
+// keep the child collections in sync. In normalized mode a pass removes the embedded arrays of copied services,
+// but only while the array is still the one that was copied.
+@Component
+@ConditionalOnProperty(name = "custom.storage.migration.enabled", havingValue = "true")
+public class NormalizedStorageMigration {
+    private static final Logger logger = LoggerFactory.getLogger(NormalizedStorageMigration.class);
+    static final String MARKERS = "storage_migrations";
+    static final String RESOURCES_DIGEST = "resourcesDigest";
+
+    private final MongoTemplate mongoTemplate;
+    private final String storageMode;
+    private final int batchSize;
+    private final Duration batchPause;
+
+    public NormalizedStorageMigration(MongoTemplate mongoTemplate,
+                                      @Value("${custom.storage.mode:embedded}") String storageMode,
+                                      @Value("${custom.storage.migration.batch-size:100}") int batchSize,
+                                      @Value("${custom.storage.migration.batch-pause:100ms}") Duration batchPause) {
+        this.mongoTemplate = mongoTemplate;
+        this.storageMode = storageMode;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchPause = batchPause;
+    }
+
+    @Scheduled(fixedDelayString = "${custom.storage.migration.interval:1m}", initialDelayString = "${custom.storage.migration.initial-delay:10s}")
+    public void runPass() {
+        try {
+            if (StorageMode.NORMALIZED.equals(storageMode)) {
+                logger.info("Storage migration pass: embedded arrays removed from {} services", unsetPass());
+            } else {
+                logger.info("Storage migration pass: {} services copied to the normalized collections", copyPass());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Storage migration pass failed, retrying with the next pass: {}", e.getMessage());
+        }
+    }
+
+    public int copyPass() {
+        int copied = 0;
+        String lastId = null;
+        List<Service> batch;
+        while (!(batch = mongoTemplate.find(ServiceQueries.servicesAfter(lastId, batchSize), Service.class)).isEmpty()) {
+            Map<String, Document> markers = markers(batch.stream().map(Service::getId).toList());
+            for (Service summary : batch) {
+                if (!Objects.equals(copiedVersion(markers.get(summary.getId())), summary.getVersion()) && copyService(summary.getId())) {
+                    copied++;
+                }
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+            pause();
+        }
+        return copied;
+    }
+
+    // Only services whose array is still the copied one lose it. Normalized writes move the version without
+    // touching the array, so a moved version alone is not stale; an array that differs from the copy was written
+    // by an embedded-mode instance after the last copy pass and is kept and reported, never removed. The unset is
+    // guarded by the version it was decided at, so a write landing in between defers it to the next pass.
+    public int unsetPass() {
+        int unset = 0;
+        int uncopied = 0;
+        List<String> stale = new ArrayList<>();
+        Object lastId = null;
+        List<Document> batch;
+        while (!(batch = embeddedServicesAfter(lastId)).isEmpty()) {
+            Map<String, Document> markers = markers(batch.stream().map(document -> NormalizedQueries.idOf(document.get("_id"))).toList());
+            for (Document summary : batch) {
+                Document marker = markers.get(NormalizedQueries.idOf(summary.get("_id")));
+                if (marker == null) {
+                    uncopied++;
+                    continue;
+                }
+                Long version = unchangedSinceCopy(summary, marker);
+                if (version == null) {
+                    stale.add(NormalizedQueries.idOf(summary.get("_id")));
+                } else if (unsetAt(summary.get("_id"), version)) {
+                    unset++;
+                }
+            }
+            lastId = batch.get(batch.size() - 1).get("_id");
+            pause();
+        }
+        if (uncopied > 0) {
+            logger.warn("{} services still embed resources but were never copied; run the copy in embedded mode first", uncopied);
+        }
+        if (!stale.isEmpty()) {
+            logger.warn("{} services embed resources written after their last copy and were left in place, e.g. {}",
+                    stale.size(), stale.subList(0, Math.min(stale.size(), 20)));
+        }
+        return unset;
+    }
+
+    // The version at which the embedded array is known to equal the copy, or null when it changed since.
+    private Long unchangedSinceCopy(Document summary, Document marker) {
+        Long version = versionOf(summary);
+        if (Objects.equals(copiedVersion(marker), version)) {
+            return version;
+        }
+        if (marker.getString(RESOURCES_DIGEST) == null) {
+            return null;
+        }
+        Query query = byId(summary.get("_id"));
+        query.fields().include(ServiceQueries.RESOURCES, ServiceQueries.VERSION);
+        Document service = mongoTemplate.findOne(query, Document.class, ServiceQueries.COLLECTION);
+        return service != null && marker.getString(RESOURCES_DIGEST).equals(resourcesDigest(service)) ? versionOf(service) : null;
+    }
+
+    private boolean unsetAt(Object id, Long version) {
+        Query query = Query.query(Criteria.where("_id").is(id).and(ServiceQueries.VERSION).is(version));
+        return mongoTemplate.updateFirst(query, new Update().unset(ServiceQueries.RESOURCES), ServiceQueries.COLLECTION).getModifiedCount() > 0;
+    }
+
+    // Upserts the children by _id and removes the ones no longer embedded, so copying again is always safe.
+    boolean copyService(String serviceId) {
+        Document service = mongoTemplate.findOne(ServiceQueries.service(serviceId), Document.class, ServiceQueries.COLLECTION);
+        if (service == null) {
+            return false;
+        }
+        List<Object> resourceIds = new ArrayList<>();
+        List<Object> ownerIds = new ArrayList<>();
+        BulkOperations resources = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NormalizedQueries.RESOURCES);
+        BulkOperations owners = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NormalizedQueries.OWNERS);
+        for (Document embeddedResource : service.getList(ServiceQueries.RESOURCES, Document.class, List.of())) {
+            Resource resource = NormalizedQueries.resourceOf(embeddedResource);
+            resourceIds.add(embeddedResource.get("_id"));
+            resources.replaceOne(byId(embeddedResource.get("_id")), NormalizedQueries.resourceDocument(serviceId, resource),
+                    FindAndReplaceOptions.options().upsert());
+            for (Document embeddedOwner : embeddedResource.getList("owners", Document.class, List.of())) {
+                Owner owner = NormalizedQueries.ownerOf(embeddedOwner);
+                ownerIds.add(embeddedOwner.get("_id"));
+                owners.replaceOne(byId(embeddedOwner.get("_id")), NormalizedQueries.ownerDocument(serviceId, resource.getId(), owner),
+                        FindAndReplaceOptions.options().upsert());
+            }
+        }
+        if (!resourceIds.isEmpty()) {
+            resources.execute();
+        }
+        if (!ownerIds.isEmpty()) {
+            owners.execute();
+        }
+        mongoTemplate.remove(Query.query(Criteria.where(NormalizedQueries.SERVICE_ID).is(ServiceQueries.storedId(serviceId))
+                .and("_id").nin(resourceIds)), NormalizedQueries.RESOURCES);
+        mongoTemplate.remove(Query.query(Criteria.where(NormalizedQueries.SERVICE_ID).is(ServiceQueries.storedId(serviceId))
+                .and("_id").nin(ownerIds)), NormalizedQueries.OWNERS);
+        mongoTemplate.upsert(byId(serviceId), Update.update(ServiceQueries.VERSION, service.get(ServiceQueries.VERSION))
+                .set(RESOURCES_DIGEST, resourcesDigest(service))
+                .currentDate("copiedAt"), MARKERS);
+        return true;
+    }
+
+    private List<Document> embeddedServicesAfter(Object lastId) {
+        Criteria criteria = Criteria.where(ServiceQueries.RESOURCES + ".0").exists(true);
+        if (lastId != null) {
+            criteria = criteria.and("_id").gt(lastId);
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by("_id"))
+                .limit(batchSize);
+        query.fields().include("_id", ServiceQueries.VERSION);
+        return mongoTemplate.find(query, Document.class, ServiceQueries.COLLECTION);
+    }
+
+    private Map<String, Document> markers(List<String> serviceIds) {
+        Query query = Query.query(Criteria.where("_id").in(serviceIds.stream().map(ServiceQueries::storedId).toList()));
+        return mongoTemplate.find(query, Document.class, MARKERS).stream()
+                .filter(marker -> marker.get(ServiceQueries.VERSION) instanceof Number)
+                .collect(Collectors.toMap(marker -> NormalizedQueries.idOf(marker.get("_id")), marker -> marker));
+    }
+
+    private static Long copiedVersion(Document marker) {
+        return marker == null ? null : versionOf(marker);
+    }
+
+    private static Long versionOf(Document document) {
+        return document.get(ServiceQueries.VERSION) instanceof Number version ? version.longValue() : null;
+    }
+
+    // SHA-256 of the embedded array as read, so the unset pass can tell whether it still equals the copy.
+    static String resourcesDigest(Document service) {
+        String json = new Document(ServiceQueries.RESOURCES, service.getList(ServiceQueries.RESOURCES, Document.class, List.of())).toJson();
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot digest embedded resources", e);
+        }
+    }
+
+    private static Query byId(Object id) {
+        return Query.query(Criteria.where("_id").is(id instanceof String stringId ? ServiceQueries.storedId(stringId) : id));
+    }
+
+    private void pause() {
+        if (batchPause.isZero() || batchPause.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.swisscom.crud.repository;
+
+public record OwnerPosition(String serviceId, int resourceIndex, int ownerIndex) {
+}
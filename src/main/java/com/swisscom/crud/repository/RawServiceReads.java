@@ -0,0 +1,71 @@
+package com.swisscom.crud.repository;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Reads that skip the mapping layer: the driver hands back the server's bytes as RawBsonDocument, and only
+// the fields of the read DTOs are projected, so nothing else has to be filtered out before encoding.
+@Component
+@ConditionalOnProperty(name = "custom.read.mode", havingValue = "raw")
+public class RawServiceReads {
+    static final List<String> SERVICE_FIELDS = List.of(
+            ServiceQueries.VERSION, "name", ServiceQueries.RESOURCE_COUNT, ServiceQueries.OWNER_COUNT);
+    static final List<String> RESOURCE_FIELDS = List.of(
+            "resources._id", "resources.name", "resources.owners._id", "resources.owners.name",
+            "resources.owners.accountNumber", "resources.owners.level");
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    // The embedded arrays are what is passed through; normalized children would need the mapped path.
+    public RawServiceReads(ReactiveMongoTemplate mongoTemplate, @Value("${custom.storage.mode:embedded}") String storageMode) {
+        if (StorageMode.NORMALIZED.equals(storageMode)) {
+            throw new IllegalStateException("custom.read.mode=raw requires custom.storage.mode=embedded");
+        }
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public Mono<RawBsonDocument> findServiceSummary(String serviceId) {
+        return findOne(serviceId, include(SERVICE_FIELDS));
+    }
+
+    public Mono<RawBsonDocument> findResources(String serviceId) {
+        return findOne(serviceId, include(RESOURCE_FIELDS).append("_id", new BsonInt32(0)));
+    }
+
+    // {resources: [resource]} when the resource exists, {} when only the service does.
+    public Mono<RawBsonDocument> findResource(String serviceId, String resourceId) {
+        return findOne(serviceId, new BsonDocument("_id", new BsonInt32(0))
+                .append(ServiceQueries.RESOURCES, new BsonDocument("$elemMatch", new BsonDocument("_id", idValue(resourceId)))));
+    }
+
+    private Mono<RawBsonDocument> findOne(String serviceId, Bson projection) {
+        return mongoTemplate.getCollection(ServiceQueries.COLLECTION)
+                .flatMap(collection -> Mono.from(collection.withDocumentClass(RawBsonDocument.class)
+                        .find(new BsonDocument("_id", idValue(serviceId)))
+                        .projection(projection)
+                        .first()));
+    }
+
+    private static BsonDocument include(List<String> fields) {
+        BsonDocument projection = new BsonDocument();
+        fields.forEach(field -> projection.append(field, new BsonInt32(1)));
+        return projection;
+    }
+
+    private static BsonValue idValue(String id) {
+        return ServiceQueries.storedId(id) instanceof ObjectId objectId ? new BsonObjectId(objectId) : new BsonString(id);
+    }
+}
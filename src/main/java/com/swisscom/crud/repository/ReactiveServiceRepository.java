@@ -0,0 +1,18 @@
+package com.swisscom.crud.repository;
+
+import com.swisscom.crud.model.Service;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveServiceRepository extends ReactiveMongoRepository<Service, String>, ReactiveServiceRepositoryCustom {
+    @Query(value = "{}", fields = "{ 'resources': 0 }")
+    Flux<Service> findAllServices();
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'resources': 0 }")
+    Mono<Service> findByServiceId(String id);
+
+}
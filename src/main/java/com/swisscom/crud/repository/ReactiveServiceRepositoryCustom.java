@@ -0,0 +1,43 @@
+package com.swisscom.crud.repository;
+
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.OwnerLocation;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+public interface ReactiveServiceRepositoryCustom {
+    Flux<Service> findServicesAfter(String lastId, int limit);
+
+    Mono<Service> findServiceWithResource(String serviceId, String resourceId);
+
+    Mono<Service> findServiceWithResourcesSlice(String serviceId, int skip, int limit);
+
+    Mono<Resource> findResourceWithOwnersSlice(String serviceId, String resourceId, int skip, int limit);
+
+    Mono<Owner> findOwner(String serviceId, String resourceId, String ownerId);
+
+    Flux<OwnerLocation> findOwnersByAccountNumber(String accountNumber, OwnerPosition after, int limit);
+
+    Mono<Boolean> existsResource(String serviceId, String resourceId);
+
+    Mono<Boolean> existsOwner(String serviceId, String resourceId, String ownerId);
+
+    Mono<Service> updateServiceFields(String serviceId, Long version, Map<String, Object> fields);
+
+    // Nested writes emit the new Service version; empty when the target did not match.
+    Mono<Long> pushResource(String serviceId, Resource resource);
+
+    Mono<Versioned<Resource>> updateResourceFields(String serviceId, String resourceId, Map<String, Object> fields);
+
+    Mono<Long> pullResource(String serviceId, String resourceId);
+
+    Mono<Long> pushOwner(String serviceId, String resourceId, Owner owner);
+
+    Mono<Versioned<Owner>> updateOwnerFields(String serviceId, String resourceId, String ownerId, Map<String, Object> fields);
+
+    Mono<Long> pullOwner(String serviceId, String resourceId, String ownerId);
+}
@@ -0,0 +1,130 @@
+package com.swisscom.crud.repository;
+
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.OwnerLocation;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+public class ReactiveServiceRepositoryCustomImpl implements ReactiveServiceRepositoryCustom {
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    // Only the embedded layout has a reactive implementation; failing here beats serving half the data.
+    public ReactiveServiceRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate,
+                                               @Value("${custom.storage.mode:embedded}") String storageMode,
+                                               @Value("${custom.persistence.mode:blocking}") String persistenceMode) {
+        if (StorageMode.NORMALIZED.equals(storageMode) && "reactive".equals(persistenceMode)) {
+            throw new IllegalStateException("custom.storage.mode=normalized requires custom.persistence.mode=blocking");
+        }
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<Service> findServicesAfter(String lastId, int limit) {
+        return mongoTemplate.find(ServiceQueries.servicesAfter(lastId, limit), Service.class);
+    }
+
+    @Override
+    public Mono<Service> findServiceWithResource(String serviceId, String resourceId) {
+        return mongoTemplate.findOne(ServiceQueries.serviceWithResource(serviceId, resourceId), Service.class);
+    }
+
+    @Override
+    public Mono<Service> findServiceWithResourcesSlice(String serviceId, int skip, int limit) {
+        return mongoTemplate.findOne(ServiceQueries.serviceWithResourcesSlice(serviceId, skip, limit), Service.class);
+    }
+
+    @Override
+    public Mono<Resource> findResourceWithOwnersSlice(String serviceId, String resourceId, int skip, int limit) {
+        return mongoTemplate.aggregate(ServiceQueries.resourceWithOwnersSlice(serviceId, resourceId, skip, limit), ServiceQueries.COLLECTION, Resource.class)
+                .next();
+    }
+
+    @Override
+    public Mono<Owner> findOwner(String serviceId, String resourceId, String ownerId) {
+        return mongoTemplate.aggregate(ServiceQueries.ownerLookup(serviceId, resourceId, ownerId), ServiceQueries.COLLECTION, Owner.class)
+                .next();
+    }
+
+    @Override
+    public Flux<OwnerLocation> findOwnersByAccountNumber(String accountNumber, OwnerPosition after, int limit) {
+        return mongoTemplate.aggregate(
+                ServiceQueries.ownersByAccountNumber(accountNumber, after, limit), ServiceQueries.COLLECTION, OwnerLocation.class);
+    }
+
+    @Override
+    public Mono<Boolean> existsResource(String serviceId, String resourceId) {
+        return mongoTemplate.exists(ServiceQueries.resource(serviceId, resourceId), Service.class);
+    }
+
+    @Override
+    public Mono<Boolean> existsOwner(String serviceId, String resourceId, String ownerId) {
+        return mongoTemplate.exists(ServiceQueries.owner(serviceId, resourceId, ownerId), Service.class);
+    }
+
+    @Override
+    public Mono<Service> updateServiceFields(String serviceId, Long version, Map<String, Object> fields) {
+        return mongoTemplate.findAndModify(
+                ServiceQueries.serviceSummaryVersion(serviceId, version),
+                ServiceQueries.setServiceFields(fields),
+                FindAndModifyOptions.options().returnNew(true),
+                Service.class);
+    }
+
+    @Override
+    public Mono<Long> pushResource(String serviceId, Resource resource) {
+        return newVersion(ServiceQueries.serviceWithoutResource(serviceId, resource.getId()), ServiceQueries.pushResource(resource));
+    }
+
+    @Override
+    public Mono<Versioned<Resource>> updateResourceFields(String serviceId, String resourceId, Map<String, Object> fields) {
+        return mongoTemplate.findAndModify(
+                        ServiceQueries.withResourceProjection(ServiceQueries.resource(serviceId, resourceId), resourceId),
+                        ServiceQueries.setResourceFields(resourceId, fields),
+                        FindAndModifyOptions.options().returnNew(true),
+                        Service.class)
+                .flatMap(service -> Mono.justOrEmpty(EmbeddedServiceStorage.resourceOf(service, resourceId)
+                        .map(resource -> new Versioned<>(service.getVersion(), resource))));
+    }
+
+    @Override
+    public Mono<Long> pullResource(String serviceId, String resourceId) {
+        return newVersion(ServiceQueries.resource(serviceId, resourceId), ServiceQueries.pullResource(resourceId));
+    }
+
+    @Override
+    public Mono<Long> pushOwner(String serviceId, String resourceId, Owner owner) {
+        return newVersion(ServiceQueries.resourceWithoutOwner(serviceId, resourceId, owner.getId()), ServiceQueries.pushOwner(resourceId, owner));
+    }
+
+    @Override
+    public Mono<Versioned<Owner>> updateOwnerFields(String serviceId, String resourceId, String ownerId, Map<String, Object> fields) {
+        return mongoTemplate.findAndModify(
+                        ServiceQueries.withResourceProjection(ServiceQueries.owner(serviceId, resourceId, ownerId), resourceId),
+                        ServiceQueries.setOwnerFields(resourceId, ownerId, fields),
+                        FindAndModifyOptions.options().returnNew(true),
+                        Service.class)
+                .flatMap(service -> Mono.justOrEmpty(EmbeddedServiceStorage.resourceOf(service, resourceId)
+                        .flatMap(resource -> EmbeddedServiceStorage.ownerOf(resource, ownerId))
+                        .map(owner -> new Versioned<>(service.getVersion(), owner))));
+    }
+
+    @Override
+    public Mono<Long> pullOwner(String serviceId, String resourceId, String ownerId) {
+        return newVersion(ServiceQueries.owner(serviceId, resourceId, ownerId), ServiceQueries.pullOwner(resourceId, ownerId));
+    }
+
+    private Mono<Long> newVersion(Query query, UpdateDefinition update) {
+        return mongoTemplate.findAndModify(
+                        ServiceQueries.versionOnly(query), update, FindAndModifyOptions.options().returnNew(true), Service.class)
+                .map(Service::getVersion);
+    }
+}
@@ -0,0 +1,11 @@
+package com.swisscom.crud.repository;
+
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonValue;
+
+import java.time.Instant;
+
+// One change stream event on the services collection, reduced to what cache invalidation needs.
+// version is the Service version after the change when the event carries it.
+public record ServiceChange(OperationType operation, String serviceId, Long version, Instant wallTime, BsonValue resumeToken) {
+}
@@ -0,0 +1,94 @@
+package com.swisscom.crud.repository;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+@Component
+public class ServiceChangeStreams {
+    static final String TOKEN_COLLECTION = "change_stream_tokens";
+
+    // Only the ids and the new version leave the server: a $pull reports the whole remaining array in updatedFields.
+    private static final Document PROJECTION = new Document("$project", new Document("operationType", 1)
+            .append("documentKey", 1)
+            .append("clusterTime", 1)
+            .append("wallTime", 1)
+            .append("updateDescription.updatedFields.version", 1)
+            .append("fullDocument.version", 1));
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ServiceChangeStreams(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public Flux<ServiceChange> changes(BsonValue resumeAfter) {
+        ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder().filter(PROJECTION);
+        if (resumeAfter != null) {
+            options.resumeAfter(resumeAfter);
+        }
+        return mongoTemplate.changeStream(ServiceQueries.COLLECTION, options.build(), Document.class)
+                .map(ServiceChangeStreams::changeOf);
+    }
+
+    public Mono<BsonValue> loadToken(String listenerId) {
+        return mongoTemplate.findById(listenerId, Document.class, TOKEN_COLLECTION)
+                .mapNotNull(document -> document.getString("token"))
+                .map(BsonDocument::parse);
+    }
+
+    // Stored as extended JSON: a resume token is an opaque {_data: "<hex>"} document.
+    public Mono<Void> saveToken(String listenerId, BsonValue token) {
+        return mongoTemplate.upsert(Query.query(Criteria.where("_id").is(listenerId)),
+                        Update.update("token", token.asDocument().toJson()).currentDate("updatedAt"),
+                        TOKEN_COLLECTION)
+                .then();
+    }
+
+    static ServiceChange changeOf(ChangeStreamEvent<Document> event) {
+        ChangeStreamDocument<Document> raw = event.getRaw();
+        OperationType operation = raw == null ? OperationType.OTHER : raw.getOperationType();
+        String serviceId = raw == null || raw.getDocumentKey() == null ? null : idOf(raw.getDocumentKey().get("_id"));
+        Instant wallTime = raw != null && raw.getWallTime() != null
+                ? Instant.ofEpochMilli(raw.getWallTime().getValue())
+                : event.getTimestamp();
+        return new ServiceChange(operation, serviceId, versionOf(raw), wallTime, event.getResumeToken());
+    }
+
+    private static Long versionOf(ChangeStreamDocument<Document> raw) {
+        if (raw == null) {
+            return null;
+        }
+        if (raw.getUpdateDescription() != null && raw.getUpdateDescription().getUpdatedFields() != null) {
+            BsonValue version = raw.getUpdateDescription().getUpdatedFields().get(ServiceQueries.VERSION);
+            return version != null && version.isNumber() ? version.asNumber().longValue() : null;
+        }
+        if (raw.getFullDocument() != null && raw.getFullDocument().get(ServiceQueries.VERSION) instanceof Number version) {
+            return version.longValue();
+        }
+        return null;
+    }
+
+    private static String idOf(BsonValue id) {
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
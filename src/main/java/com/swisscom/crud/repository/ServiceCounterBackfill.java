@@ -0,0 +1,79 @@
+package com.swisscom.crud.repository;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Services written before the counters existed have none; every nested write keeps them in step afterwards.
+// A nested write that reaches such a service before the backfill creates its counters from zero, so
+// custom.counters.backfill.all recounts every service instead, which is exact in embedded mode.
+@Component
+@ConditionalOnProperty(name = "custom.counters.backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class ServiceCounterBackfill {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceCounterBackfill.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final String storageMode;
+    private final boolean all;
+
+    public ServiceCounterBackfill(MongoTemplate mongoTemplate,
+                                  @Value("${custom.storage.mode:embedded}") String storageMode,
+                                  @Value("${custom.counters.backfill.all:false}") boolean all) {
+        this.mongoTemplate = mongoTemplate;
+        this.storageMode = storageMode;
+        this.all = all;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            long backfilled = backfill();
+            if (backfilled > 0) {
+                logger.info("Backfilled resource and owner counters of {} services", backfilled);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Counter backfill failed, continuing without it: {}", e.getMessage());
+        }
+    }
+
+    public long backfill() {
+        if (StorageMode.NORMALIZED.equals(storageMode)) {
+            return backfillNormalized();
+        }
+        // One server-side pipeline update; each document is recounted atomically from its own arrays.
+        return mongoTemplate.updateMulti(targets(),
+                AggregationUpdate.from(List.of(ServiceQueries.recount())), ServiceQueries.COLLECTION).getModifiedCount();
+    }
+
+    private Query targets() {
+        return all ? new Query() : ServiceQueries.servicesWithoutCounters();
+    }
+
+    private long backfillNormalized() {
+        Query query = targets();
+        query.fields().include("_id");
+        long backfilled = 0;
+        for (Document service : mongoTemplate.find(query, Document.class, ServiceQueries.COLLECTION)) {
+            String serviceId = NormalizedQueries.idOf(service.get("_id"));
+            Update counters = new Update()
+                    .set(ServiceQueries.RESOURCE_COUNT, mongoTemplate.count(NormalizedQueries.resourcesOf(serviceId), NormalizedQueries.RESOURCES))
+                    .set(ServiceQueries.OWNER_COUNT, mongoTemplate.count(NormalizedQueries.ownersOfService(serviceId), NormalizedQueries.OWNERS));
+            Criteria byId = Criteria.where("_id").is(service.get("_id"));
+            Query target = Query.query(all ? byId : new Criteria().andOperator(byId, ServiceQueries.countersMissing()));
+            backfilled += mongoTemplate.updateFirst(target, counters, ServiceQueries.COLLECTION).getModifiedCount();
+        }
+        return backfilled;
+    }
+}
@@ -0,0 +1,170 @@
+package com.swisscom.crud.repository;
+
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+import com.swisscom.crud.model.Service;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "custom.indexes.enabled", havingValue = "true", matchIfMissing = true)
+public class ServiceIndexManager {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceIndexManager.class);
+
+    // Embedded "id" properties are stored as "_id", so these are the paths the nested lookups filter on.
+    static final Map<String, String> INDEXES = Map.of(
+            "resources_id", "resources._id",
+            "resources_owners_id", "resources.owners._id",
+            "name", "name",
+            "resources_owners_accountNumber", "resources.owners.accountNumber");
+
+    // Child collections of custom.storage.mode=normalized: index name -> (collection, key fields).
+    static final Map<String, List<String>> NORMALIZED_INDEXES = Map.of(
+            "serviceId_id", List.of(NormalizedQueries.RESOURCES, NormalizedQueries.SERVICE_ID, "_id"),
+            "serviceId_resourceId_id", List.of(NormalizedQueries.OWNERS, NormalizedQueries.SERVICE_ID, NormalizedQueries.RESOURCE_ID, "_id"),
+            "accountNumber_serviceId_id", List.of(NormalizedQueries.OWNERS, NormalizedQueries.ACCOUNT_NUMBER, NormalizedQueries.SERVICE_ID, "_id"));
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${custom.indexes.explain:true}")
+    private boolean explain;
+
+    @Value("${custom.storage.mode:embedded}")
+    private String storageMode;
+
+    public ServiceIndexManager(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            ensureIndexes();
+            if (explain) {
+                checkHotQueries();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Index management failed, continuing without it: {}", e.getMessage());
+        }
+    }
+
+    public int ensureIndexes() {
+        IndexOperations indexOperations = mongoTemplate.indexOps(Service.class);
+        Set<String> existingKeys = indexOperations.getIndexInfo().stream()
+                .filter(info -> info.getIndexFields().size() == 1)
+                .map(info -> info.getIndexFields().get(0).getKey())
+                .collect(Collectors.toSet());
+        int created = 0;
+        for (Map.Entry<String, String> index : INDEXES.entrySet()) {
+            if (existingKeys.contains(index.getValue())) {
+                continue;
+            }
+            String name = indexOperations.ensureIndex(new Index().on(index.getValue(), Sort.Direction.ASC).named(index.getKey()));
+            logger.info("Created index {} on {}", name, index.getValue());
+            created++;
+        }
+        logger.info("Index check finished: {} created, {} already present", created, INDEXES.size() - created);
+        if (StorageMode.NORMALIZED.equals(storageMode)) {
+            created += ensureNormalizedIndexes();
+        }
+        return created;
+    }
+
+    private int ensureNormalizedIndexes() {
+        int created = 0;
+        for (Map.Entry<String, List<String>> index : NORMALIZED_INDEXES.entrySet()) {
+            String collectionName = index.getValue().get(0);
+            IndexOperations indexOperations = mongoTemplate.indexOps(collectionName);
+            boolean exists = indexOperations.getIndexInfo().stream()
+                    .anyMatch(info -> index.getKey().equals(info.getName()));
+            if (exists) {
+                continue;
+            }
+            Index definition = new Index().named(index.getKey());
+            index.getValue().subList(1, index.getValue().size())
+                    .forEach(field -> definition.on(field, Sort.Direction.ASC));
+            indexOperations.ensureIndex(definition);
+            logger.info("Created index {} on {}", index.getKey(), collectionName);
+            created++;
+        }
+        return created;
+    }
+
+    // The nested lookups are explained without the service _id: with it the planner always picks the _id index,
+    // whether or not the nested id index exists.
+    public List<String> checkHotQueries() {
+        ObjectId sampleId = ObjectId.get();
+        String sampleHexId = sampleId.toHexString();
+        Map<String, HotQuery> hotQueries = new LinkedHashMap<>();
+        hotQueries.put("resource by id", new HotQuery(ServiceQueries.COLLECTION,
+                Query.query(Criteria.where("resources._id").is(sampleId))));
+        hotQueries.put("owner by id", new HotQuery(ServiceQueries.COLLECTION,
+                Query.query(Criteria.where("resources.owners._id").is(sampleId))));
+        hotQueries.put("service by name", new HotQuery(ServiceQueries.COLLECTION, Query.query(Criteria.where("name").is("sample"))));
+        hotQueries.put("owner by account number", new HotQuery(ServiceQueries.COLLECTION,
+                Query.query(Criteria.where("resources.owners.accountNumber").is("sample"))));
+        if (StorageMode.NORMALIZED.equals(storageMode)) {
+            hotQueries.put("resources of service", new HotQuery(NormalizedQueries.RESOURCES,
+                    NormalizedQueries.resourcesOf(sampleHexId)));
+            hotQueries.put("owners of resource", new HotQuery(NormalizedQueries.OWNERS,
+                    NormalizedQueries.ownersOf(sampleHexId, sampleHexId)));
+            hotQueries.put("owners of service", new HotQuery(NormalizedQueries.OWNERS,
+                    NormalizedQueries.ownersOfService(sampleHexId)));
+            hotQueries.put("normalized owner by account number", new HotQuery(NormalizedQueries.OWNERS,
+                    NormalizedQueries.ownersByAccountNumber("sample", null, false, 0, 1)));
+        }
+
+        List<String> collectionScans = new ArrayList<>();
+        hotQueries.forEach((description, hotQuery) -> {
+            FindIterable<Document> find = mongoTemplate.getCollection(hotQuery.collection())
+                    .find(hotQuery.query().getQueryObject());
+            if (hotQuery.query().isSorted()) {
+                find = find.sort(hotQuery.query().getSortObject());
+            }
+            Document plan = find.explain(ExplainVerbosity.QUERY_PLANNER);
+            if (usesCollectionScan(plan.get("queryPlanner"))) {
+                logger.warn("Hot query '{}' is planned as a COLLSCAN on {}", description, hotQuery.collection());
+                collectionScans.add(description);
+            }
+        });
+        return collectionScans;
+    }
+
+    private record HotQuery(String collection, Query query) {
+    }
+
+    static boolean usesCollectionScan(Object plan) {
+        if (plan instanceof Document document) {
+            if ("COLLSCAN".equals(document.get("stage"))) {
+                return true;
+            }
+            return document.entrySet().stream()
+                    .filter(entry -> !"rejectedPlans".equals(entry.getKey()))
+                    .anyMatch(entry -> usesCollectionScan(entry.getValue()));
+        }
+        if (plan instanceof List<?> list) {
+            return list.stream().anyMatch(ServiceIndexManager::usesCollectionScan);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,283 @@
+package com.swisscom.crud.repository;
+
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+final class ServiceQueries {
+    static final String RESOURCES = "resources";
+    static final String VERSION = "version";
+    static final String RESOURCE_COUNT = "resourceCount";
+    static final String OWNER_COUNT = "ownerCount";
+    static final String COLLECTION = "services";
+
+    private ServiceQueries() {
+    }
+
+    // Embedded "id" properties are persisted as "_id" and converted to ObjectId when they are valid hex strings.
+    static Object storedId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    static Query service(String serviceId) {
+        return Query.query(Criteria.where("_id").is(storedId(serviceId)));
+    }
+
+    static Query servicesAfter(String lastId, int limit) {
+        Criteria criteria = lastId == null ? new Criteria() : Criteria.where("_id").gt(storedId(lastId));
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+        query.fields().exclude(RESOURCES);
+        return query;
+    }
+
+    static Query resource(String serviceId, String resourceId) {
+        return Query.query(Criteria.where("_id").is(storedId(serviceId))
+                .and("resources._id").is(storedId(resourceId)));
+    }
+
+    static Query owner(String serviceId, String resourceId, String ownerId) {
+        return Query.query(Criteria.where("_id").is(storedId(serviceId))
+                .and(RESOURCES).elemMatch(Criteria.where("_id").is(storedId(resourceId))
+                        .and("owners._id").is(storedId(ownerId))));
+    }
+
+    // Push guards: a re-applied push matches nothing once the element with that id is already there.
+    static Query serviceWithoutResource(String serviceId, String resourceId) {
+        return Query.query(Criteria.where("_id").is(storedId(serviceId))
+                .and("resources._id").ne(storedId(resourceId)));
+    }
+
+    static Query resourceWithoutOwner(String serviceId, String resourceId, String ownerId) {
+        return Query.query(Criteria.where("_id").is(storedId(serviceId))
+                .and(RESOURCES).elemMatch(Criteria.where("_id").is(storedId(resourceId))
+                        .and("owners._id").ne(storedId(ownerId))));
+    }
+
+    static Query serviceVersion(String serviceId, Long version) {
+        return Query.query(Criteria.where("_id").is(storedId(serviceId)).and(VERSION).is(version));
+    }
+
+    // Narrows a nested write to the service version the client checked; null leaves it unguarded.
+    static Query atVersion(Query query, Long version) {
+        return version == null ? query : query.addCriteria(Criteria.where(VERSION).is(version));
+    }
+
+    static Query serviceIds(String serviceId) {
+        Query query = service(serviceId);
+        query.fields().include("resources._id", "resources.owners._id");
+        return query;
+    }
+
+    static Query versionsOf(Collection<String> serviceIds) {
+        Query query = Query.query(Criteria.where("_id").in(serviceIds.stream().map(ServiceQueries::storedId).toList()));
+        query.fields().include(VERSION);
+        return query;
+    }
+
+    static Query serviceSummary(String serviceId) {
+        Query query = service(serviceId);
+        query.fields().exclude(RESOURCES);
+        return query;
+    }
+
+    static Criteria countersMissing() {
+        return new Criteria().orOperator(Criteria.where(RESOURCE_COUNT).exists(false), Criteria.where(OWNER_COUNT).exists(false));
+    }
+
+    static Query servicesWithoutCounters() {
+        return Query.query(countersMissing());
+    }
+
+    // Returns the updated service without its resources, so the response is as small as the write.
+    static Query serviceSummaryVersion(String serviceId, Long version) {
+        Query query = serviceVersion(serviceId, version);
+        query.fields().exclude(RESOURCES);
+        return query;
+    }
+
+    // Nested writes run as findAndModify returning only the new version, which the cache coherence layer needs.
+    static Query versionOnly(Query query) {
+        query.fields().include(VERSION);
+        return query;
+    }
+
+    static Update setServiceFields(Map<String, Object> fields) {
+        Update update = new Update().inc(VERSION, 1);
+        fields.forEach(update::set);
+        return update;
+    }
+
+    static Update setServiceName(String name) {
+        Update update = new Update().inc(VERSION, 1);
+        return name == null ? update : update.set("name", name);
+    }
+
+    static Update pushResource(Resource resource) {
+        return new Update().push(RESOURCES, resource).inc(VERSION, 1)
+                .inc(RESOURCE_COUNT, 1)
+                .inc(OWNER_COUNT, Service.ownersIn(List.of(resource)));
+    }
+
+    static Update pushResources(List<Resource> resources) {
+        Update update = new Update().inc(VERSION, 1)
+                .inc(RESOURCE_COUNT, resources.size())
+                .inc(OWNER_COUNT, Service.ownersIn(resources));
+        update.push(RESOURCES).each(resources.toArray());
+        return update;
+    }
+
+    static Update setResourceFields(String resourceId, Map<String, Object> fields) {
+        Update update = new Update().inc(VERSION, 1);
+        fields.forEach((field, value) -> update.set("resources.$[r]." + field, value));
+        return update.filterArray("r._id", storedId(resourceId));
+    }
+
+    // A plain $pull cannot tell how many owners left with the resource, so this pipeline update filters the array
+    // and recounts from what remains, which also repairs counters that drifted before they were maintained.
+    // The version stage is a typed SetOperation so the template sees the version as modified and adds no second $inc.
+    static UpdateDefinition pullResource(String resourceId) {
+        return AggregationUpdate.from(List.of(
+                stage("$set", new Document(RESOURCES, new Document("$filter", new Document("input", "$resources")
+                        .append("as", "r")
+                        .append("cond", new Document("$ne", List.of("$$r._id", storedId(resourceId))))))),
+                recount(),
+                SetOperation.set(VERSION).toValue(ArithmeticOperators.valueOf(VERSION).add(1))));
+    }
+
+    static AggregationOperation recount() {
+        Document resources = new Document("$ifNull", List.of("$resources", List.of()));
+        return stage("$set", new Document(RESOURCE_COUNT, new Document("$size", resources))
+                .append(OWNER_COUNT, new Document("$sum", new Document("$map", new Document("input", resources)
+                        .append("as", "r")
+                        .append("in", new Document("$size", new Document("$ifNull", List.of("$$r.owners", List.of()))))))));
+    }
+
+    static Update pushOwner(String resourceId, Owner owner) {
+        return new Update().push("resources.$[r].owners", owner).inc(VERSION, 1).inc(OWNER_COUNT, 1)
+                .filterArray("r._id", storedId(resourceId));
+    }
+
+    static Update pushOwners(String resourceId, List<Owner> owners) {
+        Update update = new Update().inc(VERSION, 1).inc(OWNER_COUNT, owners.size());
+        update.push("resources.$[r].owners").each(owners.toArray());
+        return update.filterArray("r._id", storedId(resourceId));
+    }
+
+    static Update setOwnerFields(String resourceId, String ownerId, Map<String, Object> fields) {
+        Update update = new Update().inc(VERSION, 1);
+        fields.forEach((field, value) -> update.set("resources.$[r].owners.$[o]." + field, value));
+        return update.filterArray("r._id", storedId(resourceId))
+                .filterArray("o._id", storedId(ownerId));
+    }
+
+    // The owner() query guarantees the owner is there, so exactly one is removed.
+    static Update pullOwner(String resourceId, String ownerId) {
+        return new Update().pull("resources.$[r].owners", new Document("_id", storedId(ownerId))).inc(VERSION, 1).inc(OWNER_COUNT, -1)
+                .filterArray("r._id", storedId(resourceId));
+    }
+
+    static Query serviceWithResource(String serviceId, String resourceId) {
+        return withResourceProjection(service(serviceId), resourceId);
+    }
+
+    static Aggregation ownerLookup(String serviceId, String resourceId, String ownerId) {
+        Object resourceKey = storedId(resourceId);
+        Object ownerKey = storedId(ownerId);
+        return Aggregation.newAggregation(
+                stage("$match", new Document("_id", storedId(serviceId))
+                        .append(RESOURCES, new Document("$elemMatch", new Document("_id", resourceKey).append("owners._id", ownerKey)))),
+                stage("$project", new Document("_id", 0)
+                        .append("resource", filter("$resources", "r", resourceKey))),
+                stage("$unwind", "$resource"),
+                stage("$project", new Document("owner", filter("$resource.owners", "o", ownerKey))),
+                stage("$unwind", "$owner"),
+                stage("$replaceRoot", new Document("newRoot", "$owner")));
+    }
+
+    // Keyset over (service _id, resource position, owner position); positions come from $unwind includeArrayIndex.
+    static Aggregation ownersByAccountNumber(String accountNumber, OwnerPosition after, int limit) {
+        Document accountMatch = new Document("resources.owners.accountNumber", accountNumber);
+        Document firstMatch = new Document(accountMatch);
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (after != null) {
+            firstMatch.append("_id", new Document("$gte", storedId(after.serviceId())));
+        }
+        stages.add(stage("$match", firstMatch));
+        stages.add(stage("$sort", new Document("_id", 1)));
+        stages.add(stage("$project", new Document("resources._id", 1).append("resources.owners", 1)));
+        stages.add(stage("$unwind", new Document("path", "$resources").append("includeArrayIndex", "resourceIndex")));
+        stages.add(stage("$match", accountMatch));
+        stages.add(stage("$unwind", new Document("path", "$resources.owners").append("includeArrayIndex", "ownerIndex")));
+        stages.add(stage("$match", accountMatch));
+        if (after != null) {
+            Object serviceKey = storedId(after.serviceId());
+            stages.add(stage("$match", new Document("$or", List.of(
+                    new Document("_id", new Document("$gt", serviceKey)),
+                    new Document("_id", serviceKey).append("resourceIndex", new Document("$gt", (long) after.resourceIndex())),
+                    new Document("_id", serviceKey).append("resourceIndex", (long) after.resourceIndex())
+                            .append("ownerIndex", new Document("$gt", (long) after.ownerIndex()))))));
+        }
+        stages.add(stage("$limit", limit));
+        stages.add(stage("$project", new Document("_id", 0)
+                .append("serviceId", "$_id")
+                .append("resourceId", "$resources._id")
+                .append("resourceIndex", 1)
+                .append("ownerIndex", 1)
+                .append("owner", "$resources.owners")));
+        return Aggregation.newAggregation(stages);
+    }
+
+    static Query serviceWithResourcesSlice(String serviceId, int skip, int limit) {
+        Query query = service(serviceId);
+        query.fields().include(VERSION, "name").slice(RESOURCES, skip, limit);
+        return query;
+    }
+
+    static Aggregation resourceWithOwnersSlice(String serviceId, String resourceId, int skip, int limit) {
+        Object resourceKey = storedId(resourceId);
+        return Aggregation.newAggregation(
+                stage("$match", new Document("_id", storedId(serviceId)).append("resources._id", resourceKey)),
+                stage("$project", new Document("_id", 0)
+                        .append("resource", filter("$resources", "r", resourceKey))),
+                stage("$unwind", "$resource"),
+                stage("$project", new Document("_id", "$resource._id")
+                        .append("name", "$resource.name")
+                        .append("owners", new Document("$slice",
+                                List.of(new Document("$ifNull", List.of("$resource.owners", List.of())), skip, limit)))));
+    }
+
+    private static Document filter(String input, String alias, Object id) {
+        return new Document("$filter", new Document("input", input)
+                .append("as", alias)
+                .append("cond", new Document("$eq", List.of("$$" + alias + "._id", id))));
+    }
+
+    private static AggregationOperation stage(String operator, Object body) {
+        return context -> new Document(operator, body);
+    }
+
+    static Query withResourceProjection(Query query, String resourceId) {
+        query.fields().include(VERSION, "name")
+                .elemMatch(RESOURCES, Criteria.where("_id").is(storedId(resourceId)));
+        return query;
+    }
+}
@@ -7,13 +7,17 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ServiceRepository extends MongoRepository<Service, String> {
+public interface ServiceRepository extends MongoRepository<Service, String>, ServiceRepositoryCustom {
     @Query(value = "{}", fields = "{ 'resources': 0 }")
     List<Service> findAllServices();
 
     @Query(value = "{ '_id': ?0 }", fields = "{ 'resources': 0 }")
     Optional<Service> findByServiceId(String id);
 
+    @Query(value = "{}", fields = "{ 'resources': 0 }", sort = "{ '_id': 1 }")
+    Stream<Service> streamAllServices();
+
 }
@@ -0,0 +1,75 @@
+package com.swisscom.crud.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.OwnerLocation;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface ServiceRepositoryCustom {
+    // The service with all its resources and owners.
+    Optional<Service> findAggregate(String serviceId);
+
+    void deleteAggregate(String serviceId);
+
+    // Deletes only while the service is still at this version; false when it did not match.
+    boolean deleteAggregate(String serviceId, Long version);
+
+    List<Service> findServicesAfter(String lastId, int limit);
+
+    Optional<Service> findServiceWithResource(String serviceId, String resourceId);
+
+    Optional<Service> findServiceWithResourcesSlice(String serviceId, int skip, int limit);
+
+    Optional<Resource> findResourceWithOwnersSlice(String serviceId, String resourceId, int skip, int limit);
+
+    Optional<Owner> findOwner(String serviceId, String resourceId, String ownerId);
+
+    Optional<Service> findServiceIds(String serviceId);
+
+    List<Service> findServiceVersions(Collection<String> serviceIds);
+
+    List<OwnerLocation> findOwnersByAccountNumber(String accountNumber, OwnerPosition after, int limit);
+
+    boolean existsResource(String serviceId, String resourceId);
+
+    boolean existsOwner(String serviceId, String resourceId, String ownerId);
+
+    Optional<Service> updateServiceFields(String serviceId, Long version, Map<String, Object> fields);
+
+    // Nested writes return the new Service version; empty when the target did not match.
+    Optional<Long> pushResource(String serviceId, Resource resource);
+
+    Optional<Versioned<Resource>> updateResourceFields(String serviceId, String resourceId, Map<String, Object> fields);
+
+    Optional<Long> pullResource(String serviceId, String resourceId);
+
+    Optional<Long> pushOwner(String serviceId, String resourceId, Owner owner);
+
+    Optional<Versioned<Owner>> updateOwnerFields(String serviceId, String resourceId, String ownerId, Map<String, Object> fields);
+
+    Optional<Long> pullOwner(String serviceId, String resourceId, String ownerId);
+
+    // Guarded nested writes: applied only while the service is still at this version; empty when it did not match.
+    Optional<Versioned<Resource>> updateResourceFields(String serviceId, String resourceId, Long version, Map<String, Object> fields);
+
+    Optional<Long> pullResource(String serviceId, String resourceId, Long version);
+
+    Optional<Versioned<Owner>> updateOwnerFields(String serviceId, String resourceId, String ownerId, Long version, Map<String, Object> fields);
+
+    Optional<Long> pullOwner(String serviceId, String resourceId, String ownerId, Long version);
+
+    // Bulk writes run unordered in this op order: inserts (or one grouped push when groupsNestedCreates), then updates, then deletes.
+    boolean groupsNestedCreates();
+
+    BulkWriteResult bulkWriteServices(List<Service> inserts, List<Service> updates, List<String> deletes);
+
+    BulkWriteResult bulkWriteResources(String serviceId, List<Resource> creates, Map<String, Map<String, Object>> updates, List<String> deletes);
+
+    BulkWriteResult bulkWriteOwners(String serviceId, String resourceId, List<Owner> creates, Map<String, Map<String, Object>> updates, List<String> deletes);
+}
@@ -0,0 +1,166 @@
+package com.swisscom.crud.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.OwnerLocation;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// custom.storage.mode picks where resources and owners live; the repository contract is the same for both.
+public class ServiceRepositoryCustomImpl implements ServiceRepositoryCustom {
+    private final ServiceRepositoryCustom storage;
+
+    public ServiceRepositoryCustomImpl(MongoTemplate mongoTemplate,
+                                       @Value("${custom.storage.mode:embedded}") String storageMode) {
+        this.storage = StorageMode.NORMALIZED.equals(storageMode)
+                ? new NormalizedServiceStorage(mongoTemplate)
+                : new EmbeddedServiceStorage(mongoTemplate);
+    }
+
+    @Override
+    public Optional<Service> findAggregate(String serviceId) {
+        return storage.findAggregate(serviceId);
+    }
+
+    @Override
+    public void deleteAggregate(String serviceId) {
+        storage.deleteAggregate(serviceId);
+    }
+
+    @Override
+    public boolean deleteAggregate(String serviceId, Long version) {
+        return storage.deleteAggregate(serviceId, version);
+    }
+
+    @Override
+    public List<Service> findServicesAfter(String lastId, int limit) {
+        return storage.findServicesAfter(lastId, limit);
+    }
+
+    @Override
+    public Optional<Service> findServiceWithResource(String serviceId, String resourceId) {
+        return storage.findServiceWithResource(serviceId, resourceId);
+    }
+
+    @Override
+    public Optional<Service> findServiceWithResourcesSlice(String serviceId, int skip, int limit) {
+        return storage.findServiceWithResourcesSlice(serviceId, skip, limit);
+    }
+
+    @Override
+    public Optional<Resource> findResourceWithOwnersSlice(String serviceId, String resourceId, int skip, int limit) {
+        return storage.findResourceWithOwnersSlice(serviceId, resourceId, skip, limit);
+    }
+
+    @Override
+    public Optional<Owner> findOwner(String serviceId, String resourceId, String ownerId) {
+        return storage.findOwner(serviceId, resourceId, ownerId);
+    }
+
+    @Override
+    public Optional<Service> findServiceIds(String serviceId) {
+        return storage.findServiceIds(serviceId);
+    }
+
+    @Override
+    public List<Service> findServiceVersions(Collection<String> serviceIds) {
+        return storage.findServiceVersions(serviceIds);
+    }
+
+    @Override
+    public List<OwnerLocation> findOwnersByAccountNumber(String accountNumber, OwnerPosition after, int limit) {
+        return storage.findOwnersByAccountNumber(accountNumber, after, limit);
+    }
+
+    @Override
+    public boolean existsResource(String serviceId, String resourceId) {
+        return storage.existsResource(serviceId, resourceId);
+    }
+
+    @Override
+    public boolean existsOwner(String serviceId, String resourceId, String ownerId) {
+        return storage.existsOwner(serviceId, resourceId, ownerId);
+    }
+
+    @Override
+    public Optional<Service> updateServiceFields(String serviceId, Long version, Map<String, Object> fields) {
+        return storage.updateServiceFields(serviceId, version, fields);
+    }
+
+    @Override
+    public Optional<Long> pushResource(String serviceId, Resource resource) {
+        return storage.pushResource(serviceId, resource);
+    }
+
+    @Override
+    public Optional<Versioned<Resource>> updateResourceFields(String serviceId, String resourceId, Map<String, Object> fields) {
+        return storage.updateResourceFields(serviceId, resourceId, fields);
+    }
+
+    @Override
+    public Optional<Long> pullResource(String serviceId, String resourceId) {
+        return storage.pullResource(serviceId, resourceId);
+    }
+
+    @Override
+    public Optional<Long> pushOwner(String serviceId, String resourceId, Owner owner) {
+        return storage.pushOwner(serviceId, resourceId, owner);
+    }
+
+    @Override
+    public Optional<Versioned<Owner>> updateOwnerFields(String serviceId, String resourceId, String ownerId, Map<String, Object> fields) {
+        return storage.updateOwnerFields(serviceId, resourceId, ownerId, fields);
+    }
+
+    @Override
+    public Optional<Long> pullOwner(String serviceId, String resourceId, String ownerId) {
+        return storage.pullOwner(serviceId, resourceId, ownerId);
+    }
+
+    @Override
+    public Optional<Versioned<Resource>> updateResourceFields(String serviceId, String resourceId, Long version, Map<String, Object> fields) {
+        return storage.updateResourceFields(serviceId, resourceId, version, fields);
+    }
+
+    @Override
+    public Optional<Long> pullResource(String serviceId, String resourceId, Long version) {
+        return storage.pullResource(serviceId, resourceId, version);
+    }
+
+    @Override
+    public Optional<Versioned<Owner>> updateOwnerFields(String serviceId, String resourceId, String ownerId, Long version, Map<String, Object> fields) {
+        return storage.updateOwnerFields(serviceId, resourceId, ownerId, version, fields);
+    }
+
+    @Override
+    public Optional<Long> pullOwner(String serviceId, String resourceId, String ownerId, Long version) {
+        return storage.pullOwner(serviceId, resourceId, ownerId, version);
+    }
+
+    @Override
+    public boolean groupsNestedCreates() {
+        return storage.groupsNestedCreates();
+    }
+
+    @Override
+    public BulkWriteResult bulkWriteServices(List<Service> inserts, List<Service> updates, List<String> deletes) {
+        return storage.bulkWriteServices(inserts, updates, deletes);
+    }
+
+    @Override
+    public BulkWriteResult bulkWriteResources(String serviceId, List<Resource> creates, Map<String, Map<String, Object>> updates, List<String> deletes) {
+        return storage.bulkWriteResources(serviceId, creates, updates, deletes);
+    }
+
+    @Override
+    public BulkWriteResult bulkWriteOwners(String serviceId, String resourceId, List<Owner> creates, Map<String, Map<String, Object>> updates, List<String> deletes) {
+        return storage.bulkWriteOwners(serviceId, resourceId, creates, updates, deletes);
+    }
+}
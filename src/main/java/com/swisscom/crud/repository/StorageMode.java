@@ -0,0 +1,10 @@
+package com.swisscom.crud.repository;
+
+// Values of custom.storage.mode.
+public final class StorageMode {
+    public static final String EMBEDDED = "embedded";
+    public static final String NORMALIZED = "normalized";
+
+    private StorageMode() {
+    }
+}
@@ -0,0 +1,5 @@
+package com.swisscom.crud.repository;
+
+// A nested element as written, together with the Service version the write produced.
+public record Versioned<T>(long version, T value) {
+}
@@ -0,0 +1,73 @@
+package com.swisscom.crud.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Id -> list position maps for long-lived (cached) aggregates, built lazily per list on first lookup.
+// Indexes are keyed weakly by aggregate identity and never reference the aggregate, so they are
+// collected together with it once it leaves the cache.
+final class AggregateIndex {
+    private static final Cache<Service, AggregateIndex> INDEXES = Caffeine.newBuilder().weakKeys().build();
+    private static final String RESOURCES = "resources";
+
+    private final Map<String, Map<String, Integer>> positions = new ConcurrentHashMap<>();
+
+    private AggregateIndex() {
+    }
+
+    static Optional<Resource> resource(Service service, String resourceId) {
+        return Optional.ofNullable(indexOf(service).find(RESOURCES, service.getResources(), resourceId, Resource::getId));
+    }
+
+    static Optional<Owner> owner(Service service, String resourceId, String ownerId) {
+        return resource(service, resourceId)
+                .map(resource -> indexOf(service).find("owners:" + resourceId, resource.getOwners(), ownerId, Owner::getId));
+    }
+
+    private static AggregateIndex indexOf(Service service) {
+        return INDEXES.get(service, key -> new AggregateIndex());
+    }
+
+    // A position is only trusted while the element there still carries the id; a list that changed
+    // in place is re-indexed on the next miss instead of returning the wrong child.
+    private <T> T find(String list, List<T> elements, String id, Function<T, String> idOf) {
+        if (elements == null) {
+            return null;
+        }
+        Map<String, Integer> current = positions.computeIfAbsent(list, key -> positionsOf(elements, idOf));
+        Integer position = current.get(id);
+        T element = at(elements, position, id, idOf);
+        if (element == null && (position != null || current.size() != elements.size())) {
+            current = positionsOf(elements, idOf);
+            positions.put(list, current);
+            element = at(elements, current.get(id), id, idOf);
+        }
+        return element;
+    }
+
+    private static <T> Map<String, Integer> positionsOf(List<T> elements, Function<T, String> idOf) {
+        Map<String, Integer> positions = new HashMap<>(elements.size() * 2);
+        for (int i = 0; i < elements.size(); i++) {
+            positions.putIfAbsent(idOf.apply(elements.get(i)), i);
+        }
+        return positions;
+    }
+
+    private static <T> T at(List<T> elements, Integer position, String id, Function<T, String> idOf) {
+        if (position == null || position >= elements.size()) {
+            return null;
+        }
+        T element = elements.get(position);
+        return id.equals(idOf.apply(element)) ? element : null;
+    }
+}
@@ -0,0 +1,367 @@
+package com.swisscom.crud.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.swisscom.crud.dto.BatchItemResultDto;
+import com.swisscom.crud.dto.BatchOperation;
+import com.swisscom.crud.dto.BatchOwnerItemDto;
+import com.swisscom.crud.dto.BatchResourceItemDto;
+import com.swisscom.crud.dto.BatchServiceItemDto;
+import com.swisscom.crud.dto.CreateOwnerDto;
+import com.swisscom.crud.dto.CreateResourceDto;
+import com.swisscom.crud.dto.CreateServiceDto;
+import com.swisscom.crud.dto.UpdateOwnerDto;
+import com.swisscom.crud.dto.UpdateResourceDto;
+import com.swisscom.crud.dto.UpdateServiceDto;
+import com.swisscom.crud.exception.RecordNotFoundException;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import com.swisscom.crud.repository.ServiceRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@org.springframework.stereotype.Service
+public class BatchManager {
+    private static final Logger logger = LoggerFactory.getLogger(BatchManager.class);
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ServiceRepository serviceRepository;
+    private final DtoMapper dtoMapper;
+    private final Validator validator;
+    private final ServiceCacheEvictor serviceCacheEvictor;
+    private final ServiceEvents serviceEvents;
+
+    public BatchManager(ServiceRepository serviceRepository, DtoMapper dtoMapper, Validator validator, ServiceCacheEvictor serviceCacheEvictor, ServiceEvents serviceEvents) {
+        this.serviceRepository = serviceRepository;
+        this.dtoMapper = dtoMapper;
+        this.validator = validator;
+        this.serviceCacheEvictor = serviceCacheEvictor;
+        this.serviceEvents = serviceEvents;
+    }
+
+    public List<BatchItemResultDto> batchServices(List<BatchServiceItemDto> items) {
+        Map<String, Long> versions = versionsOf(items.stream()
+                .filter(item -> item.getOp() != null && item.getOp() != BatchOperation.CREATE && item.getId() != null)
+                .map(BatchServiceItemDto::getId)
+                .collect(Collectors.toSet()));
+        BatchPlan plan = new BatchPlan(items.size(), false);
+        List<Service> inserts = new ArrayList<>();
+        List<Service> updates = new ArrayList<>();
+        List<String> deletes = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            BatchServiceItemDto item = items.get(i);
+            String error = validate(item.getOp(), item.getId(), switch (item.getOp()) {
+                case CREATE -> new CreateServiceDto(item.getName());
+                case UPDATE -> new UpdateServiceDto(item.getVersion(), item.getName());
+                case DELETE -> null;
+                case null -> null;
+            });
+            // UpdateServiceDto leaves the version optional for If-Match; a batch item has no header to take it from.
+            if (error == null && item.getOp() == BatchOperation.UPDATE && item.getVersion() == null) {
+                error = ServiceManager.versionRequired().getMessage();
+            }
+            if (error != null) {
+                plan.reject(i, HttpStatus.BAD_REQUEST, item.getId(), error);
+                continue;
+            }
+            if (item.getOp() == BatchOperation.CREATE) {
+                Service service = dtoMapper.toService(new CreateServiceDto(item.getName()));
+                service.setId(ObjectId.get().toHexString());
+                service.setVersion(0L);
+                inserts.add(service);
+                plan.create(i, service.getId());
+                continue;
+            }
+            Long currentVersion = versions.get(item.getId());
+            if (currentVersion == null) {
+                plan.reject(i, HttpStatus.NOT_FOUND, item.getId(), "Service not found with id: " + item.getId());
+                continue;
+            }
+            if (!plan.claim(i, item.getId())) {
+                continue;
+            }
+            if (item.getOp() == BatchOperation.UPDATE) {
+                if (!currentVersion.equals(item.getVersion())) {
+                    plan.reject(i, HttpStatus.CONFLICT, item.getId(), versionConflict(item.getId(), item.getVersion(), currentVersion));
+                    continue;
+                }
+                updates.add(new Service(item.getVersion(), item.getId(), item.getName(), null));
+                plan.update(i, item.getId());
+            } else {
+                deletes.add(item.getId());
+                plan.delete(i, item.getId());
+            }
+        }
+
+        BulkWriteResult result = write(plan, () -> serviceRepository.bulkWriteServices(inserts, updates, deletes));
+        if (result != null && result.getMatchedCount() < updates.size()) {
+            rejectConcurrentUpdates(plan, updates);
+        }
+        plan.updates().stream().filter(plan::succeeded)
+                .forEach(index -> serviceCacheEvictor.serviceChanged(items.get(index).getId(), items.get(index).getVersion() + 1));
+        plan.deletes().stream().filter(plan::succeeded)
+                .forEach(index -> serviceCacheEvictor.serviceDeleted(items.get(index).getId()));
+        plan.creates().stream().filter(plan::succeeded)
+                .forEach(index -> serviceEvents.created(plan.id(index), null, null, 0L));
+        plan.updates().stream().filter(plan::succeeded)
+                .forEach(index -> serviceEvents.updated(plan.id(index), null, null, items.get(index).getVersion() + 1));
+        plan.deletes().stream().filter(plan::succeeded)
+                .forEach(index -> serviceEvents.deleted(plan.id(index), null, null, null));
+        return plan.results();
+    }
+
+    public List<BatchItemResultDto> batchResources(String serviceId, List<BatchResourceItemDto> items) {
+        Service existing = serviceRepository.findServiceIds(serviceId)
+                .orElseThrow(() -> new RecordNotFoundException("Service not found with id: " + serviceId));
+        Set<String> resourceIds = idsOf(existing.getResources(), Resource::getId);
+        BatchPlan plan = new BatchPlan(items.size(), serviceRepository.groupsNestedCreates());
+        List<Resource> creates = new ArrayList<>();
+        Map<String, Map<String, Object>> updates = new LinkedHashMap<>();
+        List<String> deletes = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            BatchResourceItemDto item = items.get(i);
+            String error = validate(item.getOp(), item.getId(),
+                    item.getOp() == BatchOperation.CREATE ? new CreateResourceDto(item.getName()) : null);
+            if (error != null) {
+                plan.reject(i, HttpStatus.BAD_REQUEST, item.getId(), error);
+                continue;
+            }
+            if (item.getOp() == BatchOperation.CREATE) {
+                Resource resource = dtoMapper.toResource(new CreateResourceDto(item.getName()));
+                creates.add(resource);
+                plan.create(i, resource.getId());
+                continue;
+            }
+            if (!resourceIds.contains(item.getId())) {
+                plan.reject(i, HttpStatus.NOT_FOUND, item.getId(), "Resource not found with id: " + item.getId());
+                continue;
+            }
+            if (!plan.claim(i, item.getId())) {
+                continue;
+            }
+            if (item.getOp() == BatchOperation.UPDATE) {
+                updates.put(item.getId(), dtoMapper.changesOf(new UpdateResourceDto(item.getName())));
+                plan.update(i, item.getId());
+            } else {
+                deletes.add(item.getId());
+                plan.delete(i, item.getId());
+            }
+        }
+
+        BulkWriteResult result = write(plan, () -> serviceRepository.bulkWriteResources(serviceId, creates, updates, deletes));
+        rejectVanishedTargets(plan, result, "Resource", "Service not found with id: " + serviceId,
+                () -> serviceRepository.findServiceIds(serviceId).map(service -> idsOf(service.getResources(), Resource::getId)));
+        if (plan.creates().stream().anyMatch(plan::succeeded)) {
+            serviceCacheEvictor.serviceChanged(serviceId, null);
+        }
+        plan.updates().stream().filter(plan::succeeded)
+                .forEach(index -> serviceCacheEvictor.resourceChanged(serviceId, items.get(index).getId(), null));
+        plan.deletes().stream().filter(plan::succeeded)
+                .forEach(index -> serviceCacheEvictor.resourceDeleted(serviceId, items.get(index).getId(), null));
+        plan.creates().stream().filter(plan::succeeded)
+                .forEach(index -> serviceEvents.created(serviceId, plan.id(index), null, null));
+        plan.updates().stream().filter(plan::succeeded)
+                .forEach(index -> serviceEvents.updated(serviceId, plan.id(index), null, null));
+        plan.deletes().stream().filter(plan::succeeded)
+                .forEach(index -> serviceEvents.deleted(serviceId, plan.id(index), null, null));
+        return plan.results();
+    }
+
+    public List<BatchItemResultDto> batchOwners(String serviceId, String resourceId, List<BatchOwnerItemDto> items) {
+        Service existing = serviceRepository.findServiceIds(serviceId)
+                .orElseThrow(() -> new RecordNotFoundException("Service not found with id: " + serviceId));
+        Resource resource = resourceOf(existing, resourceId)
+                .orElseThrow(() -> new RecordNotFoundException("Resource not found with id: " + resourceId));
+        Set<String> ownerIds = idsOf(resource.getOwners(), Owner::getId);
+        BatchPlan plan = new BatchPlan(items.size(), serviceRepository.groupsNestedCreates());
+        List<Owner> creates = new ArrayList<>();
+        Map<String, Map<String, Object>> updates = new LinkedHashMap<>();
+        List<String> deletes = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            BatchOwnerItemDto item = items.get(i);
+            CreateOwnerDto createOwnerDto = new CreateOwnerDto(item.getName(), item.getAccountNumber(), item.getLevel());
+            String error = validate(item.getOp(), item.getId(), item.getOp() == BatchOperation.CREATE ? createOwnerDto : null);
+            if (error != null) {
+                plan.reject(i, HttpStatus.BAD_REQUEST, item.getId(), error);
+                continue;
+            }
+            if (item.getOp() == BatchOperation.CREATE) {
+                Owner owner = dtoMapper.toOwner(createOwnerDto);
+                creates.add(owner);
+                plan.create(i, owner.getId());
+                continue;
+            }
+            if (!ownerIds.contains(item.getId())) {
+                plan.reject(i, HttpStatus.NOT_FOUND, item.getId(), "Owner not found with id: " + item.getId());
+                continue;
+            }
+            if (!plan.claim(i, item.getId())) {
+                continue;
+            }
+            if (item.getOp() == BatchOperation.UPDATE) {
+                updates.put(item.getId(), dtoMapper.changesOf(new UpdateOwnerDto(item.getName(), item.getAccountNumber(), item.getLevel())));
+                plan.update(i, item.getId());
+            } else {
+                deletes.add(item.getId());
+                plan.delete(i, item.getId());
+            }
+        }
+
+        BulkWriteResult result = write(plan, () -> serviceRepository.bulkWriteOwners(serviceId, resourceId, creates, updates, deletes));
+        rejectVanishedTargets(plan, result, "Owner", "Resource not found with id: " + resourceId,
+                () -> serviceRepository.findServiceIds(serviceId)
+                        .flatMap(service -> resourceOf(service, resourceId))
+                        .map(current -> idsOf(current.getOwners(), Owner::getId)));
+        if (plan.creates().stream().anyMatch(plan::succeeded)) {
+            serviceCacheEvictor.resourceChanged(serviceId, resourceId, null);
+        }
+        plan.updates().stream().filter(plan::succeeded)
+                .forEach(index -> serviceCacheEvictor.ownerChanged(serviceId, resourceId, items.get(index).getId(), null));
+        plan.deletes().stream().filter(plan::succeeded)
+                .forEach(index -> serviceCacheEvictor.ownerChanged(serviceId, resourceId, items.get(index).getId(), null));
+        plan.creates().stream().filter(plan::succeeded)
+                .forEach(index -> serviceEvents.created(serviceId, resourceId, plan.id(index), null));
+        plan.updates().stream().filter(plan::succeeded)
+                .forEach(index -> serviceEvents.updated(serviceId, resourceId, plan.id(index), null));
+        plan.deletes().stream().filter(plan::succeeded)
+                .forEach(index -> serviceEvents.deleted(serviceId, resourceId, plan.id(index), null));
+        return plan.results();
+    }
+
+    private String validate(BatchOperation op, String id, Object dto) {
+        if (op == null) {
+            return "Operation is required (CREATE, UPDATE or DELETE)";
+        }
+        if (op != BatchOperation.CREATE && (id == null || id.isBlank())) {
+            return "Id is required for " + op;
+        }
+        if (dto == null) {
+            return null;
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private BulkWriteResult write(BatchPlan plan, Supplier<BulkWriteResult> bulkWrite) {
+        if (plan.isEmpty()) {
+            return null;
+        }
+        try {
+            BulkWriteResult result = bulkWrite.get();
+            logger.info("Batch applied: {} inserted, {} matched, {} modified, {} deleted",
+                    result.getInsertedCount(), result.getMatchedCount(), result.getModifiedCount(), result.getDeletedCount());
+            return result;
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                HttpStatus status = error.getCode() == DUPLICATE_KEY ? HttpStatus.CONFLICT : HttpStatus.INTERNAL_SERVER_ERROR;
+                plan.failOperation(error.getIndex(), status, error.getMessage());
+            }
+            logger.warn("Batch partially failed: {} of the bulk operations were rejected", e.getErrors().size());
+            return e.getResult();
+        }
+    }
+
+    // The version check ran before the bulk write; an update that matched nothing lost a race with another writer.
+    private void rejectConcurrentUpdates(BatchPlan plan, List<Service> updates) {
+        Map<String, Long> versions = versionsOf(updates.stream().map(Service::getId).toList());
+        List<Integer> updateItems = plan.updates();
+        for (int i = 0; i < updates.size(); i++) {
+            Service update = updates.get(i);
+            Long current = versions.get(update.getId());
+            if (!Objects.equals(current, update.getVersion() + 1)) {
+                plan.reject(updateItems.get(i), HttpStatus.CONFLICT, update.getId(), current == null
+                        ? "Service not found with id: " + update.getId()
+                        : versionConflict(update.getId(), update.getVersion(), current));
+            }
+        }
+    }
+
+    // The ids were checked before the bulk write; updates and deletes that matched nothing lost their target to a
+    // concurrent delete. Every nested update and delete is one matching operation (deletes count as matched in
+    // embedded storage and as deleted in normalized storage), plus one for grouped creates. Updates are re-checked
+    // by id. A delete leaves its target gone either way, so deletes are only reported missing when the shortfall
+    // left after the updates covers all of them, the one case the counts attribute unambiguously.
+    private void rejectVanishedTargets(BatchPlan plan, BulkWriteResult result, String kind, String parentMissing,
+                                       Supplier<Optional<Set<String>>> currentIds) {
+        if (result == null) {
+            return;
+        }
+        List<Integer> updates = plan.updates().stream().filter(plan::succeeded).toList();
+        List<Integer> deletes = plan.deletes().stream().filter(plan::succeeded).toList();
+        boolean groupedCreate = serviceRepository.groupsNestedCreates() && plan.creates().stream().anyMatch(plan::succeeded);
+        long shortfall = (groupedCreate ? 1 : 0) + updates.size() + deletes.size() - result.getMatchedCount() - result.getDeletedCount();
+        if (shortfall <= 0) {
+            return;
+        }
+        Optional<Set<String>> current = currentIds.get();
+        if (current.isEmpty()) {
+            for (List<Integer> items : List.of(plan.creates(), plan.updates(), plan.deletes())) {
+                items.stream().filter(plan::succeeded).forEach(index -> plan.reject(index, HttpStatus.NOT_FOUND, plan.id(index), parentMissing));
+            }
+            return;
+        }
+        for (int index : updates) {
+            if (!current.get().contains(plan.id(index))) {
+                plan.reject(index, HttpStatus.NOT_FOUND, plan.id(index), kind + " not found with id: " + plan.id(index));
+                shortfall--;
+            }
+        }
+        if (!deletes.isEmpty() && shortfall >= deletes.size()) {
+            deletes.forEach(index -> plan.reject(index, HttpStatus.NOT_FOUND, plan.id(index), kind + " not found with id: " + plan.id(index)));
+        } else if (shortfall > 0) {
+            logger.warn("{} of the {} batch operations matched nothing; their targets were removed concurrently", shortfall, kind.toLowerCase());
+        }
+    }
+
+    private Map<String, Long> versionsOf(Collection<String> serviceIds) {
+        Map<String, Long> versions = new HashMap<>();
+        if (!serviceIds.isEmpty()) {
+            serviceRepository.findServiceVersions(serviceIds)
+                    .forEach(service -> versions.put(service.getId(), service.getVersion()));
+        }
+        return versions;
+    }
+
+    private static String versionConflict(String serviceId, Long clientVersion, Long currentVersion) {
+        return "Conflict: Service " + serviceId + " is at version " + currentVersion + ", not " + clientVersion;
+    }
+
+    private static Optional<Resource> resourceOf(Service service, String resourceId) {
+        return service.getResources() == null ? Optional.empty() : service.getResources().stream()
+                .filter(candidate -> resourceId.equals(candidate.getId()))
+                .findFirst();
+    }
+
+    private static <T> Set<String> idsOf(List<T> elements, Function<T, String> id) {
+        return elements == null ? Set.of() : elements.stream().map(id).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,98 @@
+package com.swisscom.crud.service;
+
+import com.swisscom.crud.dto.BatchItemResultDto;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Tracks the per-item outcome of a batch and maps bulk write op indexes back to the items that produced them.
+final class BatchPlan {
+    private final BatchItemResultDto[] results;
+    private final boolean groupedCreates;
+    private final List<Integer> creates = new ArrayList<>();
+    private final List<Integer> updates = new ArrayList<>();
+    private final List<Integer> deletes = new ArrayList<>();
+    private final Set<String> targets = new HashSet<>();
+
+    BatchPlan(int size, boolean groupedCreates) {
+        this.results = new BatchItemResultDto[size];
+        this.groupedCreates = groupedCreates;
+    }
+
+    void reject(int index, HttpStatus status, String id, String error) {
+        results[index] = new BatchItemResultDto(index, status.value(), id, error);
+    }
+
+    boolean claim(int index, String id) {
+        if (targets.add(id)) {
+            return true;
+        }
+        reject(index, HttpStatus.BAD_REQUEST, id, "Duplicate id in batch: " + id);
+        return false;
+    }
+
+    void create(int index, String id) {
+        creates.add(index);
+        results[index] = new BatchItemResultDto(index, HttpStatus.CREATED.value(), id, null);
+    }
+
+    void update(int index, String id) {
+        updates.add(index);
+        results[index] = new BatchItemResultDto(index, HttpStatus.OK.value(), id, null);
+    }
+
+    void delete(int index, String id) {
+        deletes.add(index);
+        results[index] = new BatchItemResultDto(index, HttpStatus.NO_CONTENT.value(), id, null);
+    }
+
+    boolean isEmpty() {
+        return creates.isEmpty() && updates.isEmpty() && deletes.isEmpty();
+    }
+
+    void failOperation(int operationIndex, HttpStatus status, String error) {
+        for (int index : itemsOf(operationIndex)) {
+            reject(index, status, results[index].getId(), error);
+        }
+    }
+
+    boolean succeeded(int index) {
+        return results[index].getStatus() < HttpStatus.MULTIPLE_CHOICES.value();
+    }
+
+    String id(int index) {
+        return results[index].getId();
+    }
+
+    List<Integer> creates() {
+        return creates;
+    }
+
+    List<Integer> updates() {
+        return updates;
+    }
+
+    List<Integer> deletes() {
+        return deletes;
+    }
+
+    List<BatchItemResultDto> results() {
+        return Arrays.asList(results);
+    }
+
+    private List<Integer> itemsOf(int operationIndex) {
+        int createOperations = groupedCreates ? Math.min(creates.size(), 1) : creates.size();
+        if (operationIndex < createOperations) {
+            return groupedCreates ? creates : List.of(creates.get(operationIndex));
+        }
+        int updateIndex = operationIndex - createOperations;
+        if (updateIndex < updates.size()) {
+            return List.of(updates.get(updateIndex));
+        }
+        return List.of(deletes.get(updateIndex - updates.size()));
+    }
+}
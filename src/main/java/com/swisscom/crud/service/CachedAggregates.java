@@ -0,0 +1,38 @@
+package com.swisscom.crud.service;
+
+import com.swisscom.crud.config.CacheNames;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+// Serves child lookups from an already cached Service aggregate without touching MongoDB.
+@Component
+public class CachedAggregates {
+    private final CacheManager cacheManager;
+
+    public CachedAggregates(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public Optional<Resource> resource(String serviceId, String resourceId) {
+        return aggregate(serviceId).flatMap(service -> AggregateIndex.resource(service, resourceId));
+    }
+
+    public Optional<Owner> owner(String serviceId, String resourceId, String ownerId) {
+        return aggregate(serviceId).flatMap(service -> AggregateIndex.owner(service, resourceId, ownerId));
+    }
+
+    // getIfPresent on the native cache: Cache.get on a loading cache would fetch the whole aggregate.
+    private Optional<Service> aggregate(String serviceId) {
+        if (cacheManager.getCache(CacheNames.SERVICE_AGGREGATES) instanceof CaffeineCache cache
+                && cache.getNativeCache().getIfPresent(serviceId) instanceof Service service) {
+            return Optional.of(service);
+        }
+        return Optional.empty();
+    }
+}
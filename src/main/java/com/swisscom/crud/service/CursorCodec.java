@@ -0,0 +1,100 @@
+package com.swisscom.crud.service;
+
+import com.swisscom.crud.dto.PageDto;
+import com.swisscom.crud.exception.InvalidRequestException;
+import com.swisscom.crud.model.OwnerLocation;
+import com.swisscom.crud.repository.OwnerPosition;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+public final class CursorCodec {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CursorCodec() {
+    }
+
+    public static String encode(String position) {
+        return ENCODER.encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static String decodeId(String cursor) {
+        String id = decode(cursor);
+        if (id != null && !ObjectId.isValid(id)) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+        return id;
+    }
+
+    public static String encodeOffset(int offset) {
+        return encode(Integer.toString(offset));
+    }
+
+    public static int decodeOffset(String cursor) {
+        String offset = decode(cursor);
+        if (offset == null) {
+            return 0;
+        }
+        try {
+            int value = Integer.parseInt(offset);
+            if (value < 0) {
+                throw new InvalidRequestException("Invalid cursor: " + cursor);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static String encodeOwnerPosition(OwnerLocation location) {
+        return encode(location.getServiceId() + ":" + location.getResourceIndex() + ":" + location.getOwnerIndex());
+    }
+
+    public static OwnerPosition decodeOwnerPosition(String cursor) {
+        String position = decode(cursor);
+        if (position == null) {
+            return null;
+        }
+        String[] parts = position.split(":");
+        try {
+            if (parts.length == 3 && !parts[0].isEmpty()) {
+                int resourceIndex = Integer.parseInt(parts[1]);
+                int ownerIndex = Integer.parseInt(parts[2]);
+                if (resourceIndex >= 0 && ownerIndex >= 0) {
+                    return new OwnerPosition(parts[0], resourceIndex, ownerIndex);
+                }
+            }
+        } catch (NumberFormatException e) {
+            // falls through to the invalid cursor error
+        }
+        throw new InvalidRequestException("Invalid cursor: " + cursor);
+    }
+
+    public static <T> PageDto<T> offsetPage(List<T> items, int offset, int pageSize) {
+        if (items.size() > pageSize) {
+            return new PageDto<>(items.subList(0, pageSize), encodeOffset(offset + pageSize));
+        }
+        return new PageDto<>(items, null);
+    }
+
+    public static int pageSize(int limit, int maxPageSize) {
+        if (limit < 1) {
+            throw new InvalidRequestException("Page size must be at least 1");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+}
@@ -1,65 +1,65 @@
 package com.swisscom.crud.service;
 
+import com.swisscom.crud.config.CacheNames;
 import com.swisscom.crud.dto.CreateOwnerDto;
+import com.swisscom.crud.dto.PageDto;
 import com.swisscom.crud.dto.UpdateOwnerDto;
+import com.swisscom.crud.exception.InvalidRequestException;
 import com.swisscom.crud.exception.RecordNotFoundException;
+import com.swisscom.crud.mapper.DtoMapper;
 import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.OwnerLocation;
 import com.swisscom.crud.model.Resource;
-import com.swisscom.crud.model.Service;
 import com.swisscom.crud.repository.ServiceRepository;
-import org.modelmapper.ModelMapper;
+import com.swisscom.crud.repository.Versioned;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
 
 import java.util.List;
+import java.util.Optional;
 
 @org.springframework.stereotype.Service
+@Timed(value = "crud.manager", histogram = true)
 public class OwnerManager {
     private static final Logger logger = LoggerFactory.getLogger(OwnerManager.class);
     private final ServiceRepository serviceRepository;
-    private final ModelMapper modelMapper;
-    private final ServiceManager serviceManager;
+    private final DtoMapper dtoMapper;
     private final ResourceManager resourceManager;
+    private final ServiceCacheEvictor serviceCacheEvictor;
+    private final WriteRetry writeRetry;
+    private final ServiceEvents serviceEvents;
 
-    public OwnerManager(ServiceRepository serviceRepository, ServiceManager serviceManager, ResourceManager resourceManager, ModelMapper modelMapper) {
+    public OwnerManager(ServiceRepository serviceRepository, ResourceManager resourceManager, DtoMapper dtoMapper, ServiceCacheEvictor serviceCacheEvictor, WriteRetry writeRetry, ServiceEvents serviceEvents) {
         this.serviceRepository = serviceRepository;
-        this.serviceManager = serviceManager;
         this.resourceManager = resourceManager;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
+        this.serviceCacheEvictor = serviceCacheEvictor;
+        this.writeRetry = writeRetry;
+        this.serviceEvents = serviceEvents;
     }
 
     public Owner createOwner(CreateOwnerDto createOwnerDto, String serviceId, String resourceId) {
-        Service service = serviceManager.getServiceById(serviceId);
-        Resource foundResource = null;
-
-        for (Resource resource : service.getResources()) {
-            if (resource.getId().equals(resourceId)) {
-                foundResource = resource;
-                break;
-            }
-        }
+        Owner owner = dtoMapper.toOwner(createOwnerDto);
 
-        if (foundResource == null) {
-            throw new RecordNotFoundException("Resource not found with id: " + resourceId);
+        Optional<Long> version = writeRetry.execute("createOwner", () -> serviceRepository.pushOwner(serviceId, resourceId, owner));
+        // the push is guarded on the new id, so no match after a retry can also mean the first attempt landed
+        if (version.isEmpty() && !serviceRepository.existsOwner(serviceId, resourceId, owner.getId())) {
+            throw resourceNotFound(serviceId, resourceId);
         }
 
-        Owner owner = modelMapper.map(createOwnerDto, Owner.class);
-        foundResource.getOwners().add(owner);
-
-        serviceRepository.save(service);
+        serviceCacheEvictor.ownerChanged(serviceId, resourceId, owner.getId(), version.orElse(null));
+        serviceEvents.created(serviceId, resourceId, owner.getId(), version.orElse(null));
         logger.info("Creating owner: {}", owner.getName());
         return owner;
     }
 
+    @Cacheable(value = CacheNames.OWNERS, key = "T(com.swisscom.crud.config.CacheNames).ownerKey(#serviceId, #resourceId, #ownerId)")
     public Owner getOwnerById(String ownerId, String serviceId, String resourceId) {
-        logger.info("Calling method");
-        Resource resource = resourceManager.getResourceById(resourceId, serviceId);
-        for (Owner owner : resource.getOwners()) {
-            if (owner.getId().equals(ownerId)) {
-                return owner;
-            }
-        }
-        throw new RecordNotFoundException("Owner not found with id: " + ownerId);
+        logger.info("Attempting to retrieve owner with ID: {} from resource ID: {}", ownerId, resourceId);
+        return serviceRepository.findOwner(serviceId, resourceId, ownerId)
+                .orElseThrow(() -> ownerNotFound(serviceId, resourceId, ownerId));
     }
 
     public List<Owner> getOwnersPerResources(String serviceId, String resourceId) {
@@ -67,58 +67,76 @@ public class OwnerManager {
         return resource.getOwners();
     }
 
+    public PageDto<Owner> getOwnersPage(String serviceId, String resourceId, String cursor, int pageSize) {
+        int offset = CursorCodec.decodeOffset(cursor);
+        Resource resource = serviceRepository.findResourceWithOwnersSlice(serviceId, resourceId, offset, pageSize + 1)
+                .orElseThrow(() -> resourceNotFound(serviceId, resourceId));
+        return CursorCodec.offsetPage(resource.getOwners(), offset, pageSize);
+    }
 
-    public Owner updateOwner(String ownerId, String serviceId, String resourceId, UpdateOwnerDto updateOwnerDto) {
-        Service service = serviceManager.getServiceById(serviceId);
-        Resource foundResource = null;
-
-        for (Resource resource : service.getResources()) {
-            if (resource.getId().equals(resourceId)) {
-                foundResource = resource;
-                break;
-            }
+    public PageDto<OwnerLocation> findOwnersByAccountNumber(String accountNumber, String cursor, int pageSize) {
+        if (accountNumber == null || accountNumber.isBlank()) {
+            throw new InvalidRequestException("Account number is required");
         }
-
-        if (foundResource == null) {
-            throw new RecordNotFoundException("Resource not found with id: " + resourceId);
+        List<OwnerLocation> locations = serviceRepository.findOwnersByAccountNumber(
+                accountNumber, CursorCodec.decodeOwnerPosition(cursor), pageSize + 1);
+        if (locations.size() > pageSize) {
+            return new PageDto<>(locations.subList(0, pageSize), CursorCodec.encodeOwnerPosition(locations.get(pageSize - 1)));
         }
+        return new PageDto<>(locations, null);
+    }
 
-        for (Owner owner : foundResource.getOwners()) {
-            if (owner.getId().equals(ownerId)) {
-                modelMapper.map(updateOwnerDto, owner);
-                serviceRepository.save(service);
-                return owner;
-            }
-        }
+    public Owner updateOwner(String ownerId, String serviceId, String resourceId, UpdateOwnerDto updateOwnerDto) {
+        return updated(serviceId, resourceId, ownerId, writeRetry.execute("updateOwner", () -> serviceRepository.updateOwnerFields(serviceId, resourceId, ownerId, dtoMapper.changesOf(updateOwnerDto)))
+                .orElseThrow(() -> ownerNotFound(serviceId, resourceId, ownerId)));
+    }
 
-        throw new RecordNotFoundException("Owner not found with id: " + ownerId);
+    // Updates only if nobody wrote to the service since the client's tag was checked at this version.
+    public Owner updateOwner(String ownerId, String serviceId, String resourceId, UpdateOwnerDto updateOwnerDto, Long version) {
+        return updated(serviceId, resourceId, ownerId, writeRetry.execute("updateOwner", () -> serviceRepository.updateOwnerFields(serviceId, resourceId, ownerId, version, dtoMapper.changesOf(updateOwnerDto)))
+                .orElseThrow(() -> guardFailed(serviceId, resourceId, ownerId, version)));
     }
 
     public void deleteOwner(String ownerId, String serviceId, String resourceId) {
-        Service service = serviceManager.getServiceById(serviceId);
-        Resource foundResource = null;
-
-        for (Resource resource : service.getResources()) {
-            if (resource.getId().equals(resourceId)) {
-                foundResource = resource;
-                break;
-            }
-        }
+        deleted(serviceId, resourceId, ownerId, writeRetry.execute("deleteOwner", () -> serviceRepository.pullOwner(serviceId, resourceId, ownerId))
+                .orElseThrow(() -> resourceNotFound(serviceId, resourceId)));
+    }
 
-        if (foundResource == null) {
-            throw new RecordNotFoundException("Resource not found with id: " + resourceId);
-        }
+    public void deleteOwner(String ownerId, String serviceId, String resourceId, Long version) {
+        deleted(serviceId, resourceId, ownerId, writeRetry.execute("deleteOwner", () -> serviceRepository.pullOwner(serviceId, resourceId, ownerId, version))
+                .orElseThrow(() -> guardFailed(serviceId, resourceId, ownerId, version)));
+    }
 
-        for (Owner owner : foundResource.getOwners()) {
-            if (owner.getId().equals(ownerId)) {
-                foundResource.getOwners().remove(owner);
-                serviceRepository.save(service);
-                return;
-            }
-        }
+    private Owner updated(String serviceId, String resourceId, String ownerId, Versioned<Owner> updated) {
+        serviceCacheEvictor.ownerChanged(serviceId, resourceId, ownerId, updated.version());
+        serviceEvents.updated(serviceId, resourceId, ownerId, updated.version());
+        return updated.value();
+    }
+
+    private void deleted(String serviceId, String resourceId, String ownerId, long version) {
+        serviceCacheEvictor.ownerChanged(serviceId, resourceId, ownerId, version);
+        serviceEvents.deleted(serviceId, resourceId, ownerId, version);
+    }
 
-        throw new RecordNotFoundException("Resource not found with id: " + resourceId);
+    // A guarded write that matched nothing either lost its target or lost the race against another write.
+    private RuntimeException guardFailed(String serviceId, String resourceId, String ownerId, Long version) {
+        if (!serviceRepository.existsOwner(serviceId, resourceId, ownerId)) {
+            return ownerNotFound(serviceId, resourceId, ownerId);
+        }
+        return ServiceManager.versionMoved(serviceId, version);
     }
 
+    private RecordNotFoundException resourceNotFound(String serviceId, String resourceId) {
+        if (!serviceRepository.existsById(serviceId)) {
+            return new RecordNotFoundException("Service not found with id: " + serviceId);
+        }
+        return new RecordNotFoundException("Resource not found with id: " + resourceId);
+    }
 
-}
\ No newline at end of file
+    private RecordNotFoundException ownerNotFound(String serviceId, String resourceId, String ownerId) {
+        if (!serviceRepository.existsResource(serviceId, resourceId)) {
+            return resourceNotFound(serviceId, resourceId);
+        }
+        return new RecordNotFoundException("Owner not found with id: " + ownerId);
+    }
+}
@@ -0,0 +1,107 @@
+package com.swisscom.crud.service;
+
+import com.swisscom.crud.dto.CreateOwnerDto;
+import com.swisscom.crud.dto.PageDto;
+import com.swisscom.crud.dto.UpdateOwnerDto;
+import com.swisscom.crud.exception.InvalidRequestException;
+import com.swisscom.crud.exception.RecordNotFoundException;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.OwnerLocation;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.repository.ReactiveServiceRepository;
+import com.swisscom.crud.repository.Versioned;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@org.springframework.stereotype.Service
+public class ReactiveOwnerManager {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveOwnerManager.class);
+    private final ReactiveServiceRepository serviceRepository;
+    private final DtoMapper dtoMapper;
+    private final WriteRetry writeRetry;
+    private final ReactiveResourceManager resourceManager;
+    private final ServiceEvents serviceEvents;
+
+    public ReactiveOwnerManager(ReactiveServiceRepository serviceRepository, ReactiveResourceManager resourceManager, DtoMapper dtoMapper, WriteRetry writeRetry, ServiceEvents serviceEvents) {
+        this.serviceRepository = serviceRepository;
+        this.resourceManager = resourceManager;
+        this.dtoMapper = dtoMapper;
+        this.writeRetry = writeRetry;
+        this.serviceEvents = serviceEvents;
+    }
+
+    public Mono<Owner> createOwner(CreateOwnerDto createOwnerDto, String serviceId, String resourceId) {
+        return Mono.fromSupplier(() -> dtoMapper.toOwner(createOwnerDto))
+                .flatMap(owner -> serviceRepository.pushOwner(serviceId, resourceId, owner)
+                        .retryWhen(writeRetry.reactive("createOwner"))
+                        .doOnNext(version -> serviceEvents.created(serviceId, resourceId, owner.getId(), version))
+                        .hasElement()
+                        .flatMap(matched -> matched
+                                ? Mono.just(owner)
+                                : serviceRepository.existsOwner(serviceId, resourceId, owner.getId())
+                                        .flatMap(landed -> landed
+                                                ? Mono.fromSupplier(() -> {
+                                                    serviceEvents.created(serviceId, resourceId, owner.getId(), null);
+                                                    return owner;
+                                                })
+                                                : resourceManager.<Owner>resourceNotFound(serviceId, resourceId))))
+                .doOnNext(owner -> logger.info("Creating owner: {}", owner.getName()));
+    }
+
+    public Mono<Owner> getOwnerById(String ownerId, String serviceId, String resourceId) {
+        return serviceRepository.findOwner(serviceId, resourceId, ownerId)
+                .switchIfEmpty(Mono.defer(() -> ownerNotFound(serviceId, resourceId, ownerId)));
+    }
+
+    public Flux<Owner> getOwnersPerResources(String serviceId, String resourceId) {
+        return resourceManager.getResourceById(resourceId, serviceId)
+                .flatMapIterable(Resource::getOwners);
+    }
+
+    public Mono<PageDto<Owner>> getOwnersPage(String serviceId, String resourceId, String cursor, int pageSize) {
+        return Mono.fromCallable(() -> CursorCodec.decodeOffset(cursor))
+                .flatMap(offset -> serviceRepository.findResourceWithOwnersSlice(serviceId, resourceId, offset, pageSize + 1)
+                        .switchIfEmpty(Mono.defer(() -> resourceManager.<Resource>resourceNotFound(serviceId, resourceId)))
+                        .map(resource -> CursorCodec.offsetPage(resource.getOwners(), offset, pageSize)));
+    }
+
+    public Mono<PageDto<OwnerLocation>> findOwnersByAccountNumber(String accountNumber, String cursor, int pageSize) {
+        if (accountNumber == null || accountNumber.isBlank()) {
+            return Mono.error(new InvalidRequestException("Account number is required"));
+        }
+        return Mono.defer(() -> serviceRepository.findOwnersByAccountNumber(
+                        accountNumber, CursorCodec.decodeOwnerPosition(cursor), pageSize + 1).collectList())
+                .map(locations -> locations.size() > pageSize
+                        ? new PageDto<>(locations.subList(0, pageSize), CursorCodec.encodeOwnerPosition(locations.get(pageSize - 1)))
+                        : new PageDto<>(locations, null));
+    }
+
+    public Mono<Owner> updateOwner(String ownerId, String serviceId, String resourceId, UpdateOwnerDto updateOwnerDto) {
+        return serviceRepository.updateOwnerFields(serviceId, resourceId, ownerId, dtoMapper.changesOf(updateOwnerDto))
+                .retryWhen(writeRetry.reactive("updateOwner"))
+                .doOnNext(updated -> serviceEvents.updated(serviceId, resourceId, ownerId, updated.version()))
+                .map(Versioned::value)
+                .switchIfEmpty(Mono.defer(() -> ownerNotFound(serviceId, resourceId, ownerId)));
+    }
+
+    public Mono<Void> deleteOwner(String ownerId, String serviceId, String resourceId) {
+        return serviceRepository.pullOwner(serviceId, resourceId, ownerId)
+                .retryWhen(writeRetry.reactive("deleteOwner"))
+                .doOnNext(version -> serviceEvents.deleted(serviceId, resourceId, ownerId, version))
+                .hasElement()
+                .flatMap(matched -> matched
+                        ? Mono.<Void>empty()
+                        : resourceManager.<Void>resourceNotFound(serviceId, resourceId))
+                .then();
+    }
+
+    private <T> Mono<T> ownerNotFound(String serviceId, String resourceId, String ownerId) {
+        return serviceRepository.existsResource(serviceId, resourceId)
+                .flatMap(exists -> exists
+                        ? Mono.<T>error(new RecordNotFoundException("Owner not found with id: " + ownerId))
+                        : resourceManager.<T>resourceNotFound(serviceId, resourceId));
+    }
+}
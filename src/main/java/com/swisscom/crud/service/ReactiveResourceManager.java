@@ -0,0 +1,111 @@
+package com.swisscom.crud.service;
+
+import com.swisscom.crud.dto.CreateResourceDto;
+import com.swisscom.crud.dto.PageDto;
+import com.swisscom.crud.dto.UpdateResourceDto;
+import com.swisscom.crud.exception.RecordNotFoundException;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import com.swisscom.crud.repository.ReactiveServiceRepository;
+import com.swisscom.crud.repository.Versioned;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@org.springframework.stereotype.Service
+public class ReactiveResourceManager {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveResourceManager.class);
+    private final ReactiveServiceRepository serviceRepository;
+    private final DtoMapper dtoMapper;
+    private final WriteRetry writeRetry;
+    private final ReactiveServiceManager serviceManager;
+    private final ServiceEvents serviceEvents;
+
+    public ReactiveResourceManager(ReactiveServiceRepository serviceRepository, ReactiveServiceManager serviceManager, DtoMapper dtoMapper, WriteRetry writeRetry, ServiceEvents serviceEvents) {
+        this.serviceRepository = serviceRepository;
+        this.serviceManager = serviceManager;
+        this.dtoMapper = dtoMapper;
+        this.writeRetry = writeRetry;
+        this.serviceEvents = serviceEvents;
+    }
+
+    public Mono<Resource> createResource(CreateResourceDto createResourceDto, String serviceId) {
+        return Mono.fromSupplier(() -> dtoMapper.toResource(createResourceDto))
+                .flatMap(resource -> serviceRepository.pushResource(serviceId, resource)
+                        .retryWhen(writeRetry.reactive("createResource"))
+                        .doOnNext(version -> serviceEvents.created(serviceId, resource.getId(), null, version))
+                        .hasElement()
+                        .flatMap(matched -> matched
+                                ? Mono.just(resource)
+                                : serviceRepository.existsResource(serviceId, resource.getId())
+                                        .flatMap(landed -> landed
+                                                ? Mono.fromSupplier(() -> {
+                                                    serviceEvents.created(serviceId, resource.getId(), null, null);
+                                                    return resource;
+                                                })
+                                                : Mono.<Resource>error(new RecordNotFoundException("Service not found with id: " + serviceId)))))
+                .doOnNext(resource -> logger.info("Creating resource: {}", resource.getName()));
+    }
+
+    public Mono<Resource> getResourceById(String resourceId, String serviceId) {
+        return serviceRepository.findServiceWithResource(serviceId, resourceId)
+                .switchIfEmpty(Mono.error(() -> new RecordNotFoundException("Service not found with id: " + serviceId)))
+                .flatMap(service -> Mono.justOrEmpty(findResource(service, resourceId)))
+                .switchIfEmpty(Mono.error(() -> new RecordNotFoundException("Resource not found with id: " + resourceId)));
+    }
+
+    public Flux<Resource> getResourcePerService(String serviceId) {
+        return serviceManager.getServiceById(serviceId)
+                .flatMapIterable(service -> service.getResources() == null ? List.of() : service.getResources());
+    }
+
+    public Mono<PageDto<Resource>> getResourcesPage(String serviceId, String cursor, int pageSize) {
+        return Mono.fromCallable(() -> CursorCodec.decodeOffset(cursor))
+                .flatMap(offset -> serviceRepository.findServiceWithResourcesSlice(serviceId, offset, pageSize + 1)
+                        .switchIfEmpty(Mono.error(() -> new RecordNotFoundException("Service not found with id: " + serviceId)))
+                        .map(service -> CursorCodec.offsetPage(
+                                service.getResources() == null ? List.<Resource>of() : service.getResources(), offset, pageSize)));
+    }
+
+    public Mono<Resource> updateResource(String resourceId, String serviceId, UpdateResourceDto updateResourceDto) {
+        return serviceRepository.updateResourceFields(serviceId, resourceId, dtoMapper.changesOf(updateResourceDto))
+                .retryWhen(writeRetry.reactive("updateResource"))
+                .doOnNext(updated -> serviceEvents.updated(serviceId, resourceId, null, updated.version()))
+                .map(Versioned::value)
+                .switchIfEmpty(Mono.defer(() -> resourceNotFound(serviceId, resourceId)));
+    }
+
+    public Mono<Void> deleteResource(String resourceId, String serviceId) {
+        return serviceRepository.pullResource(serviceId, resourceId)
+                .retryWhen(writeRetry.reactive("deleteResource"))
+                .doOnNext(version -> serviceEvents.deleted(serviceId, resourceId, null, version))
+                .hasElement()
+                .flatMap(matched -> matched
+                        ? Mono.<Void>empty()
+                        : this.<Void>resourceNotFound(serviceId, resourceId))
+                .then();
+    }
+
+    <T> Mono<T> resourceNotFound(String serviceId, String resourceId) {
+        return serviceRepository.existsById(serviceId)
+                .flatMap(exists -> Mono.<T>error(exists
+                        ? new RecordNotFoundException("Resource not found with id: " + resourceId)
+                        : new RecordNotFoundException("Service not found with id: " + serviceId)));
+    }
+
+    static Resource findResource(Service service, String resourceId) {
+        if (service.getResources() == null) {
+            return null;
+        }
+        for (Resource resource : service.getResources()) {
+            if (resource.getId().equals(resourceId)) {
+                return resource;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,79 @@
+package com.swisscom.crud.service;
+
+import com.swisscom.crud.dto.CreateServiceDto;
+import com.swisscom.crud.dto.PageDto;
+import com.swisscom.crud.dto.UpdateServiceDto;
+import com.swisscom.crud.exception.RecordNotFoundException;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.model.Service;
+import com.swisscom.crud.repository.ReactiveServiceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@org.springframework.stereotype.Service
+public class ReactiveServiceManager {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveServiceManager.class);
+    private final ReactiveServiceRepository serviceRepository;
+    private final DtoMapper dtoMapper;
+    private final ServiceEvents serviceEvents;
+
+    public ReactiveServiceManager(ReactiveServiceRepository serviceRepository, DtoMapper dtoMapper, ServiceEvents serviceEvents) {
+        this.serviceRepository = serviceRepository;
+        this.dtoMapper = dtoMapper;
+        this.serviceEvents = serviceEvents;
+    }
+
+    public Mono<Service> createService(CreateServiceDto createServiceDto) {
+        return Mono.fromSupplier(() -> dtoMapper.toService(createServiceDto))
+                .doOnNext(service -> logger.info("Creating service: {}", service.getName()))
+                .flatMap(serviceRepository::save)
+                .doOnNext(service -> serviceEvents.created(service.getId(), null, null, service.getVersion()));
+    }
+
+    public Mono<Service> getServiceByIdWithoutSummary(String id) {
+        return serviceRepository.findByServiceId(id)
+                .switchIfEmpty(Mono.error(() -> new RecordNotFoundException("Service not found with id: " + id)));
+    }
+
+    public Mono<Service> getServiceById(String id) {
+        return serviceRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new RecordNotFoundException("Service not found with id: " + id)));
+    }
+
+    public Flux<Service> getAllServices() {
+        logger.info("Fetching all services from DB.");
+        return serviceRepository.findAllServices();
+    }
+
+    public Mono<PageDto<Service>> getServicesPage(String cursor, int pageSize) {
+        return Mono.defer(() -> serviceRepository.findServicesAfter(CursorCodec.decodeId(cursor), pageSize + 1).collectList())
+                .map(services -> {
+                    if (services.size() > pageSize) {
+                        List<Service> page = services.subList(0, pageSize);
+                        return new PageDto<>(page, CursorCodec.encode(page.get(pageSize - 1).getId()));
+                    }
+                    return new PageDto<>(services, null);
+                });
+    }
+
+    public Mono<Service> updateService(String id, UpdateServiceDto updateServiceDto) {
+        if (updateServiceDto.getVersion() == null) {
+            return Mono.error(ServiceManager.versionRequired());
+        }
+        return serviceRepository.updateServiceFields(id, updateServiceDto.getVersion(), dtoMapper.changesOf(updateServiceDto))
+                .doOnNext(service -> serviceEvents.updated(id, null, null, service.getVersion()))
+                .switchIfEmpty(Mono.defer(() -> getServiceByIdWithoutSummary(id)
+                        .flatMap(existingService -> Mono.<Service>error(ServiceManager.versionConflict(existingService, updateServiceDto.getVersion())))));
+    }
+
+    public Mono<Void> deleteService(String id) {
+        return getServiceByIdWithoutSummary(id)
+                .doOnNext(service -> logger.info("Deleting service with id: {}.", id))
+                .flatMap(service -> serviceRepository.deleteById(id))
+                .then(Mono.fromRunnable(() -> serviceEvents.deleted(id, null, null, null)));
+    }
+}
@@ -1,52 +1,68 @@
 package com.swisscom.crud.service;
 
+import com.swisscom.crud.config.CacheNames;
 import com.swisscom.crud.dto.CreateResourceDto;
+import com.swisscom.crud.dto.PageDto;
 import com.swisscom.crud.dto.UpdateResourceDto;
 import com.swisscom.crud.exception.RecordNotFoundException;
+import com.swisscom.crud.mapper.DtoMapper;
 import com.swisscom.crud.model.Resource;
 import com.swisscom.crud.model.Service;
 import com.swisscom.crud.repository.ServiceRepository;
-import org.modelmapper.ModelMapper;
+import com.swisscom.crud.repository.Versioned;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @org.springframework.stereotype.Service
+@Timed(value = "crud.manager", histogram = true)
 public class ResourceManager {
     private static final Logger logger = LoggerFactory.getLogger(ResourceManager.class);
     private final ServiceRepository serviceRepository;
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
     private final ServiceManager serviceManager;
+    private final ServiceCacheEvictor serviceCacheEvictor;
+    private final WriteRetry writeRetry;
+    private final ServiceEvents serviceEvents;
 
-    public ResourceManager(ServiceRepository serviceRepository, ServiceManager serviceManager, ModelMapper modelMapper) {
+    public ResourceManager(ServiceRepository serviceRepository, ServiceManager serviceManager, DtoMapper dtoMapper, ServiceCacheEvictor serviceCacheEvictor, WriteRetry writeRetry, ServiceEvents serviceEvents) {
         this.serviceRepository = serviceRepository;
         this.serviceManager = serviceManager;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
+        this.serviceCacheEvictor = serviceCacheEvictor;
+        this.writeRetry = writeRetry;
+        this.serviceEvents = serviceEvents;
     }
 
     public Resource createResource(CreateResourceDto createResourceDto, String serviceId) {
-        Service service = serviceManager.getServiceById(serviceId);
-
-        Resource resource = modelMapper.map(createResourceDto, Resource.class);
-        service.getResources().add(resource);
+        Resource resource = dtoMapper.toResource(createResourceDto);
 
+        Optional<Long> version = writeRetry.execute("createResource", () -> serviceRepository.pushResource(serviceId, resource));
+        // the push is guarded on the new id, so no match after a retry can also mean the first attempt landed
+        if (version.isEmpty() && !serviceRepository.existsResource(serviceId, resource.getId())) {
+            throw new RecordNotFoundException("Service not found with id: " + serviceId);
+        }
 
-        serviceRepository.save(service);
+        serviceCacheEvictor.resourceChanged(serviceId, resource.getId(), version.orElse(null));
+        serviceEvents.created(serviceId, resource.getId(), null, version.orElse(null));
         logger.info("Creating resource: {}", resource.getName());
         return resource;
     }
 
+    @Cacheable(value = CacheNames.RESOURCES, key = "T(com.swisscom.crud.config.CacheNames).resourceKey(#serviceId, #resourceId)")
     public Resource getResourceById(String resourceId, String serviceId) {
-        Service service = serviceManager.getServiceById(serviceId);
         logger.info("Attempting to retrieve resource with ID: {} from service ID: {}", resourceId, serviceId);
-        for (Resource resource : service.getResources()) {
-            if (resource.getId().equals(resourceId)) {
-                return resource;
-            }
+        Service service = serviceRepository.findServiceWithResource(serviceId, resourceId)
+                .orElseThrow(() -> new RecordNotFoundException("Service not found with id: " + serviceId));
+        if (service.getResources() == null || service.getResources().isEmpty()) {
+            throw new RecordNotFoundException("Resource not found with id: " + resourceId);
         }
-        throw new RecordNotFoundException("Resource not found with id: " + resourceId);
+        return service.getResources().get(0);
     }
 
     public List<Resource> getResourcePerService(String serviceId) {
@@ -59,32 +75,58 @@ public class ResourceManager {
         return service.getResources();
     }
 
-    public Resource updateResource(String resourceId, String serviceId, UpdateResourceDto updateResourceDto) {
-        Service service = serviceManager.getServiceById(serviceId);
+    public PageDto<Resource> getResourcesPage(String serviceId, String cursor, int pageSize) {
+        int offset = CursorCodec.decodeOffset(cursor);
+        Service service = serviceRepository.findServiceWithResourcesSlice(serviceId, offset, pageSize + 1)
+                .orElseThrow(() -> new RecordNotFoundException("Service not found with id: " + serviceId));
+        List<Resource> resources = service.getResources() == null ? new ArrayList<>() : service.getResources();
+        return CursorCodec.offsetPage(resources, offset, pageSize);
+    }
 
-        for (Resource resource : service.getResources()) {
-            if (resource.getId().equals(resourceId)) {
-                modelMapper.map(updateResourceDto, resource);
-                serviceRepository.save(service);
-                return resource;
-            }
-        }
+    public Resource updateResource(String resourceId, String serviceId, UpdateResourceDto updateResourceDto) {
+        return updated(serviceId, resourceId, writeRetry.execute("updateResource", () -> serviceRepository.updateResourceFields(serviceId, resourceId, dtoMapper.changesOf(updateResourceDto)))
+                .orElseThrow(() -> resourceNotFound(serviceId, resourceId)));
+    }
 
-        throw new RecordNotFoundException("Resource not found with id: " + resourceId);
+    // Updates only if nobody wrote to the service since the client's tag was checked at this version.
+    public Resource updateResource(String resourceId, String serviceId, UpdateResourceDto updateResourceDto, Long version) {
+        return updated(serviceId, resourceId, writeRetry.execute("updateResource", () -> serviceRepository.updateResourceFields(serviceId, resourceId, version, dtoMapper.changesOf(updateResourceDto)))
+                .orElseThrow(() -> guardFailed(serviceId, resourceId, version)));
     }
 
     public void deleteResource(String resourceId, String serviceId) {
-        Service service = serviceManager.getServiceById(serviceId);
+        deleted(serviceId, resourceId, writeRetry.execute("deleteResource", () -> serviceRepository.pullResource(serviceId, resourceId))
+                .orElseThrow(() -> resourceNotFound(serviceId, resourceId)));
+    }
 
-        for (Resource resource : service.getResources()) {
-            if (resource.getId().equals(resourceId)) {
-                service.getResources().remove(resource);
-                serviceRepository.save(service);
-                return;
-            }
-        }
+    public void deleteResource(String resourceId, String serviceId, Long version) {
+        deleted(serviceId, resourceId, writeRetry.execute("deleteResource", () -> serviceRepository.pullResource(serviceId, resourceId, version))
+                .orElseThrow(() -> guardFailed(serviceId, resourceId, version)));
+    }
+
+    private Resource updated(String serviceId, String resourceId, Versioned<Resource> updated) {
+        serviceCacheEvictor.resourceChanged(serviceId, resourceId, updated.version());
+        serviceEvents.updated(serviceId, resourceId, null, updated.version());
+        return updated.value();
+    }
 
-        throw new RecordNotFoundException("Resource not found with id: " + resourceId);
+    private void deleted(String serviceId, String resourceId, long version) {
+        serviceCacheEvictor.resourceDeleted(serviceId, resourceId, version);
+        serviceEvents.deleted(serviceId, resourceId, null, version);
     }
 
-}
\ No newline at end of file
+    // A guarded write that matched nothing either lost its target or lost the race against another write.
+    private RuntimeException guardFailed(String serviceId, String resourceId, Long version) {
+        if (!serviceRepository.existsResource(serviceId, resourceId)) {
+            return resourceNotFound(serviceId, resourceId);
+        }
+        return ServiceManager.versionMoved(serviceId, version);
+    }
+
+    private RecordNotFoundException resourceNotFound(String serviceId, String resourceId) {
+        if (!serviceRepository.existsById(serviceId)) {
+            return new RecordNotFoundException("Service not found with id: " + serviceId);
+        }
+        return new RecordNotFoundException("Resource not found with id: " + resourceId);
+    }
+}
@@ -0,0 +1,106 @@
+package com.swisscom.crud.service;
+
+import com.swisscom.crud.config.CacheNames;
+import com.swisscom.crud.config.IndexedChildCache;
+import com.swisscom.crud.config.ServiceVersionFloors;
+import com.swisscom.crud.model.Service;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+// Every write raises the service's version floor before evicting, so a read that raced the write
+// cannot put the old document back. The version is the one the write produced; null when unknown.
+@Component
+public class ServiceCacheEvictor {
+    private final CacheManager cacheManager;
+    private final ServiceVersionFloors versionFloors;
+
+    public ServiceCacheEvictor(CacheManager cacheManager, ServiceVersionFloors versionFloors) {
+        this.cacheManager = cacheManager;
+        this.versionFloors = versionFloors;
+    }
+
+    public void serviceChanged(String serviceId, Long version) {
+        if (version != null) {
+            versionFloors.raise(serviceId, version);
+        } else {
+            versionFloors.raiseAbove(serviceId, cachedVersion(serviceId));
+        }
+        evict(CacheNames.SERVICES, serviceId);
+        evict(CacheNames.SERVICE_AGGREGATES, serviceId);
+    }
+
+    public void serviceDeleted(String serviceId) {
+        versionFloors.deleted(serviceId);
+        evict(CacheNames.SERVICES, serviceId);
+        evict(CacheNames.SERVICE_AGGREGATES, serviceId);
+        evictChildren(CacheNames.RESOURCES, serviceId, null);
+        evictChildren(CacheNames.OWNERS, serviceId, null);
+    }
+
+    public void resourceChanged(String serviceId, String resourceId, Long version) {
+        serviceChanged(serviceId, version);
+        evict(CacheNames.RESOURCES, CacheNames.resourceKey(serviceId, resourceId));
+    }
+
+    public void resourceDeleted(String serviceId, String resourceId, Long version) {
+        resourceChanged(serviceId, resourceId, version);
+        evictChildren(CacheNames.OWNERS, serviceId, resourceId);
+    }
+
+    public void ownerChanged(String serviceId, String resourceId, String ownerId, Long version) {
+        resourceChanged(serviceId, resourceId, version);
+        evict(CacheNames.OWNERS, CacheNames.ownerKey(serviceId, resourceId, ownerId));
+    }
+
+    // Writes observed on the change stream, including this instance's own: those already raised the floor
+    // to the same version and are skipped. Other instances' writes also drop the nested entries.
+    public void remoteServiceChanged(String serviceId, Long version) {
+        if (version != null && !versionFloors.advance(serviceId, version)) {
+            return;
+        }
+        if (version == null) {
+            versionFloors.raiseAbove(serviceId, cachedVersion(serviceId));
+        }
+        evict(CacheNames.SERVICES, serviceId);
+        evict(CacheNames.SERVICE_AGGREGATES, serviceId);
+        evictChildren(CacheNames.RESOURCES, serviceId, null);
+        evictChildren(CacheNames.OWNERS, serviceId, null);
+    }
+
+    public void clearAll() {
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private Long cachedVersion(String serviceId) {
+        Long version = null;
+        for (String cacheName : new String[]{CacheNames.SERVICES, CacheNames.SERVICE_AGGREGATES}) {
+            if (cacheManager.getCache(cacheName) instanceof CaffeineCache cache
+                    && cache.getNativeCache().getIfPresent(serviceId) instanceof Service service
+                    && service.getVersion() != null
+                    && (version == null || service.getVersion() > version)) {
+                version = service.getVersion();
+            }
+        }
+        return version;
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void evictChildren(String cacheName, String serviceId, String resourceId) {
+        if (cacheManager.getCache(cacheName) instanceof IndexedChildCache childCache) {
+            childCache.evictChildren(serviceId, resourceId);
+        }
+    }
+}
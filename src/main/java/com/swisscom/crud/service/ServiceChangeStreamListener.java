@@ -0,0 +1,140 @@
+package com.swisscom.crud.service;
+
+import com.mongodb.MongoException;
+import com.swisscom.crud.repository.ServiceChange;
+import com.swisscom.crud.repository.ServiceChangeStreams;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Applies writes made by other instances to this instance's caches. The resume token is flushed to
+// Mongo periodically, so after a restart the stream continues where this listener id stopped.
+@Component
+@ConditionalOnProperty(name = "custom.change-streams.enabled", havingValue = "true")
+public class ServiceChangeStreamListener implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceChangeStreamListener.class);
+    // ChangeStreamFatalError, ChangeStreamHistoryLost and InvalidResumeToken: the token cannot be resumed from.
+    private static final Set<Integer> UNRESUMABLE = Set.of(280, 286, 260);
+
+    private final ServiceChangeStreams changeStreams;
+    private final ServiceCacheEvictor serviceCacheEvictor;
+    private final MeterRegistry meterRegistry;
+    private final String listenerId;
+    private final Duration tokenFlushInterval;
+    private final Timer lag;
+    private final AtomicReference<BsonValue> resumeToken = new AtomicReference<>();
+    private volatile Disposable subscription;
+
+    public ServiceChangeStreamListener(ServiceChangeStreams changeStreams,
+                                       ServiceCacheEvictor serviceCacheEvictor,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${custom.change-streams.listener-id:${HOSTNAME:crud}}") String listenerId,
+                                       @Value("${custom.change-streams.token-flush-interval:1s}") Duration tokenFlushInterval) {
+        this.changeStreams = changeStreams;
+        this.serviceCacheEvictor = serviceCacheEvictor;
+        this.meterRegistry = meterRegistry;
+        this.listenerId = listenerId;
+        this.tokenFlushInterval = tokenFlushInterval;
+        this.lag = Timer.builder("crud.changestream.lag")
+                .description("Time from a write being applied in Mongo to this instance invalidating its caches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = changeStreams.loadToken(listenerId)
+                .doOnNext(resumeToken::set)
+                .doOnNext(token -> logger.info("Resuming service change stream for {}", listenerId))
+                .onErrorResume(e -> {
+                    logger.warn("Could not load the resume token for {}, starting from now", listenerId, e);
+                    return Mono.empty();
+                })
+                .thenMany(Flux.defer(() -> changeStreams.changes(resumeToken.get()))
+                        .doOnNext(this::apply)
+                        .map(ServiceChange::resumeToken)
+                        .sample(tokenFlushInterval)
+                        .concatMap(token -> changeStreams.saveToken(listenerId, token))
+                        // An invalidate event closes the stream; it is reopened from now.
+                        .repeatWhen(completed -> completed.delayElements(Duration.ofSeconds(1)))
+                        .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                                .maxBackoff(Duration.ofSeconds(30))
+                                .doBeforeRetry(signal -> restart(signal.failure()))))
+                .subscribe();
+    }
+
+    void apply(ServiceChange change) {
+        meterRegistry.counter("crud.changestream.events", "operation", change.operation().getValue()).increment();
+        if (change.wallTime() != null) {
+            Duration elapsed = Duration.between(change.wallTime(), Instant.now());
+            lag.record(elapsed.isNegative() ? Duration.ZERO : elapsed);
+        }
+        switch (change.operation()) {
+            case INSERT, UPDATE, REPLACE -> serviceCacheEvictor.remoteServiceChanged(change.serviceId(), change.version());
+            case DELETE -> serviceCacheEvictor.serviceDeleted(change.serviceId());
+            case DROP, RENAME, DROP_DATABASE, INVALIDATE -> {
+                serviceCacheEvictor.clearAll();
+                resumeToken.set(null);
+                return;
+            }
+            default -> {
+            }
+        }
+        resumeToken.set(change.resumeToken());
+    }
+
+    private void restart(Throwable failure) {
+        if (unresumable(failure)) {
+            // Events between the token and now are gone, so nothing cached can be trusted.
+            logger.warn("Service change stream cannot resume for {}, clearing caches", listenerId, failure);
+            resumeToken.set(null);
+            serviceCacheEvictor.clearAll();
+            meterRegistry.counter("crud.changestream.restarts", "reason", "history-lost").increment();
+        } else {
+            logger.warn("Service change stream failed for {}, reconnecting", listenerId, failure);
+            meterRegistry.counter("crud.changestream.restarts", "reason", "error").increment();
+        }
+    }
+
+    private static boolean unresumable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException && UNRESUMABLE.contains(mongoException.getCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void destroy() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+        BsonValue token = resumeToken.get();
+        if (token != null) {
+            try {
+                changeStreams.saveToken(listenerId, token).block(Duration.ofSeconds(5));
+            } catch (RuntimeException e) {
+                logger.warn("Could not save the resume token for {}", listenerId, e);
+            }
+        }
+    }
+}
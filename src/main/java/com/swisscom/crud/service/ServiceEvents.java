@@ -0,0 +1,124 @@
+package com.swisscom.crud.service;
+
+import com.swisscom.crud.dto.ServiceEventDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// In-process bus for the writes of this instance. The last events are kept in a ring buffer so a
+// reconnecting subscriber can replay from its Last-Event-ID. A subscriber that falls more than
+// subscriber-buffer events behind is completed; it reconnects and replays instead of slowing down writers.
+@Component
+public class ServiceEvents {
+    public static final String RESET = "reset";
+
+    private final ServiceEventDto[] ring;
+    private final int subscriberBuffer;
+    private final Counter overflows;
+    // Ids continue across restarts, so an id from before a restart is simply too old to replay.
+    private final long firstId = System.currentTimeMillis() * 1000;
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private long lastId = firstId - 1;
+
+    public ServiceEvents(MeterRegistry meterRegistry,
+                         @Value("${custom.events.buffer-size:1024}") int bufferSize,
+                         @Value("${custom.events.subscriber-buffer:256}") int subscriberBuffer) {
+        this.ring = new ServiceEventDto[Math.max(1, bufferSize)];
+        this.subscriberBuffer = Math.max(1, subscriberBuffer);
+        this.overflows = Counter.builder("crud.events.overflows")
+                .description("Event subscribers completed because they fell behind")
+                .register(meterRegistry);
+        Gauge.builder("crud.events.subscribers", this, ServiceEvents::subscriberCount)
+                .description("Open event subscriptions")
+                .register(meterRegistry);
+    }
+
+    public void created(String serviceId, String resourceId, String ownerId, Long version) {
+        publish("created", serviceId, resourceId, ownerId, version);
+    }
+
+    public void updated(String serviceId, String resourceId, String ownerId, Long version) {
+        publish("updated", serviceId, resourceId, ownerId, version);
+    }
+
+    public void deleted(String serviceId, String resourceId, String ownerId, Long version) {
+        publish("deleted", serviceId, resourceId, ownerId, version);
+    }
+
+    // serviceId null subscribes to every service. Events after lastEventId are replayed first; when they
+    // are no longer buffered a single reset event tells the client to reload instead.
+    public Flux<ServiceEventDto> subscribe(String serviceId, Long lastEventId) {
+        return Flux.defer(() -> {
+            Subscriber subscriber = new Subscriber(serviceId,
+                    Sinks.many().unicast().onBackpressureBuffer(new ArrayBlockingQueue<>(subscriberBuffer)));
+            List<ServiceEventDto> missed;
+            synchronized (this) {
+                missed = lastEventId == null ? List.of() : replay(serviceId, lastEventId);
+                subscribers.add(subscriber);
+            }
+            return Flux.fromIterable(missed)
+                    .concatWith(subscriber.sink().asFlux())
+                    .doFinally(signal -> unsubscribe(subscriber));
+        });
+    }
+
+    private void publish(String type, String serviceId, String resourceId, String ownerId, Long version) {
+        String entity = ownerId != null ? "owner" : resourceId != null ? "resource" : "service";
+        synchronized (this) {
+            ServiceEventDto event = new ServiceEventDto(++lastId, type, entity, serviceId, resourceId, ownerId, version, Instant.now());
+            ring[slot(event.getId())] = event;
+            subscribers.removeIf(subscriber -> !subscriber.offer(event, overflows));
+        }
+    }
+
+    private List<ServiceEventDto> replay(String serviceId, long after) {
+        long oldest = Math.max(firstId, lastId - ring.length + 1);
+        if (after < oldest - 1 || after > lastId) {
+            return List.of(new ServiceEventDto(lastId, RESET, null, serviceId, null, null, null, Instant.now()));
+        }
+        List<ServiceEventDto> missed = new ArrayList<>();
+        for (long id = after + 1; id <= lastId; id++) {
+            ServiceEventDto event = ring[slot(id)];
+            if (serviceId == null || serviceId.equals(event.getServiceId())) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    private int slot(long id) {
+        return (int) Math.floorMod(id, (long) ring.length);
+    }
+
+    private synchronized void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    private synchronized int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private record Subscriber(String serviceId, Sinks.Many<ServiceEventDto> sink) {
+        // false once the subscriber is gone or was completed for falling behind
+        boolean offer(ServiceEventDto event, Counter overflows) {
+            if (serviceId != null && !serviceId.equals(event.getServiceId())) {
+                return true;
+            }
+            Sinks.EmitResult result = sink.tryEmitNext(event);
+            if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                overflows.increment();
+                sink.tryEmitComplete();
+            }
+            return result.isSuccess();
+        }
+    }
+}
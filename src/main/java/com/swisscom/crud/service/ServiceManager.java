@@ -1,48 +1,61 @@
 package com.swisscom.crud.service;
 
+import com.swisscom.crud.config.CacheNames;
 import com.swisscom.crud.dto.CreateServiceDto;
+import com.swisscom.crud.dto.PageDto;
 import com.swisscom.crud.dto.UpdateServiceDto;
+import com.swisscom.crud.exception.InvalidRequestException;
 import com.swisscom.crud.exception.RecordNotFoundException;
+import com.swisscom.crud.mapper.DtoMapper;
 import com.swisscom.crud.model.Service;
 import com.swisscom.crud.repository.ServiceRepository;
-import org.modelmapper.ModelMapper;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 @org.springframework.stereotype.Service
+@Timed(value = "crud.manager", histogram = true)
 public class ServiceManager {
     private static final Logger logger = LoggerFactory.getLogger(ServiceManager.class);
-    private static final String CACHE_NAME = "ServiceCache";
     private final ServiceRepository serviceRepository;
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
+    private final ServiceCacheEvictor serviceCacheEvictor;
+    private final ServiceEvents serviceEvents;
 
-    public ServiceManager(ServiceRepository serviceRepository, ModelMapper modelMapper) {
+    public ServiceManager(ServiceRepository serviceRepository, DtoMapper dtoMapper, ServiceCacheEvictor serviceCacheEvictor, ServiceEvents serviceEvents) {
         this.serviceRepository = serviceRepository;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
+        this.serviceCacheEvictor = serviceCacheEvictor;
+        this.serviceEvents = serviceEvents;
     }
 
-    @CachePut(value = CACHE_NAME, key = "#result.id")
+    @CachePut(value = CacheNames.SERVICES, key = "#result.id")
     public Service createService(CreateServiceDto createServiceDto) {
-        Service service = modelMapper.map(createServiceDto, Service.class);
+        Service service = dtoMapper.toService(createServiceDto);
         logger.info("Creating service: {}", service.getName());
-        return serviceRepository.save(service);
+        Service savedService = serviceRepository.save(service);
+        serviceEvents.created(savedService.getId(), null, null, savedService.getVersion());
+        return savedService;
     }
 
-    @Cacheable(value = CACHE_NAME, key = "#id")
+    @Cacheable(value = CacheNames.SERVICES, key = "#id")
     public Service getServiceByIdWithoutSummary(String id) {
         return serviceRepository.findByServiceId(id)
                 .orElseThrow(() -> new RecordNotFoundException("Service not found with id: " + id));
     }
 
+    @Cacheable(value = CacheNames.SERVICE_AGGREGATES, key = "#id")
     public Service getServiceById(String id) {
-        return serviceRepository.findById(id)
+        return serviceRepository.findAggregate(id)
                 .orElseThrow(() -> new RecordNotFoundException("Service not found with id: " + id));
     }
 
@@ -56,26 +69,78 @@ public class ServiceManager {
         return services;
     }
 
-    @CachePut(value = CACHE_NAME, key = "#id")
-    public Service updateService(String id, UpdateServiceDto updateServiceDto) {
-        Service existingService = getServiceByIdWithoutSummary(id);
-
-        if (!existingService.getVersion().equals(updateServiceDto.getVersion())) {
-            logger.warn("Optimistic locking conflict for Service ID: {}. Client version: {}, DB version: {}",
-                    id, updateServiceDto.getVersion(), existingService.getVersion());
-            throw new OptimisticLockingFailureException(
-                    "Conflict: Service " + existingService.getName() +
-                            " was updated by another user . Please refresh and try again.");
+    public PageDto<Service> getServicesPage(String cursor, int pageSize) {
+        String afterId = CursorCodec.decodeId(cursor);
+        List<Service> services = serviceRepository.findServicesAfter(afterId, pageSize + 1);
+        if (services.size() > pageSize) {
+            List<Service> page = services.subList(0, pageSize);
+            return new PageDto<>(page, CursorCodec.encode(page.get(pageSize - 1).getId()));
         }
+        return new PageDto<>(services, null);
+    }
 
-        modelMapper.map(updateServiceDto, existingService);
-        return serviceRepository.save(existingService);
+    public Stream<Service> streamAllServices() {
+        logger.info("Streaming all services from DB.");
+        return serviceRepository.streamAllServices();
+    }
+
+    @Caching(put = @CachePut(value = CacheNames.SERVICES, key = "#id"),
+            evict = @CacheEvict(value = CacheNames.SERVICE_AGGREGATES, key = "#id"))
+    public Service updateService(String id, UpdateServiceDto updateServiceDto) {
+        if (updateServiceDto.getVersion() == null) {
+            throw versionRequired();
+        }
+        Service updatedService = serviceRepository.updateServiceFields(id, updateServiceDto.getVersion(), dtoMapper.changesOf(updateServiceDto))
+                .orElseThrow(() -> versionConflict(getServiceByIdWithoutSummary(id), updateServiceDto.getVersion()));
+        // raises the floor before @CachePut runs, so the put loses against any newer write that evicted meanwhile
+        serviceCacheEvictor.serviceChanged(id, updatedService.getVersion());
+        serviceEvents.updated(id, null, null, updatedService.getVersion());
+        return updatedService;
     }
 
-    @CacheEvict(value = CACHE_NAME, key = "#id")
     public void deleteService(String id) {
         getServiceByIdWithoutSummary(id);
-        logger.info("Deleting service with id: {}. Cache entry will be evicted.", id);
-        serviceRepository.deleteById(id);
+        logger.info("Deleting service with id: {}. Cache entries will be evicted.", id);
+        serviceRepository.deleteAggregate(id);
+        serviceCacheEvictor.serviceDeleted(id);
+        serviceEvents.deleted(id, null, null, null);
+    }
+
+    // Deletes only if nobody wrote to the service since the client read it at this version.
+    public void deleteService(String id, Long version) {
+        logger.info("Deleting service with id: {} at version {}. Cache entries will be evicted.", id, version);
+        if (!serviceRepository.deleteAggregate(id, version)) {
+            throw versionConflict(getServiceByIdWithoutSummary(id), version);
+        }
+        serviceCacheEvictor.serviceDeleted(id);
+        serviceEvents.deleted(id, null, null, null);
+    }
+
+    // Version-only projection, so conditional requests can be answered without loading the service.
+    public Long getServiceVersion(String id) {
+        return serviceRepository.findServiceVersions(List.of(id)).stream()
+                .findFirst()
+                .map(Service::getVersion)
+                .orElseThrow(() -> new RecordNotFoundException("Service not found with id: " + id));
+    }
+
+    static InvalidRequestException versionRequired() {
+        return new InvalidRequestException("Version is required for updates to enable optimistic locking.");
+    }
+
+    // The conditional write matched nothing although the service exists, so the client version is stale.
+    static OptimisticLockingFailureException versionConflict(Service existingService, Long clientVersion) {
+        logger.warn("Optimistic locking conflict for Service ID: {}. Client version: {}, DB version: {}",
+                existingService.getId(), clientVersion, existingService.getVersion());
+        return new OptimisticLockingFailureException(
+                "Conflict: Service " + existingService.getName() +
+                        " was updated by another user . Please refresh and try again.");
+    }
+
+    // A version-guarded nested write matched nothing although its target still exists.
+    static OptimisticLockingFailureException versionMoved(String serviceId, Long clientVersion) {
+        logger.warn("Optimistic locking conflict for Service ID: {} on a nested write. Client version: {}", serviceId, clientVersion);
+        return new OptimisticLockingFailureException(
+                "Conflict: Service " + serviceId + " was updated by another user. Please refresh and try again.");
     }
 }
\ No newline at end of file
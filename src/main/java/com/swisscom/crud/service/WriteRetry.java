@@ -0,0 +1,115 @@
+package com.swisscom.crud.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Re-applies a single nested write after a transient failure (write conflict, lock or query timeout).
+// The writes passed in are positional updates without a version check, so re-applying one is safe;
+// client-supplied version conflicts are raised outside of it and never retried.
+@Component
+public class WriteRetry {
+    private static final Logger logger = LoggerFactory.getLogger(WriteRetry.class);
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public WriteRetry(MeterRegistry meterRegistry,
+                      @Value("${custom.retry.max-attempts:4}") int maxAttempts,
+                      @Value("${custom.retry.initial-backoff:10ms}") Duration initialBackoff,
+                      @Value("${custom.retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    public <T> T execute(String operation, Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write.get();
+            } catch (TransientDataAccessException e) {
+                conflict(operation, e);
+                // Without custom.execution.mode=virtual the blocking controllers run on the Netty event loop, where
+                // a backoff would stall every connection of that loop and retrying without one would collide again.
+                if (Schedulers.isInNonBlockingThread()) {
+                    notRetried(operation, e);
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    exhausted(operation, e);
+                    throw e;
+                }
+                retry(operation, attempt, e);
+                sleep(backoff(attempt));
+            }
+        }
+    }
+
+    public RetryBackoffSpec reactive(String operation) {
+        return Retry.backoff(maxAttempts - 1, initialBackoff.isZero() ? Duration.ofNanos(1) : initialBackoff)
+                .maxBackoff(maxBackoff)
+                .jitter(1.0)
+                .filter(e -> {
+                    if (e instanceof TransientDataAccessException transientFailure) {
+                        conflict(operation, transientFailure);
+                        return true;
+                    }
+                    return false;
+                })
+                .doBeforeRetry(signal -> retry(operation, signal.totalRetries() + 1, signal.failure()))
+                .onRetryExhaustedThrow((spec, signal) -> {
+                    exhausted(operation, signal.failure());
+                    return signal.failure();
+                });
+    }
+
+    // Full jitter: uniform in [0, min(maxBackoff, initialBackoff * 2^(attempt - 1))], so writers that
+    // collided once do not collide again on the same schedule.
+    Duration backoff(int attempt) {
+        long ceiling = Math.min(maxBackoff.toNanos(), initialBackoff.toNanos() << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? Duration.ZERO : Duration.ofNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    private void conflict(String operation, Throwable e) {
+        meterRegistry.counter("crud.write.conflicts", "operation", operation, "exception", e.getClass().getSimpleName()).increment();
+    }
+
+    private void retry(String operation, long attempt, Throwable e) {
+        logger.debug("Retrying {} after transient failure (attempt {}): {}", operation, attempt, e.getMessage());
+        meterRegistry.counter("crud.write.retries", "operation", operation).increment();
+    }
+
+    private void notRetried(String operation, Throwable e) {
+        logger.debug("Not retrying {} on a non-blocking thread: {}", operation, e.getMessage());
+        meterRegistry.counter("crud.write.retries.skipped", "operation", operation).increment();
+    }
+
+    private void exhausted(String operation, Throwable e) {
+        logger.warn("Giving up on {} after {} attempts: {}", operation, maxAttempts, e.getMessage());
+        meterRegistry.counter("crud.write.retries.exhausted", "operation", operation).increment();
+    }
+
+    private static void sleep(Duration backoff) {
+        if (backoff.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off", e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.swisscom.crud;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.swisscom.crud.dto.BatchItemResultDto;
+import com.swisscom.crud.dto.BatchOperation;
+import com.swisscom.crud.dto.BatchResourceItemDto;
+import com.swisscom.crud.dto.BatchServiceItemDto;
+import com.swisscom.crud.exception.RecordNotFoundException;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import com.swisscom.crud.repository.ServiceRepository;
+import com.swisscom.crud.service.BatchManager;
+import com.swisscom.crud.service.ServiceCacheEvictor;
+import com.swisscom.crud.service.ServiceEvents;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchManagerTests {
+
+    @Mock
+    private ServiceRepository serviceRepository;
+
+    @Mock
+    private ServiceCacheEvictor serviceCacheEvictor;
+
+    @Mock
+    private ServiceEvents serviceEvents;
+
+    private BatchManager batchManager;
+
+    private final String serviceId = "service123";
+    private final String resourceId1 = "resourceABC";
+    private final String resourceId2 = "resourceXYZ";
+
+    @BeforeEach
+    void setUp() {
+        batchManager = new BatchManager(serviceRepository, new DtoMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), serviceCacheEvictor, serviceEvents);
+    }
+
+    @Test
+    void batchResources_shouldReportPerItemResultsAndWriteOnce() {
+        Service existing = new Service(1L, serviceId, null, new ArrayList<>(List.of(
+                new Resource(resourceId1, null, new ArrayList<>()),
+                new Resource(resourceId2, null, new ArrayList<>()))));
+        when(serviceRepository.findServiceIds(serviceId)).thenReturn(Optional.of(existing));
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getMatchedCount()).thenReturn(1);
+        when(result.getDeletedCount()).thenReturn(1);
+        when(serviceRepository.bulkWriteResources(eq(serviceId), anyList(), anyMap(), anyList())).thenReturn(result);
+
+        List<BatchItemResultDto> results = batchManager.batchResources(serviceId, List.of(
+                new BatchResourceItemDto(BatchOperation.CREATE, null, "New Resource"),
+                new BatchResourceItemDto(BatchOperation.UPDATE, resourceId1, "Renamed"),
+                new BatchResourceItemDto(BatchOperation.DELETE, "missing", null),
+                new BatchResourceItemDto(BatchOperation.CREATE, null, " "),
+                new BatchResourceItemDto(BatchOperation.DELETE, resourceId2, null),
+                new BatchResourceItemDto(BatchOperation.UPDATE, resourceId1, "Again")));
+
+        assertEquals(List.of(201, 200, 404, 400, 204, 400), results.stream().map(BatchItemResultDto::getStatus).toList());
+        assertEquals("Resource name cannot be blank", results.get(3).getError());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Resource>> creates = ArgumentCaptor.forClass(List.class);
+        verify(serviceRepository, times(1)).bulkWriteResources(eq(serviceId), creates.capture(),
+                eq(Map.of(resourceId1, Map.of("name", "Renamed"))), eq(List.of(resourceId2)));
+        assertEquals(1, creates.getValue().size());
+        assertEquals(results.get(0).getId(), creates.getValue().get(0).getId());
+        verify(serviceCacheEvictor).resourceChanged(serviceId, resourceId1, null);
+        verify(serviceCacheEvictor).resourceDeleted(serviceId, resourceId2, null);
+        verify(serviceEvents).created(serviceId, results.get(0).getId(), null, null);
+        verify(serviceEvents).updated(serviceId, resourceId1, null, null);
+        verify(serviceEvents).deleted(serviceId, resourceId2, null, null);
+    }
+
+    @Test
+    void batchResources_whenUpdateTargetDeletedConcurrently_shouldReport404() {
+        Service before = new Service(1L, serviceId, null, new ArrayList<>(List.of(new Resource(resourceId1, null, new ArrayList<>()))));
+        Service after = new Service(2L, serviceId, null, new ArrayList<>());
+        when(serviceRepository.findServiceIds(serviceId)).thenReturn(Optional.of(before), Optional.of(after));
+        when(serviceRepository.bulkWriteResources(eq(serviceId), anyList(), anyMap(), anyList())).thenReturn(mock(BulkWriteResult.class));
+
+        List<BatchItemResultDto> results = batchManager.batchResources(serviceId, List.of(
+                new BatchResourceItemDto(BatchOperation.UPDATE, resourceId1, "Renamed")));
+
+        assertEquals(404, results.get(0).getStatus());
+        assertEquals("Resource not found with id: " + resourceId1, results.get(0).getError());
+        verifyNoInteractions(serviceCacheEvictor, serviceEvents);
+    }
+
+    @Test
+    void batchResources_whenDeletesMatchedNothing_shouldReport404() {
+        Service before = new Service(1L, serviceId, null, new ArrayList<>(List.of(new Resource(resourceId2, null, new ArrayList<>()))));
+        Service after = new Service(2L, serviceId, null, new ArrayList<>());
+        when(serviceRepository.findServiceIds(serviceId)).thenReturn(Optional.of(before), Optional.of(after));
+        when(serviceRepository.bulkWriteResources(eq(serviceId), anyList(), anyMap(), anyList())).thenReturn(mock(BulkWriteResult.class));
+
+        List<BatchItemResultDto> results = batchManager.batchResources(serviceId, List.of(
+                new BatchResourceItemDto(BatchOperation.DELETE, resourceId2, null)));
+
+        assertEquals(404, results.get(0).getStatus());
+        verify(serviceCacheEvictor, never()).resourceDeleted(any(), any(), any());
+    }
+
+    @Test
+    void batchResources_whenServiceNotFound_shouldThrowRecordNotFoundException() {
+        when(serviceRepository.findServiceIds(serviceId)).thenReturn(Optional.empty());
+
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class, () -> batchManager.batchResources(serviceId,
+                List.of(new BatchResourceItemDto(BatchOperation.CREATE, null, "New Resource"))));
+        assertEquals("Service not found with id: " + serviceId, exception.getMessage());
+        verify(serviceRepository, never()).bulkWriteResources(any(), anyList(), anyMap(), anyList());
+    }
+
+    @Test
+    void batchServices_whenVersionIsStale_shouldReturnConflictWithoutWriting() {
+        when(serviceRepository.findServiceVersions(any())).thenReturn(List.of(new Service(2L, serviceId, null, null)));
+
+        List<BatchItemResultDto> results = batchManager.batchServices(List.of(
+                new BatchServiceItemDto(BatchOperation.UPDATE, serviceId, 1L, "Renamed"),
+                new BatchServiceItemDto(null, null, null, null)));
+
+        assertEquals(409, results.get(0).getStatus());
+        assertEquals(400, results.get(1).getStatus());
+        verify(serviceRepository, never()).bulkWriteServices(anyList(), anyList(), anyList());
+        verifyNoInteractions(serviceCacheEvictor);
+    }
+
+    @Test
+    void batchServices_whenUpdateHasNoVersion_shouldRejectAsInvalid() {
+        List<BatchItemResultDto> results = batchManager.batchServices(List.of(
+                new BatchServiceItemDto(BatchOperation.UPDATE, serviceId, null, "Renamed")));
+
+        assertEquals(400, results.get(0).getStatus());
+        assertEquals("Version is required for updates to enable optimistic locking.", results.get(0).getError());
+        verify(serviceRepository, never()).bulkWriteServices(anyList(), anyList(), anyList());
+    }
+}
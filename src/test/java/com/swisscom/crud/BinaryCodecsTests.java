@@ -0,0 +1,164 @@
+package com.swisscom.crud;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swisscom.crud.config.CollectingCborEncoder;
+import com.swisscom.crud.controller.ReactiveResourceController;
+import com.swisscom.crud.controller.ResourceController;
+import com.swisscom.crud.controller.ServiceController;
+import com.swisscom.crud.dto.CreateServiceDto;
+import com.swisscom.crud.dto.ReadResourceDto;
+import com.swisscom.crud.dto.ReadServiceDto;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import com.swisscom.crud.service.ReactiveResourceManager;
+import com.swisscom.crud.service.ResourceManager;
+import com.swisscom.crud.service.ServiceManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BinaryCodecsTests {
+
+    private static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final TypeReference<List<ReadResourceDto>> RESOURCES = new TypeReference<>() {
+    };
+
+    private final String serviceId = "service1";
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+    private final ObjectMapper smile = Jackson2ObjectMapperBuilder.smile().build();
+
+    private ServiceManager serviceManager;
+    private ResourceManager resourceManager;
+    private ReactiveResourceManager reactiveResourceManager;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        serviceManager = mock(ServiceManager.class);
+        resourceManager = mock(ResourceManager.class);
+        reactiveResourceManager = mock(ReactiveResourceManager.class);
+        DtoMapper dtoMapper = new DtoMapper();
+        webTestClient = WebTestClient.bindToController(
+                        new ServiceController(serviceManager, dtoMapper),
+                        new ResourceController(resourceManager, serviceManager, dtoMapper))
+                .httpMessageCodecs(this::registerBinaryCodecs)
+                .build();
+    }
+
+    @Test
+    void getResources_withCborAccept_shouldEncodeListAsCbor() throws IOException {
+        when(serviceManager.getServiceByIdWithoutSummary(serviceId)).thenReturn(new Service(1L, serviceId, "Service", null));
+        when(resourceManager.getResourcePerService(serviceId)).thenReturn(resources());
+
+        byte[] body = webTestClient.get().uri("/api/services/{id}/resources", serviceId).accept(CBOR).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(CBOR)
+                .expectBody().returnResult().getResponseBody();
+
+        List<ReadResourceDto> decoded = cbor.readValue(body, RESOURCES);
+        assertEquals(List.of("resource1", "resource2"), decoded.stream().map(ReadResourceDto::getId).toList());
+        assertEquals("ACC001", decoded.getFirst().getOwners().getFirst().getAccountNumber());
+    }
+
+    @Test
+    void reactiveGetResources_withCborAccept_shouldCollectFluxIntoOneArray() throws IOException {
+        when(reactiveResourceManager.getResourcePerService(serviceId)).thenReturn(Flux.fromIterable(resources()));
+        WebTestClient reactiveClient = WebTestClient.bindToController(new ReactiveResourceController(reactiveResourceManager, new DtoMapper()))
+                .httpMessageCodecs(this::registerBinaryCodecs)
+                .build();
+
+        byte[] body = reactiveClient.get().uri("/api/services/{id}/resources", serviceId).accept(CBOR).exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBody();
+
+        assertEquals(2, cbor.readValue(body, RESOURCES).size());
+    }
+
+    @Test
+    void createService_withCborBodyAndSmileAccept_shouldRoundTrip() throws IOException {
+        when(serviceManager.createService(any(CreateServiceDto.class)))
+                .thenAnswer(invocation -> new Service(1L, serviceId, invocation.<CreateServiceDto>getArgument(0).getName(), null));
+
+        byte[] body = webTestClient.post().uri("/api/services").contentType(CBOR).accept(SMILE)
+                .bodyValue(cbor.writeValueAsBytes(new CreateServiceDto("Binary"))).exchange()
+                .expectStatus().isCreated()
+                .expectHeader().contentType(SMILE)
+                .expectBody().returnResult().getResponseBody();
+
+        assertEquals("Binary", smile.readValue(body, ReadServiceDto.class).getName());
+    }
+
+    @Test
+    void getResource_withCborAccept_shouldNotShareTheJsonTag() {
+        when(serviceManager.getServiceByIdWithoutSummary(serviceId)).thenReturn(new Service(1L, serviceId, "Service", null));
+        when(serviceManager.getServiceVersion(serviceId)).thenReturn(1L);
+        when(resourceManager.getResourceById("resource1", serviceId)).thenReturn(resources().getFirst());
+        String jsonTag = resourceTag(MediaType.APPLICATION_JSON);
+        String cborTag = resourceTag(CBOR);
+
+        assertNotEquals(jsonTag, cborTag);
+        webTestClient.get().uri("/api/services/{id}/resources/{resourceId}", serviceId, "resource1")
+                .accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, cborTag).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, jsonTag);
+        webTestClient.get().uri("/api/services/{id}/resources/{resourceId}", serviceId, "resource1")
+                .accept(CBOR).header(HttpHeaders.IF_NONE_MATCH, cborTag).exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void getService_withSmileAccept_shouldTagTheFormatAndVaryByAccept() {
+        when(serviceManager.getServiceByIdWithoutSummary(serviceId)).thenReturn(new Service(1L, serviceId, "Service", null));
+
+        webTestClient.get().uri("/api/services/{id}", serviceId).accept(SMILE).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(SMILE)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1-x-jackson-smile\"")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    private String resourceTag(MediaType format) {
+        return webTestClient.get().uri("/api/services/{id}/resources/{resourceId}", serviceId, "resource1").accept(format).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(format)
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .returnResult(byte[].class).getResponseHeaders().getETag();
+    }
+
+    // Same registration as CodecConfig, which only applies inside the application context.
+    private void registerBinaryCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new Jackson2CborDecoder(cbor));
+        configurer.customCodecs().register(new CollectingCborEncoder(cbor));
+        configurer.customCodecs().register(new Jackson2SmileDecoder(smile));
+        configurer.customCodecs().register(new Jackson2SmileEncoder(smile));
+    }
+
+    private List<Resource> resources() {
+        Owner owner = new Owner("owner1", "Owner", "ACC001", 1);
+        return List.of(new Resource("resource1", "Resource 1", new ArrayList<>(List.of(owner))),
+                new Resource("resource2", "Resource 2", new ArrayList<>()));
+    }
+}
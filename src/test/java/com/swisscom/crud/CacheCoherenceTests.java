@@ -0,0 +1,149 @@
+package com.swisscom.crud;
+
+import com.swisscom.crud.config.CacheConfig;
+import com.swisscom.crud.config.CacheNames;
+import com.swisscom.crud.config.ServiceVersionFloors;
+import com.swisscom.crud.model.Service;
+import com.swisscom.crud.repository.ServiceRepository;
+import com.swisscom.crud.service.CachedAggregates;
+import com.swisscom.crud.service.ServiceCacheEvictor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheCoherenceTests {
+
+    private ServiceRepository serviceRepository;
+    private ServiceCacheEvictor serviceCacheEvictor;
+    private Cache serviceCache;
+    private Cache resourceCache;
+    private CaffeineCache ownerCache;
+
+    @BeforeEach
+    void setUp() {
+        CacheConfig cacheConfig = new CacheConfig();
+        ReflectionTestUtils.setField(cacheConfig, "maximumWeight", 1000L);
+        ReflectionTestUtils.setField(cacheConfig, "expireAfterWrite", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(cacheConfig, "refreshAfterWrite", Duration.ofMinutes(1));
+        serviceRepository = mock(ServiceRepository.class);
+        ServiceVersionFloors versionFloors = new ServiceVersionFloors(Duration.ofMinutes(10));
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        CacheManager cacheManager = cacheConfig.cacheManager(serviceRepository, versionFloors, beans.getBeanProvider(CachedAggregates.class));
+        beans.addBean("cachedAggregates", new CachedAggregates(cacheManager));
+        serviceCacheEvictor = new ServiceCacheEvictor(cacheManager, versionFloors);
+        serviceCache = cacheManager.getCache(CacheNames.SERVICES);
+        resourceCache = cacheManager.getCache(CacheNames.RESOURCES);
+        ownerCache = (CaffeineCache) cacheManager.getCache(CacheNames.OWNERS);
+    }
+
+    @Test
+    void put_whenOlderThanLastWrite_shouldBeRejected() {
+        when(serviceRepository.findByServiceId("service1")).thenReturn(Optional.of(service(2L)));
+
+        serviceCacheEvictor.resourceChanged("service1", "resource1", 2L);
+        serviceCache.put("service1", service(1L));
+
+        assertEquals(2L, versionOf(serviceCache.get("service1")));
+    }
+
+    @Test
+    void put_whenAtLastWrittenVersion_shouldBeKept() {
+        serviceCacheEvictor.serviceChanged("service1", 2L);
+        serviceCache.put("service1", service(2L));
+
+        assertEquals(2L, versionOf(serviceCache.get("service1")));
+    }
+
+    @Test
+    void put_whenWriteVersionUnknown_shouldRejectPreviouslyCachedVersion() {
+        when(serviceRepository.findByServiceId("service1")).thenReturn(Optional.of(service(4L)));
+        serviceCache.put("service1", service(3L));
+
+        serviceCacheEvictor.serviceChanged("service1", null);
+        serviceCache.put("service1", service(3L));
+
+        assertEquals(4L, versionOf(serviceCache.get("service1")));
+    }
+
+    @Test
+    void put_whenServiceDeleted_shouldBeRejected() {
+        when(serviceRepository.findByServiceId("service1")).thenReturn(Optional.empty());
+
+        serviceCacheEvictor.serviceDeleted("service1");
+        serviceCache.put("service1", service(7L));
+
+        assertNull(serviceCache.get("service1", Service.class));
+    }
+
+    @Test
+    void remoteServiceChanged_whenAlreadyWrittenByThisInstance_shouldKeepEntries() {
+        serviceCacheEvictor.serviceChanged("service1", 2L);
+        serviceCache.put("service1", service(2L));
+        resourceCache.put(CacheNames.resourceKey("service1", "resource1"), "resource");
+
+        serviceCacheEvictor.remoteServiceChanged("service1", 2L);
+
+        assertEquals(2L, versionOf(serviceCache.get("service1")));
+        assertNotNull(resourceCache.get(CacheNames.resourceKey("service1", "resource1")));
+        verify(serviceRepository, never()).findByServiceId("service1");
+    }
+
+    @Test
+    void remoteServiceChanged_whenNewer_shouldEvictServiceAndNestedEntries() {
+        when(serviceRepository.findByServiceId("service1")).thenReturn(Optional.of(service(3L)));
+        serviceCache.put("service1", service(2L));
+        resourceCache.put(CacheNames.resourceKey("service1", "resource1"), "resource");
+
+        serviceCacheEvictor.remoteServiceChanged("service1", 3L);
+        serviceCache.put("service1", service(2L));
+
+        assertEquals(3L, versionOf(serviceCache.get("service1")));
+        assertNull(resourceCache.get(CacheNames.resourceKey("service1", "resource1")));
+    }
+
+    @Test
+    void resourceDeleted_shouldEvictOnlyOwnersOfThatResource() {
+        ownerCache.put(CacheNames.ownerKey("service1", "resource1", "owner1"), "owner");
+        ownerCache.put(CacheNames.ownerKey("service1", "resource2", "owner1"), "owner");
+        ownerCache.put(CacheNames.ownerKey("service2", "resource1", "owner1"), "owner");
+
+        serviceCacheEvictor.resourceDeleted("service1", "resource1", 3L);
+
+        assertNull(ownerCache.getNativeCache().getIfPresent(CacheNames.ownerKey("service1", "resource1", "owner1")));
+        assertNotNull(ownerCache.getNativeCache().getIfPresent(CacheNames.ownerKey("service1", "resource2", "owner1")));
+        assertNotNull(ownerCache.getNativeCache().getIfPresent(CacheNames.ownerKey("service2", "resource1", "owner1")));
+    }
+
+    @Test
+    void remoteServiceChanged_shouldEvictOnlyThatServicesOwners() {
+        ownerCache.put(CacheNames.ownerKey("service1", "resource1", "owner1"), "owner");
+        ownerCache.put(CacheNames.ownerKey("service2", "resource1", "owner1"), "owner");
+
+        serviceCacheEvictor.remoteServiceChanged("service1", 3L);
+
+        assertNull(ownerCache.getNativeCache().getIfPresent(CacheNames.ownerKey("service1", "resource1", "owner1")));
+        assertNotNull(ownerCache.getNativeCache().getIfPresent(CacheNames.ownerKey("service2", "resource1", "owner1")));
+    }
+
+    private static Service service(long version) {
+        return new Service(version, "service1", "Service", null);
+    }
+
+    private static Long versionOf(Cache.ValueWrapper wrapper) {
+        assertNotNull(wrapper);
+        return ((Service) wrapper.get()).getVersion();
+    }
+}
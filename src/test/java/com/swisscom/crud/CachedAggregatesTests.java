@@ -0,0 +1,122 @@
+package com.swisscom.crud;
+
+import com.swisscom.crud.config.CacheConfig;
+import com.swisscom.crud.config.CacheNames;
+import com.swisscom.crud.config.ServiceVersionFloors;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import com.swisscom.crud.repository.ServiceRepository;
+import com.swisscom.crud.service.CachedAggregates;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CachedAggregatesTests {
+
+    private CaffeineCacheManager cacheManager;
+    private CachedAggregates cachedAggregates;
+    private Service service;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager(CacheNames.SERVICE_AGGREGATES);
+        cachedAggregates = new CachedAggregates(cacheManager);
+
+        Owner owner = new Owner("owner1", "Owner 1", "ACC001", 1);
+        Resource resource1 = new Resource("resource1", "Resource 1", new ArrayList<>(List.of(owner)));
+        Resource resource2 = new Resource("resource2", "Resource 2", new ArrayList<>());
+        service = new Service(1L, "service1", "Service 1", new ArrayList<>(List.of(resource1, resource2)));
+    }
+
+    @Test
+    void resource_whenAggregateNotCached_shouldReturnEmpty() {
+        assertTrue(cachedAggregates.resource("service1", "resource1").isEmpty());
+    }
+
+    @Test
+    void resourceAndOwner_whenAggregateCached_shouldReturnChildren() {
+        cacheManager.getCache(CacheNames.SERVICE_AGGREGATES).put("service1", service);
+
+        assertEquals("Resource 2", cachedAggregates.resource("service1", "resource2").orElseThrow().getName());
+        assertEquals("Owner 1", cachedAggregates.owner("service1", "resource1", "owner1").orElseThrow().getName());
+        assertTrue(cachedAggregates.resource("service1", "missing").isEmpty());
+        assertTrue(cachedAggregates.owner("service1", "resource2", "owner1").isEmpty());
+    }
+
+    @Test
+    void resource_whenListChangedAfterIndexing_shouldReindex() {
+        cacheManager.getCache(CacheNames.SERVICE_AGGREGATES).put("service1", service);
+        assertTrue(cachedAggregates.resource("service1", "resource2").isPresent());
+
+        service.getResources().remove(0);
+        service.getResources().add(new Resource("resource3", "Resource 3", new ArrayList<>()));
+
+        assertEquals("Resource 2", cachedAggregates.resource("service1", "resource2").orElseThrow().getName());
+        assertEquals("Resource 3", cachedAggregates.resource("service1", "resource3").orElseThrow().getName());
+        assertTrue(cachedAggregates.resource("service1", "resource1").isEmpty());
+    }
+
+    // @Cacheable misses on RESOURCES/OWNERS are resolved by the configured loaders, so they must use the aggregate.
+    @Test
+    void configuredChildCaches_whenAggregateCached_shouldLoadWithoutQuery() {
+        ServiceRepository serviceRepository = mock(ServiceRepository.class);
+        CacheManager configured = configuredCacheManager(serviceRepository);
+        configured.getCache(CacheNames.SERVICE_AGGREGATES).put("service1", service);
+
+        Resource resource = (Resource) configured.getCache(CacheNames.RESOURCES).get(CacheNames.resourceKey("service1", "resource2")).get();
+        Owner owner = (Owner) configured.getCache(CacheNames.OWNERS).get(CacheNames.ownerKey("service1", "resource1", "owner1")).get();
+
+        assertEquals("Resource 2", resource.getName());
+        assertEquals("Owner 1", owner.getName());
+        verifyNoInteractions(serviceRepository);
+    }
+
+    @Test
+    void configuredChildCaches_whenAggregateNotCached_shouldQueryProjection() {
+        ServiceRepository serviceRepository = mock(ServiceRepository.class);
+        Owner owner = service.getResources().get(0).getOwners().get(0);
+        when(serviceRepository.findOwner("service1", "resource1", "owner1")).thenReturn(Optional.of(owner));
+        CacheManager configured = configuredCacheManager(serviceRepository);
+
+        assertEquals(owner, configured.getCache(CacheNames.OWNERS).get(CacheNames.ownerKey("service1", "resource1", "owner1")).get());
+        verify(serviceRepository).findOwner("service1", "resource1", "owner1");
+    }
+
+    @Test
+    void configuredChildCaches_whenIdContainsSeparator_shouldNotLoadAnotherChild() {
+        ServiceRepository serviceRepository = mock(ServiceRepository.class);
+        when(serviceRepository.findServiceWithResource("service1", "resource2:anything")).thenReturn(Optional.empty());
+        CacheManager configured = configuredCacheManager(serviceRepository);
+        configured.getCache(CacheNames.SERVICE_AGGREGATES).put("service1", service);
+
+        assertNull(configured.getCache(CacheNames.RESOURCES).get(CacheNames.resourceKey("service1", "resource2:anything")));
+        verify(serviceRepository).findServiceWithResource("service1", "resource2:anything");
+    }
+
+    private static CacheManager configuredCacheManager(ServiceRepository serviceRepository) {
+        CacheConfig cacheConfig = new CacheConfig();
+        ReflectionTestUtils.setField(cacheConfig, "maximumWeight", 1000L);
+        ReflectionTestUtils.setField(cacheConfig, "expireAfterWrite", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(cacheConfig, "refreshAfterWrite", Duration.ofMinutes(1));
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        CacheManager configured = cacheConfig.cacheManager(serviceRepository, new ServiceVersionFloors(Duration.ofMinutes(10)),
+                beans.getBeanProvider(CachedAggregates.class));
+        beans.addBean("cachedAggregates", new CachedAggregates(configured));
+        return configured;
+    }
+}
@@ -0,0 +1,214 @@
+package com.swisscom.crud;
+
+import com.swisscom.crud.controller.ResourceController;
+import com.swisscom.crud.controller.ServiceController;
+import com.swisscom.crud.dto.UpdateResourceDto;
+import com.swisscom.crud.dto.UpdateServiceDto;
+import com.swisscom.crud.exception.GlobalExceptionHandler;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import com.swisscom.crud.service.ResourceManager;
+import com.swisscom.crud.service.ServiceManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ConditionalRequestsTests {
+
+    private final String serviceId = "service1";
+    private final String resourceId = "resource1";
+
+    private ServiceManager serviceManager;
+    private ResourceManager resourceManager;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        serviceManager = mock(ServiceManager.class);
+        resourceManager = mock(ResourceManager.class);
+        DtoMapper dtoMapper = new DtoMapper();
+        webTestClient = WebTestClient.bindToController(
+                        new ServiceController(serviceManager, dtoMapper),
+                        new ResourceController(resourceManager, serviceManager, dtoMapper))
+                .controllerAdvice(new GlobalExceptionHandler(new SimpleMeterRegistry()))
+                .build();
+    }
+
+    @Test
+    void getService_shouldTagResponseWithVersion() {
+        when(serviceManager.getServiceByIdWithoutSummary(serviceId)).thenReturn(new Service(3L, serviceId, "Service", null));
+
+        webTestClient.get().uri("/api/services/{id}", serviceId).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"");
+    }
+
+    @Test
+    void getService_whenVersionUnchanged_shouldAnswer304FromVersionOnly() {
+        when(serviceManager.getServiceVersion(serviceId)).thenReturn(3L);
+
+        webTestClient.get().uri("/api/services/{id}", serviceId).header(HttpHeaders.IF_NONE_MATCH, "\"3\"").exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"");
+        verify(serviceManager, never()).getServiceByIdWithoutSummary(anyString());
+    }
+
+    @Test
+    void getResource_whenOnlyOtherPartsChanged_shouldAnswer304WithNewTag() {
+        Resource resource = new Resource(resourceId, "Resource", new ArrayList<>(List.of(new Owner("owner1", "Owner", "ACC001", 1))));
+        when(resourceManager.getResourceById(resourceId, serviceId)).thenReturn(resource);
+        when(serviceManager.getServiceByIdWithoutSummary(serviceId)).thenReturn(new Service(4L, serviceId, "Service", null));
+        String firstTag = webTestClient.get().uri("/api/services/{id}/resources/{resourceId}", serviceId, resourceId).exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        when(serviceManager.getServiceVersion(serviceId)).thenReturn(5L);
+
+        String secondTag = webTestClient.get().uri("/api/services/{id}/resources/{resourceId}", serviceId, resourceId)
+                .header(HttpHeaders.IF_NONE_MATCH, firstTag).exchange()
+                .expectStatus().isNotModified()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        assertEquals(firstTag.replace("\"4-", "\"5-"), secondTag);
+    }
+
+    @Test
+    void getResources_withoutIfNoneMatch_shouldTagFromCachedServiceWithoutVersionQuery() {
+        when(serviceManager.getServiceByIdWithoutSummary(serviceId)).thenReturn(new Service(6L, serviceId, "Service", null));
+        when(resourceManager.getResourcePerService(serviceId)).thenReturn(List.of(new Resource(resourceId, "Resource", new ArrayList<>())));
+
+        String tag = webTestClient.get().uri("/api/services/{id}/resources", serviceId).exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        assertTrue(tag.startsWith("\"6-"));
+        verify(serviceManager, never()).getServiceVersion(anyString());
+    }
+
+    @Test
+    void getResource_whenResourceChanged_shouldAnswer200() {
+        when(serviceManager.getServiceVersion(serviceId)).thenReturn(5L);
+        when(resourceManager.getResourceById(resourceId, serviceId)).thenReturn(new Resource(resourceId, "Renamed", new ArrayList<>()));
+
+        webTestClient.get().uri("/api/services/{id}/resources/{resourceId}", serviceId, resourceId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"4-1234\"").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.name").isEqualTo("Renamed");
+    }
+
+    @Test
+    void putService_withIfMatch_shouldUseTaggedVersionInsteadOfBody() {
+        when(serviceManager.getServiceVersion(serviceId)).thenReturn(2L);
+        when(serviceManager.updateService(eq(serviceId), any(UpdateServiceDto.class))).thenReturn(new Service(3L, serviceId, "Renamed", null));
+
+        webTestClient.put().uri("/api/services/{id}", serviceId).header(HttpHeaders.IF_MATCH, "\"2\"")
+                .bodyValue(new UpdateServiceDto(null, "Renamed")).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"");
+
+        ArgumentCaptor<UpdateServiceDto> update = ArgumentCaptor.forClass(UpdateServiceDto.class);
+        verify(serviceManager).updateService(eq(serviceId), update.capture());
+        assertEquals(2L, update.getValue().getVersion());
+    }
+
+    @Test
+    void putService_withStaleIfMatch_shouldFailWith412() {
+        when(serviceManager.getServiceVersion(serviceId)).thenReturn(3L);
+
+        webTestClient.put().uri("/api/services/{id}", serviceId).header(HttpHeaders.IF_MATCH, "\"2\"")
+                .bodyValue(new UpdateServiceDto(null, "Renamed")).exchange()
+                .expectStatus().isEqualTo(412);
+        verify(serviceManager, never()).updateService(anyString(), any());
+    }
+
+    @Test
+    void deleteService_whenWriteRacesIfMatch_shouldFailWith412() {
+        when(serviceManager.getServiceVersion(serviceId)).thenReturn(3L);
+        doThrow(new OptimisticLockingFailureException("conflict")).when(serviceManager).deleteService(serviceId, 3L);
+
+        webTestClient.delete().uri("/api/services/{id}", serviceId).header(HttpHeaders.IF_MATCH, "\"3\"").exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    void deleteResource_withStaleIfMatch_shouldNotDelete() {
+        when(serviceManager.getServiceVersion(serviceId)).thenReturn(5L);
+        when(resourceManager.getResourceById(resourceId, serviceId)).thenReturn(new Resource(resourceId, "Renamed", new ArrayList<>()));
+
+        webTestClient.delete().uri("/api/services/{id}/resources/{resourceId}", serviceId, resourceId)
+                .header(HttpHeaders.IF_MATCH, "\"4-1234\"").exchange()
+                .expectStatus().isEqualTo(412);
+        verify(resourceManager, never()).deleteResource(anyString(), anyString());
+        verify(resourceManager, never()).deleteResource(anyString(), anyString(), any());
+    }
+
+    @Test
+    void getResource_withServiceTagAtCurrentVersion_shouldAnswer200() {
+        when(serviceManager.getServiceVersion(serviceId)).thenReturn(5L);
+        when(resourceManager.getResourceById(resourceId, serviceId)).thenReturn(new Resource(resourceId, "Resource", new ArrayList<>()));
+
+        webTestClient.get().uri("/api/services/{id}/resources/{resourceId}", serviceId, resourceId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"5\"").exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void putResource_withOtherResourcesTagAtCurrentVersion_shouldFailWith412() {
+        String otherTag = resourceTag(4L, new Resource(resourceId, "Resource", new ArrayList<>()));
+        when(serviceManager.getServiceVersion(serviceId)).thenReturn(4L);
+        when(resourceManager.getResourceById("resource2", serviceId)).thenReturn(new Resource("resource2", "Other", new ArrayList<>()));
+
+        webTestClient.put().uri("/api/services/{id}/resources/{resourceId}", serviceId, "resource2").header(HttpHeaders.IF_MATCH, otherTag)
+                .bodyValue(new UpdateResourceDto("Renamed")).exchange()
+                .expectStatus().isEqualTo(412);
+        verify(resourceManager, never()).updateResource(anyString(), anyString(), any(UpdateResourceDto.class), any());
+    }
+
+    @Test
+    void putResource_withIfMatch_shouldGuardWriteWithMatchedVersion() {
+        String tag = resourceTag(4L, new Resource(resourceId, "Resource", new ArrayList<>()));
+        when(serviceManager.getServiceVersion(serviceId)).thenReturn(4L);
+        when(resourceManager.updateResource(eq(resourceId), eq(serviceId), any(UpdateResourceDto.class), eq(4L)))
+                .thenReturn(new Resource(resourceId, "Renamed", new ArrayList<>()));
+
+        webTestClient.put().uri("/api/services/{id}/resources/{resourceId}", serviceId, resourceId).header(HttpHeaders.IF_MATCH, tag)
+                .bodyValue(new UpdateResourceDto("Renamed")).exchange()
+                .expectStatus().isOk();
+        verify(resourceManager, never()).updateResource(anyString(), anyString(), any(UpdateResourceDto.class));
+    }
+
+    @Test
+    void deleteResource_whenWriteRacesIfMatch_shouldFailWith412() {
+        String tag = resourceTag(4L, new Resource(resourceId, "Resource", new ArrayList<>()));
+        when(serviceManager.getServiceVersion(serviceId)).thenReturn(4L);
+        doThrow(new OptimisticLockingFailureException("conflict")).when(resourceManager).deleteResource(resourceId, serviceId, 4L);
+
+        webTestClient.delete().uri("/api/services/{id}/resources/{resourceId}", serviceId, resourceId)
+                .header(HttpHeaders.IF_MATCH, tag).exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    // The tag the resource endpoint issues for this content at this version.
+    private String resourceTag(long version, Resource resource) {
+        when(serviceManager.getServiceByIdWithoutSummary(serviceId)).thenReturn(new Service(version, serviceId, "Service", null));
+        when(resourceManager.getResourceById(resource.getId(), serviceId)).thenReturn(resource);
+        return webTestClient.get().uri("/api/services/{id}/resources/{resourceId}", serviceId, resource.getId()).exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+    }
+}
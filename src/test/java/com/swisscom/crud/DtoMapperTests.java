@@ -0,0 +1,55 @@
+package com.swisscom.crud;
+
+import com.swisscom.crud.dto.CreateOwnerDto;
+import com.swisscom.crud.dto.ReadOwnerDto;
+import com.swisscom.crud.dto.ReadResourceDto;
+import com.swisscom.crud.dto.UpdateOwnerDto;
+import com.swisscom.crud.dto.UpdateServiceDto;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DtoMapperTests {
+
+    private final DtoMapper dtoMapper = new DtoMapper();
+
+    @Test
+    void changesOf_whenFieldsAreNull_shouldLeaveThemOut() {
+        assertEquals(Map.of(), dtoMapper.changesOf(new UpdateServiceDto(2L, null)));
+    }
+
+    @Test
+    void changesOf_whenOwnerFieldsArePartial_shouldOnlyContainNonNullFields() {
+        assertEquals(Map.of("accountNumber", "ACC002"), dtoMapper.changesOf(new UpdateOwnerDto(null, "ACC002", null)));
+    }
+
+    @Test
+    void toReadResourceDto_shouldCopyFieldsAndOwners() {
+        Owner owner = new Owner("owner1", "Owner", "ACC001", 1);
+        Resource resource = new Resource("resource1", "Resource", new ArrayList<>(List.of(owner)));
+
+        ReadResourceDto dto = dtoMapper.toReadResourceDto(resource);
+
+        assertEquals("resource1", dto.getId());
+        assertEquals("Resource", dto.getName());
+        assertEquals(List.of(owner), dto.getOwners());
+    }
+
+    @Test
+    void toOwner_shouldGenerateIdAndCopyFields() {
+        Owner owner = dtoMapper.toOwner(new CreateOwnerDto("Owner", "ACC001", 3));
+        ReadOwnerDto dto = dtoMapper.toReadOwnerDto(owner);
+
+        assertNotNull(owner.getId());
+        assertEquals(owner.getId(), dto.getId());
+        assertEquals("ACC001", dto.getAccountNumber());
+        assertEquals(3, dto.getLevel());
+    }
+}
@@ -0,0 +1,80 @@
+package com.swisscom.crud;
+
+import com.swisscom.crud.config.LimitedVirtualThreadExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitedVirtualThreadExecutorTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LimitedVirtualThreadExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new LimitedVirtualThreadExecutor(2, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void execute_shouldRunTaskOnVirtualThread() throws Exception {
+        AtomicBoolean virtual = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.execute(() -> {
+            virtual.set(Thread.currentThread().isVirtual());
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(virtual.get());
+    }
+
+    @Test
+    void execute_whenLimitReached_shouldQueueRemainingTasks() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(5);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                finished.countDown();
+            });
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getQueueDepth() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, executor.getQueueDepth());
+        assertEquals(2, executor.getActiveCount());
+        assertEquals(3.0, meterRegistry.get("crud.execution.queue.depth").gauge().value());
+
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        assertEquals(0, executor.getQueueDepth());
+        assertEquals(5, meterRegistry.get("crud.execution.queue.wait").timer().count());
+    }
+}
@@ -0,0 +1,137 @@
+package com.swisscom.crud;
+
+import com.mongodb.client.result.UpdateResult;
+import com.swisscom.crud.model.Service;
+import com.swisscom.crud.repository.NormalizedStorageMigration;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class NormalizedStorageMigrationTests {
+
+    private final ObjectId serviceId = ObjectId.get();
+    private final List<Document> copiedResources = List.of(new Document("_id", ObjectId.get()).append("name", "Resource")
+            .append("owners", List.of()));
+
+    private MongoTemplate mongoTemplate;
+    private NormalizedStorageMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        migration = new NormalizedStorageMigration(mongoTemplate, "normalized", 100, Duration.ZERO);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("services")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    }
+
+    @Test
+    void unsetPass_whenVersionUnchangedSinceCopy_shouldUnsetGuardedByThatVersion() {
+        embeddedServices(3L);
+        marker(3L, copiedDigest());
+
+        assertEquals(1, migration.unsetPass());
+
+        ArgumentCaptor<Query> guard = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(guard.capture(), any(Update.class), eq("services"));
+        assertEquals(3L, guard.getValue().getQueryObject().get("version"));
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(Document.class), eq("services"));
+    }
+
+    @Test
+    void unsetPass_whenOnlyNormalizedWritesMovedTheVersion_shouldUnset() {
+        String digest = copiedDigest();
+        embeddedServices(5L);
+        marker(3L, digest);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("services")))
+                .thenReturn(new Document("_id", serviceId).append("version", 5L).append("resources", copiedResources));
+
+        assertEquals(1, migration.unsetPass());
+
+        ArgumentCaptor<Query> guard = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(guard.capture(), any(Update.class), eq("services"));
+        assertEquals(5L, guard.getValue().getQueryObject().get("version"));
+    }
+
+    @Test
+    void unsetPass_whenArrayWrittenAfterLastCopy_shouldKeepIt() {
+        String digest = copiedDigest();
+        embeddedServices(4L);
+        marker(3L, digest);
+        List<Document> written = new ArrayList<>(copiedResources);
+        written.add(new Document("_id", ObjectId.get()).append("name", "Written in embedded mode").append("owners", List.of()));
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("services")))
+                .thenReturn(new Document("_id", serviceId).append("version", 4L).append("resources", written));
+
+        assertEquals(0, migration.unsetPass());
+
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq("services"));
+    }
+
+    @Test
+    void unsetPass_whenMarkerHasNoDigestAndVersionMoved_shouldKeepIt() {
+        embeddedServices(4L);
+        marker(3L, null);
+
+        assertEquals(0, migration.unsetPass());
+
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq("services"));
+    }
+
+    @Test
+    void unsetPass_whenNeverCopied_shouldKeepIt() {
+        embeddedServices(3L);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("storage_migrations"))).thenReturn(List.of());
+
+        assertEquals(0, migration.unsetPass());
+
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq("services"));
+    }
+
+    private void embeddedServices(long version) {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("services")))
+                .thenReturn(List.of(new Document("_id", serviceId).append("version", version)))
+                .thenReturn(List.of());
+    }
+
+    private void marker(long version, String digest) {
+        Document marker = new Document("_id", serviceId).append("version", version);
+        if (digest != null) {
+            marker.append("resourcesDigest", digest);
+        }
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("storage_migrations"))).thenReturn(List.of(marker));
+    }
+
+    // The digest an embedded-mode copy pass records for copiedResources.
+    private String copiedDigest() {
+        MongoTemplate copyTemplate = mock(MongoTemplate.class);
+        when(copyTemplate.find(any(Query.class), eq(Service.class)))
+                .thenReturn(List.of(new Service(3L, serviceId.toHexString(), "Service", null)))
+                .thenReturn(List.of());
+        when(copyTemplate.find(any(Query.class), eq(Document.class), eq("storage_migrations"))).thenReturn(List.of());
+        when(copyTemplate.findOne(any(Query.class), eq(Document.class), eq("services")))
+                .thenReturn(new Document("_id", serviceId).append("version", 3L).append("resources", copiedResources));
+        when(copyTemplate.bulkOps(any(BulkOperations.BulkMode.class), anyString())).thenReturn(mock(BulkOperations.class));
+
+        assertEquals(1, new NormalizedStorageMigration(copyTemplate, "embedded", 100, Duration.ZERO).copyPass());
+
+        ArgumentCaptor<Update> marker = ArgumentCaptor.forClass(Update.class);
+        verify(copyTemplate).upsert(any(Query.class), marker.capture(), eq("storage_migrations"));
+        return marker.getValue().getUpdateObject().get("$set", Document.class).getString("resourcesDigest");
+    }
+}
@@ -0,0 +1,135 @@
+package com.swisscom.crud;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import com.swisscom.crud.repository.ServiceRepositoryCustomImpl;
+import com.swisscom.crud.repository.Versioned;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class NormalizedStorageTests {
+
+    private final String serviceId = ObjectId.get().toHexString();
+    private final String resourceId = ObjectId.get().toHexString();
+    private final String ownerId = ObjectId.get().toHexString();
+
+    private MongoTemplate mongoTemplate;
+    private ServiceRepositoryCustomImpl storage;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        storage = new ServiceRepositoryCustomImpl(mongoTemplate, "normalized");
+    }
+
+    @Test
+    void groupsNestedCreates_shouldDependOnStorageMode() {
+        assertFalse(storage.groupsNestedCreates());
+        assertTrue(new ServiceRepositoryCustomImpl(mongoTemplate, "embedded").groupsNestedCreates());
+    }
+
+    @Test
+    void findAggregate_shouldAssembleServiceFromChildCollections() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Service.class))).thenReturn(new Service(3L, serviceId, "Service", new ArrayList<>()));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("resources"))).thenReturn(List.of(
+                new Document("_id", new ObjectId(resourceId)).append("serviceId", new ObjectId(serviceId)).append("name", "Resource")));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("owners"))).thenReturn(List.of(
+                new Document("_id", new ObjectId(ownerId)).append("serviceId", new ObjectId(serviceId))
+                        .append("resourceId", new ObjectId(resourceId)).append("name", "Owner")
+                        .append("accountNumber", "ACC001").append("level", 2)));
+
+        Service aggregate = storage.findAggregate(serviceId).orElseThrow();
+
+        assertEquals(3L, aggregate.getVersion());
+        assertEquals(1, aggregate.getResources().size());
+        Resource resource = aggregate.getResources().get(0);
+        assertEquals(resourceId, resource.getId());
+        assertEquals(List.of(new Owner(ownerId, "Owner", "ACC001", 2)), resource.getOwners());
+    }
+
+    @Test
+    void pushResource_whenServiceMissing_shouldWriteNothing() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Service.class)))
+                .thenReturn(null);
+
+        assertEquals(Optional.empty(), storage.pushResource(serviceId, new Resource(resourceId, "Resource", new ArrayList<>())));
+        verify(mongoTemplate, never()).insert(any(Document.class), eq("resources"));
+    }
+
+    @Test
+    void pullResource_shouldDecrementCountersByTheRemovedOwnersWithTheVersion() {
+        when(mongoTemplate.remove(any(Query.class), eq("resources"))).thenReturn(DeleteResult.acknowledged(1));
+        when(mongoTemplate.remove(any(Query.class), eq("owners"))).thenReturn(DeleteResult.acknowledged(3));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Service.class)))
+                .thenReturn(new Service(5L, serviceId, null, null));
+
+        assertEquals(Optional.of(5L), storage.pullResource(serviceId, resourceId));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(Service.class));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertEquals(1L, inc.get("version", Number.class).longValue());
+        assertEquals(-1L, inc.get("resourceCount", Number.class).longValue());
+        assertEquals(-3L, inc.get("ownerCount", Number.class).longValue());
+    }
+
+    @Test
+    void pushOwner_whenRetriedAfterInsert_shouldNotCountTheOwnerTwice() {
+        when(mongoTemplate.exists(any(Query.class), eq("resources"))).thenReturn(true);
+        when(mongoTemplate.insert(any(Document.class), eq("owners"))).thenThrow(new DuplicateKeyException("duplicate"));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Service.class)))
+                .thenReturn(new Service(6L, serviceId, null, null));
+
+        assertEquals(Optional.of(6L), storage.pushOwner(serviceId, resourceId, new Owner(ownerId, "Owner", "ACC001", 1)));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(Service.class));
+        assertFalse(update.getValue().getUpdateObject().get("$inc", Document.class).containsKey("ownerCount"));
+    }
+
+    @Test
+    void updateOwnerFields_shouldUpdateOwnerDocumentAndIncrementServiceVersion() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Document.class), eq("owners")))
+                .thenReturn(new Document("_id", new ObjectId(ownerId)).append("name", "Renamed").append("accountNumber", "ACC001").append("level", 2));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Service.class)))
+                .thenReturn(new Service(4L, serviceId, null, null));
+
+        Optional<Versioned<Owner>> updated = storage.updateOwnerFields(serviceId, resourceId, ownerId, Map.of("name", "Renamed"));
+
+        assertEquals(4L, updated.orElseThrow().version());
+        assertEquals("Renamed", updated.get().value().getName());
+    }
+
+    @Test
+    void pullOwner_whenVersionAlreadyMoved_shouldNotTouchTheOwner() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Service.class))).thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertEquals(Optional.empty(), storage.pullOwner(serviceId, resourceId, ownerId, 3L));
+
+        ArgumentCaptor<Query> claim = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(claim.capture(), any(Update.class), eq(Service.class));
+        assertEquals(3L, claim.getValue().getQueryObject().get("version"));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq("owners"));
+    }
+}
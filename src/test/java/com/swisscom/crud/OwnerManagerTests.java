@@ -1,28 +1,44 @@
 package com.swisscom.crud;
 
 import com.swisscom.crud.dto.CreateOwnerDto;
+import com.swisscom.crud.dto.PageDto;
 import com.swisscom.crud.dto.UpdateOwnerDto;
+import com.swisscom.crud.exception.InvalidRequestException;
 import com.swisscom.crud.exception.RecordNotFoundException;
+import com.swisscom.crud.mapper.DtoMapper;
 import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.OwnerLocation;
 import com.swisscom.crud.model.Resource;
 import com.swisscom.crud.model.Service;
+import com.swisscom.crud.repository.OwnerPosition;
 import com.swisscom.crud.repository.ServiceRepository;
+import com.swisscom.crud.repository.Versioned;
+import com.swisscom.crud.service.CursorCodec;
 import com.swisscom.crud.service.OwnerManager;
 import com.swisscom.crud.service.ResourceManager;
-import com.swisscom.crud.service.ServiceManager;
+import com.swisscom.crud.service.ServiceCacheEvictor;
+import com.swisscom.crud.service.ServiceEvents;
+import com.swisscom.crud.service.WriteRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.dao.TransientDataAccessResourceException;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -33,13 +49,19 @@ class OwnerManagerTests {
     private ServiceRepository serviceRepository;
 
     @Mock
-    private ServiceManager serviceManager;
+    private ResourceManager resourceManager;
+
+    @Spy
+    private DtoMapper dtoMapper = new DtoMapper();
 
     @Mock
-    private ResourceManager resourceManager;
+    private ServiceCacheEvictor serviceCacheEvictor;
 
     @Mock
-    private ModelMapper modelMapper;
+    private ServiceEvents serviceEvents;
+
+    @Spy
+    private WriteRetry writeRetry = new WriteRetry(new SimpleMeterRegistry(), 3, Duration.ZERO, Duration.ZERO);
 
     @InjectMocks
     private OwnerManager ownerManager;
@@ -81,73 +103,81 @@ class OwnerManagerTests {
     }
 
     @Test
-    void createOwner_whenServiceAndResourceExist_shouldAddOwnerAndSave() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
+    void createOwner_whenServiceAndResourceExist_shouldPushOwner() {
         Owner newOwner = new Owner("newOwnerId", "New Owner", "ACCNEW", 3);
-        when(modelMapper.map(createOwnerDto, Owner.class)).thenReturn(newOwner);
-        when(serviceRepository.save(any(Service.class))).thenReturn(service);
+        when(dtoMapper.toOwner(createOwnerDto)).thenReturn(newOwner);
+        when(serviceRepository.pushOwner(serviceId, resourceId1, newOwner)).thenReturn(Optional.of(2L));
 
         Owner created = ownerManager.createOwner(createOwnerDto, serviceId, resourceId1);
 
         assertNotNull(created);
         assertEquals("New Owner", created.getName());
-        assertTrue(resource1.getOwners().contains(newOwner));
-        verify(serviceManager).getServiceById(serviceId);
-        verify(modelMapper).map(createOwnerDto, Owner.class);
-        verify(serviceRepository).save(service);
+        verify(dtoMapper).toOwner(createOwnerDto);
+        verify(serviceRepository).pushOwner(serviceId, resourceId1, newOwner);
+        verify(serviceCacheEvictor).ownerChanged(serviceId, resourceId1, "newOwnerId", 2L);
+        verify(serviceRepository, never()).save(any());
     }
 
     @Test
     void createOwner_whenServiceNotFound_shouldThrowException() {
-        when(serviceManager.getServiceById(serviceId)).thenThrow(new RecordNotFoundException("Service not found"));
+        Owner newOwner = new Owner("newOwnerId", "New Owner", "ACCNEW", 3);
+        when(dtoMapper.toOwner(createOwnerDto)).thenReturn(newOwner);
+        when(serviceRepository.pushOwner(serviceId, resourceId1, newOwner)).thenReturn(Optional.empty());
+        when(serviceRepository.existsById(serviceId)).thenReturn(false);
 
-        assertThrows(RecordNotFoundException.class, () -> ownerManager.createOwner(createOwnerDto, serviceId, resourceId1));
-        verify(serviceManager).getServiceById(serviceId);
-        verifyNoInteractions(modelMapper, serviceRepository);
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class,
+                () -> ownerManager.createOwner(createOwnerDto, serviceId, resourceId1));
+        assertEquals("Service not found with id: " + serviceId, exception.getMessage());
+        verify(serviceRepository, never()).save(any());
     }
 
     @Test
     void createOwner_whenResourceNotFound_shouldThrowException() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
+        Owner newOwner = new Owner("newOwnerId", "New Owner", "ACCNEW", 3);
+        when(dtoMapper.toOwner(createOwnerDto)).thenReturn(newOwner);
+        when(serviceRepository.pushOwner(serviceId, nonExistentId, newOwner)).thenReturn(Optional.empty());
+        when(serviceRepository.existsById(serviceId)).thenReturn(true);
 
         RecordNotFoundException exception = assertThrows(RecordNotFoundException.class,
                 () -> ownerManager.createOwner(createOwnerDto, serviceId, nonExistentId));
         assertEquals("Resource not found with id: " + nonExistentId, exception.getMessage());
-        verify(serviceManager).getServiceById(serviceId);
-        verifyNoInteractions(modelMapper, serviceRepository);
+        verify(serviceRepository, never()).save(any());
     }
 
-
     @Test
     void getOwnerById_whenResourceAndOwnerExist_shouldReturnOwner() {
-        when(resourceManager.getResourceById(resourceId1, serviceId)).thenReturn(resource1);
+        when(serviceRepository.findOwner(serviceId, resourceId1, ownerId1)).thenReturn(Optional.of(owner1));
 
         Owner found = ownerManager.getOwnerById(ownerId1, serviceId, resourceId1);
 
         assertNotNull(found);
         assertEquals(ownerId1, found.getId());
         assertEquals("Owner Test 1", found.getName());
-        verify(resourceManager).getResourceById(resourceId1, serviceId);
+        verify(serviceRepository).findOwner(serviceId, resourceId1, ownerId1);
+        verifyNoInteractions(resourceManager);
     }
 
     @Test
-    void getOwnerById_whenResourceNotFound_shouldPropagateExceptionFromResourceManager() {
-        when(resourceManager.getResourceById(nonExistentId, serviceId))
-                .thenThrow(new RecordNotFoundException("Resource not found"));
+    void getOwnerById_whenResourceNotFound_shouldThrowException() {
+        when(serviceRepository.findOwner(serviceId, nonExistentId, ownerId1)).thenReturn(Optional.empty());
+        when(serviceRepository.existsResource(serviceId, nonExistentId)).thenReturn(false);
+        when(serviceRepository.existsById(serviceId)).thenReturn(true);
 
-        assertThrows(RecordNotFoundException.class,
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class,
                 () -> ownerManager.getOwnerById(ownerId1, serviceId, nonExistentId));
-        verify(resourceManager).getResourceById(nonExistentId, serviceId);
+        assertEquals("Resource not found with id: " + nonExistentId, exception.getMessage());
+        verify(serviceRepository).findOwner(serviceId, nonExistentId, ownerId1);
     }
 
     @Test
     void getOwnerById_whenOwnerNotFoundInResource_shouldThrowException() {
-        when(resourceManager.getResourceById(resourceId1, serviceId)).thenReturn(resource1);
+        when(serviceRepository.findOwner(serviceId, resourceId1, nonExistentId)).thenReturn(Optional.empty());
+        when(serviceRepository.existsResource(serviceId, resourceId1)).thenReturn(true);
 
         RecordNotFoundException exception = assertThrows(RecordNotFoundException.class,
                 () -> ownerManager.getOwnerById(nonExistentId, serviceId, resourceId1));
         assertEquals("Owner not found with id: " + nonExistentId, exception.getMessage());
-        verify(resourceManager).getResourceById(resourceId1, serviceId);
+        verify(serviceRepository).findOwner(serviceId, resourceId1, nonExistentId);
     }
 
     @Test
@@ -186,17 +216,41 @@ class OwnerManagerTests {
     }
 
     @Test
-    void updateOwner_whenAllExist_shouldUpdateAndSave() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
-        doAnswer(invocation -> {
-            UpdateOwnerDto dto = invocation.getArgument(0);
-            Owner o = invocation.getArgument(1);
-            o.setName(dto.getName());
-            o.setAccountNumber(dto.getAccountNumber());
-            o.setLevel(dto.getLevel());
-            return null;
-        }).when(modelMapper).map(eq(updateOwnerDto), any(Owner.class));
-        when(serviceRepository.save(any(Service.class))).thenReturn(service);
+    void getOwnersPage_whenLastPage_shouldReturnNoCursor() {
+        Resource slice = new Resource(resourceId1, "Test Resource 1", new ArrayList<>(List.of(owner2)));
+        when(serviceRepository.findResourceWithOwnersSlice(serviceId, resourceId1, 1, 2)).thenReturn(Optional.of(slice));
+
+        PageDto<Owner> page = ownerManager.getOwnersPage(serviceId, resourceId1, CursorCodec.encodeOffset(1), 1);
+
+        assertEquals(List.of(owner2), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void findOwnersByAccountNumber_whenMoreMatchesExist_shouldReturnPositionCursor() {
+        String otherServiceId = "665f1c2b9a1e4b3d2c1a0002";
+        List<OwnerLocation> locations = List.of(
+                new OwnerLocation(serviceId, resourceId1, 0, 1, owner1),
+                new OwnerLocation(otherServiceId, "resource9", 3, 0, owner2));
+        when(serviceRepository.findOwnersByAccountNumber("ACC001", null, 2)).thenReturn(locations);
+
+        PageDto<OwnerLocation> page = ownerManager.findOwnersByAccountNumber("ACC001", null, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(new OwnerPosition(serviceId, 0, 1), CursorCodec.decodeOwnerPosition(page.getNextCursor()));
+    }
+
+    @Test
+    void findOwnersByAccountNumber_whenAccountNumberIsBlank_shouldThrowInvalidRequestException() {
+        assertThrows(InvalidRequestException.class, () -> ownerManager.findOwnersByAccountNumber(" ", null, 10));
+        verifyNoInteractions(serviceRepository);
+    }
+
+    @Test
+    void updateOwner_whenAllExist_shouldSetChangedFields() {
+        Owner updatedOwner = new Owner(ownerId1, "Updated Owner Name", "ACCUPD", 4);
+        Map<String, Object> changes = Map.of("name", "Updated Owner Name", "accountNumber", "ACCUPD", "level", 4);
+        when(serviceRepository.updateOwnerFields(serviceId, resourceId1, ownerId1, changes)).thenReturn(Optional.of(new Versioned<>(2L, updatedOwner)));
 
         Owner updated = ownerManager.updateOwner(ownerId1, serviceId, resourceId1, updateOwnerDto);
 
@@ -204,86 +258,118 @@ class OwnerManagerTests {
         assertEquals(updateOwnerDto.getName(), updated.getName());
         assertEquals(updateOwnerDto.getAccountNumber(), updated.getAccountNumber());
         assertEquals(updateOwnerDto.getLevel(), updated.getLevel());
-        verify(serviceManager).getServiceById(serviceId);
-        verify(modelMapper).map(updateOwnerDto, owner1);
-        verify(serviceRepository).save(service);
+        verify(serviceRepository).updateOwnerFields(serviceId, resourceId1, ownerId1, changes);
+        verify(serviceRepository, never()).save(any());
+        verify(serviceEvents).updated(serviceId, resourceId1, ownerId1, 2L);
+    }
+
+    @Test
+    void updateOwner_whenWriteFailsTransiently_shouldRetryAndSucceed() {
+        Owner updatedOwner = new Owner(ownerId1, "Updated Owner Name", "ACCUPD", 4);
+        Map<String, Object> changes = Map.of("name", "Updated Owner Name", "accountNumber", "ACCUPD", "level", 4);
+        when(serviceRepository.updateOwnerFields(serviceId, resourceId1, ownerId1, changes))
+                .thenThrow(new TransientDataAccessResourceException("write conflict"))
+                .thenReturn(Optional.of(new Versioned<>(2L, updatedOwner)));
+
+        Owner updated = ownerManager.updateOwner(ownerId1, serviceId, resourceId1, updateOwnerDto);
+
+        assertEquals("Updated Owner Name", updated.getName());
+        verify(serviceRepository, times(2)).updateOwnerFields(serviceId, resourceId1, ownerId1, changes);
+        verify(serviceCacheEvictor).ownerChanged(serviceId, resourceId1, ownerId1, 2L);
+    }
+
+    @Test
+    void createOwner_whenRetriedPushAlreadyLanded_shouldReturnOwner() {
+        Owner newOwner = new Owner("newOwner", "New Owner", "ACC100", 1);
+        when(dtoMapper.toOwner(createOwnerDto)).thenReturn(newOwner);
+        when(serviceRepository.pushOwner(serviceId, resourceId1, newOwner))
+                .thenThrow(new TransientDataAccessResourceException("timeout"))
+                .thenReturn(Optional.empty());
+        when(serviceRepository.existsOwner(serviceId, resourceId1, "newOwner")).thenReturn(true);
+
+        Owner created = ownerManager.createOwner(createOwnerDto, serviceId, resourceId1);
+
+        assertEquals(newOwner, created);
+        verify(serviceRepository, times(2)).pushOwner(serviceId, resourceId1, newOwner);
     }
 
     @Test
     void updateOwner_whenServiceNotFound_shouldThrowException() {
-        when(serviceManager.getServiceById(serviceId)).thenThrow(new RecordNotFoundException("Service not found"));
+        when(serviceRepository.updateOwnerFields(eq(serviceId), eq(resourceId1), eq(ownerId1), anyMap())).thenReturn(Optional.empty());
+        when(serviceRepository.existsResource(serviceId, resourceId1)).thenReturn(false);
+        when(serviceRepository.existsById(serviceId)).thenReturn(false);
 
-        assertThrows(RecordNotFoundException.class,
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class,
                 () -> ownerManager.updateOwner(ownerId1, serviceId, resourceId1, updateOwnerDto));
-        verify(serviceManager).getServiceById(serviceId);
-        verifyNoInteractions(modelMapper, serviceRepository);
+        assertEquals("Service not found with id: " + serviceId, exception.getMessage());
+        verify(serviceRepository, never()).save(any());
     }
 
     @Test
     void updateOwner_whenResourceNotFound_shouldThrowException() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
+        when(serviceRepository.updateOwnerFields(eq(serviceId), eq(nonExistentId), eq(ownerId1), anyMap())).thenReturn(Optional.empty());
+        when(serviceRepository.existsResource(serviceId, nonExistentId)).thenReturn(false);
+        when(serviceRepository.existsById(serviceId)).thenReturn(true);
 
         RecordNotFoundException exception = assertThrows(RecordNotFoundException.class,
                 () -> ownerManager.updateOwner(ownerId1, serviceId, nonExistentId, updateOwnerDto));
         assertEquals("Resource not found with id: " + nonExistentId, exception.getMessage());
-        verify(serviceManager).getServiceById(serviceId);
-        verifyNoInteractions(modelMapper, serviceRepository);
+        verify(serviceRepository, never()).save(any());
     }
 
     @Test
     void updateOwner_whenOwnerNotFound_shouldThrowException() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
+        when(serviceRepository.updateOwnerFields(eq(serviceId), eq(resourceId1), eq(nonExistentId), anyMap())).thenReturn(Optional.empty());
+        when(serviceRepository.existsResource(serviceId, resourceId1)).thenReturn(true);
 
         RecordNotFoundException exception = assertThrows(RecordNotFoundException.class,
                 () -> ownerManager.updateOwner(nonExistentId, serviceId, resourceId1, updateOwnerDto));
         assertEquals("Owner not found with id: " + nonExistentId, exception.getMessage());
-        verify(serviceManager).getServiceById(serviceId);
-        verifyNoInteractions(modelMapper, serviceRepository);
+        verify(serviceRepository, never()).save(any());
     }
 
     @Test
-    void deleteOwner_whenAllExist_shouldRemoveAndSave() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
-        when(serviceRepository.save(any(Service.class))).thenReturn(service);
-        int initialSize = resource1.getOwners().size();
+    void deleteOwner_whenAllExist_shouldPullOwner() {
+        when(serviceRepository.pullOwner(serviceId, resourceId1, ownerId1)).thenReturn(Optional.of(2L));
 
         ownerManager.deleteOwner(ownerId1, serviceId, resourceId1);
 
-        assertEquals(initialSize - 1, resource1.getOwners().size());
-        assertFalse(resource1.getOwners().contains(owner1));
-        verify(serviceManager).getServiceById(serviceId);
-        verify(serviceRepository).save(service);
+        verify(serviceRepository).pullOwner(serviceId, resourceId1, ownerId1);
+        verify(serviceCacheEvictor).ownerChanged(serviceId, resourceId1, ownerId1, 2L);
+        verify(serviceRepository, never()).existsById(anyString());
+        verify(serviceRepository, never()).save(any());
     }
 
     @Test
     void deleteOwner_whenServiceNotFound_shouldThrowException() {
-        when(serviceManager.getServiceById(serviceId)).thenThrow(new RecordNotFoundException("Service not found"));
+        when(serviceRepository.pullOwner(serviceId, resourceId1, ownerId1)).thenReturn(Optional.empty());
+        when(serviceRepository.existsById(serviceId)).thenReturn(false);
 
-        assertThrows(RecordNotFoundException.class,
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class,
                 () -> ownerManager.deleteOwner(ownerId1, serviceId, resourceId1));
-        verify(serviceManager).getServiceById(serviceId);
-        verifyNoInteractions(serviceRepository);
+        assertEquals("Service not found with id: " + serviceId, exception.getMessage());
+        verify(serviceRepository, never()).save(any());
     }
 
     @Test
     void deleteOwner_whenResourceNotFound_shouldThrowException() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
+        when(serviceRepository.pullOwner(serviceId, nonExistentId, ownerId1)).thenReturn(Optional.empty());
+        when(serviceRepository.existsById(serviceId)).thenReturn(true);
 
         RecordNotFoundException exception = assertThrows(RecordNotFoundException.class,
                 () -> ownerManager.deleteOwner(ownerId1, serviceId, nonExistentId));
         assertEquals("Resource not found with id: " + nonExistentId, exception.getMessage());
-        verify(serviceManager).getServiceById(serviceId);
-        verifyNoInteractions(serviceRepository);
+        verify(serviceRepository, never()).save(any());
     }
 
     @Test
     void deleteOwner_whenOwnerNotFound_shouldThrowExceptionWithResourceId() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
+        when(serviceRepository.pullOwner(serviceId, resourceId1, nonExistentId)).thenReturn(Optional.empty());
+        when(serviceRepository.existsById(serviceId)).thenReturn(true);
 
         RecordNotFoundException exception = assertThrows(RecordNotFoundException.class,
                 () -> ownerManager.deleteOwner(nonExistentId, serviceId, resourceId1));
         assertEquals("Resource not found with id: " + resourceId1, exception.getMessage());
-        verify(serviceManager).getServiceById(serviceId);
-        verifyNoInteractions(serviceRepository);
+        verify(serviceRepository, never()).save(any());
     }
 }
\ No newline at end of file
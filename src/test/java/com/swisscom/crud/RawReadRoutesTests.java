@@ -0,0 +1,92 @@
+package com.swisscom.crud;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swisscom.crud.controller.RawReadRoutes;
+import com.swisscom.crud.repository.RawServiceReads;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RawReadRoutesTests {
+
+    private final String serviceId = ObjectId.get().toHexString();
+    private final String resourceId = ObjectId.get().toHexString();
+    private final String ownerId = ObjectId.get().toHexString();
+
+    private RawServiceReads rawServiceReads;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        rawServiceReads = mock(RawServiceReads.class);
+        webTestClient = WebTestClient.bindToRouterFunction(new RawReadRoutes(rawServiceReads, new ObjectMapper()).rawReadRouter()).build();
+    }
+
+    @Test
+    void service_shouldRenameIdAndWriteObjectIdsAsHex() {
+        when(rawServiceReads.findServiceSummary(serviceId)).thenReturn(Mono.just(RawBsonDocument.parse(
+                "{_id: {$oid: '" + serviceId + "'}, version: {$numberLong: '3'}, name: 'Service', resourceCount: {$numberLong: '1'}, ownerCount: {$numberLong: '2'}}")));
+
+        webTestClient.get().uri("/api/services/{id}", serviceId).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody().json("{id: '" + serviceId + "', version: 3, name: 'Service', resourceCount: 1, ownerCount: 2}", true);
+    }
+
+    @Test
+    void resources_shouldWriteNestedOwnersWithIds() {
+        when(rawServiceReads.findResources(serviceId)).thenReturn(Mono.just(RawBsonDocument.parse(
+                "{resources: [{_id: {$oid: '" + resourceId + "'}, name: 'Resource', owners: [{_id: {$oid: '" + ownerId
+                        + "'}, name: 'Owner', accountNumber: 'ACC001', level: 2}]}]}")));
+
+        webTestClient.get().uri("/api/services/{id}/resources", serviceId).exchange()
+                .expectStatus().isOk()
+                .expectBody().json("[{id: '" + resourceId + "', name: 'Resource', owners: [{id: '" + ownerId
+                        + "', name: 'Owner', accountNumber: 'ACC001', level: 2}]}]", true);
+    }
+
+    @Test
+    void resources_whenServiceHasNone_shouldReturnEmptyArray() {
+        when(rawServiceReads.findResources(serviceId)).thenReturn(Mono.just(RawBsonDocument.parse("{}")));
+
+        webTestClient.get().uri("/api/services/{id}/resources", serviceId).exchange()
+                .expectStatus().isOk()
+                .expectBody().json("[]", true);
+    }
+
+    @Test
+    void owners_shouldWriteOwnersOfTheMatchedResource() {
+        when(rawServiceReads.findResource(serviceId, resourceId)).thenReturn(Mono.just(RawBsonDocument.parse(
+                "{resources: [{_id: {$oid: '" + resourceId + "'}, name: 'Resource', owners: [{_id: {$oid: '" + ownerId
+                        + "'}, name: 'Owner', accountNumber: 'ACC001', level: 2}]}]}")));
+
+        webTestClient.get().uri("/api/services/{id}/resources/{resourceId}/owners", serviceId, resourceId).exchange()
+                .expectStatus().isOk()
+                .expectBody().json("[{id: '" + ownerId + "', name: 'Owner', accountNumber: 'ACC001', level: 2}]", true);
+    }
+
+    @Test
+    void resource_whenOnlyServiceExists_shouldReturnResourceNotFound() {
+        when(rawServiceReads.findResource(serviceId, resourceId)).thenReturn(Mono.just(RawBsonDocument.parse("{}")));
+
+        webTestClient.get().uri("/api/services/{id}/resources/{resourceId}", serviceId, resourceId).exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.error").isEqualTo("Resource not found with id: " + resourceId);
+    }
+
+    @Test
+    void service_whenMissing_shouldReturnServiceNotFound() {
+        when(rawServiceReads.findServiceSummary(serviceId)).thenReturn(Mono.empty());
+
+        webTestClient.get().uri("/api/services/{id}", serviceId).exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.error").isEqualTo("Service not found with id: " + serviceId);
+    }
+}
@@ -0,0 +1,148 @@
+package com.swisscom.crud;
+
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import com.swisscom.crud.repository.ReactiveServiceRepository;
+import com.swisscom.crud.repository.Versioned;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"custom.persistence.mode=reactive", "custom.indexes.enabled=false"})
+class ReactiveControllersBlockingTests {
+
+    @MockitoBean
+    private ReactiveServiceRepository reactiveServiceRepository;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private final String serviceId = "service123";
+    private final String resourceId = "resourceABC";
+    private final String ownerId = "ownerXYZ";
+
+    @BeforeAll
+    static void installBlockHound() {
+        BlockHound.builder()
+                .allowBlockingCallsInside(ClassLoader.class.getName(), "loadClass")
+                .allowBlockingCallsInside("ch.qos.logback.core.OutputStreamAppender", "writeBytes")
+                .install();
+    }
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = webTestClient.mutate().responseTimeout(Duration.ofSeconds(10)).build();
+
+        Owner owner = new Owner(ownerId, "Owner", "ACC001", 1);
+        Resource resource = new Resource(resourceId, "Resource", new ArrayList<>(List.of(owner)));
+        Service service = new Service(1L, serviceId, "Service", new ArrayList<>(List.of(resource)));
+        Service summary = new Service(1L, serviceId, "Service", new ArrayList<>());
+
+        when(reactiveServiceRepository.findById(serviceId)).thenAnswer(invocation -> Mono.just(copyOf(service)));
+        when(reactiveServiceRepository.findByServiceId(serviceId)).thenReturn(Mono.just(summary));
+        when(reactiveServiceRepository.findServiceWithResource(serviceId, resourceId))
+                .thenReturn(Mono.just(new Service(1L, serviceId, "Service", new ArrayList<>(List.of(resource)))));
+        when(reactiveServiceRepository.findOwner(serviceId, resourceId, ownerId)).thenReturn(Mono.just(owner));
+        when(reactiveServiceRepository.findAllServices()).thenReturn(Flux.just(summary));
+        when(reactiveServiceRepository.save(any(Service.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(reactiveServiceRepository.deleteById(anyString())).thenReturn(Mono.empty());
+
+        Long newVersion = 2L;
+        when(reactiveServiceRepository.pushResource(eq(serviceId), any(Resource.class))).thenReturn(Mono.just(newVersion));
+        when(reactiveServiceRepository.updateResourceFields(eq(serviceId), eq(resourceId), anyMap())).thenReturn(Mono.just(new Versioned<>(newVersion, resource)));
+        when(reactiveServiceRepository.pullResource(serviceId, resourceId)).thenReturn(Mono.just(newVersion));
+        when(reactiveServiceRepository.pushOwner(eq(serviceId), eq(resourceId), any(Owner.class))).thenReturn(Mono.just(newVersion));
+        when(reactiveServiceRepository.updateOwnerFields(eq(serviceId), eq(resourceId), eq(ownerId), anyMap())).thenReturn(Mono.just(new Versioned<>(newVersion, owner)));
+        when(reactiveServiceRepository.pullOwner(serviceId, resourceId, ownerId)).thenReturn(Mono.just(newVersion));
+    }
+
+    @Test
+    void blockHound_shouldDetectBlockingCallsOnNonBlockingThreads() {
+        Mono<Object> blocking = Mono.fromCallable(() -> {
+                    Thread.sleep(1);
+                    return new Object();
+                })
+                .subscribeOn(Schedulers.parallel());
+
+        StepVerifier.create(blocking)
+                .expectErrorMatches(e -> e.getClass().getName().contains("BlockingOperationError"))
+                .verify();
+    }
+
+    @Test
+    void serviceEndpoints_shouldNotBlock() {
+        webTestClient.get().uri("/api/services").exchange().expectStatus().isOk();
+        webTestClient.get().uri("/api/services/{id}", serviceId).exchange().expectStatus().isOk();
+        webTestClient.post().uri("/api/services").bodyValue(Map.of("name", "New Service"))
+                .exchange().expectStatus().isCreated();
+        webTestClient.put().uri("/api/services/{id}", serviceId).bodyValue(Map.of("version", 1, "name", "Renamed"))
+                .exchange().expectStatus().isOk();
+        webTestClient.delete().uri("/api/services/{id}", serviceId).exchange().expectStatus().isNoContent();
+    }
+
+    @Test
+    void resourceEndpoints_shouldNotBlock() {
+        String base = "/api/services/{serviceId}/resources";
+        webTestClient.get().uri(base, serviceId).exchange().expectStatus().isOk();
+        webTestClient.get().uri(base + "/{resourceId}", serviceId, resourceId).exchange().expectStatus().isOk();
+        webTestClient.post().uri(base, serviceId).bodyValue(Map.of("name", "New Resource"))
+                .exchange().expectStatus().isCreated();
+        webTestClient.put().uri(base + "/{resourceId}", serviceId, resourceId).bodyValue(Map.of("name", "Renamed"))
+                .exchange().expectStatus().isOk();
+        webTestClient.delete().uri(base + "/{resourceId}", serviceId, resourceId).exchange().expectStatus().isNoContent();
+    }
+
+    @Test
+    void ownerEndpoints_shouldNotBlock() {
+        String base = "/api/services/{serviceId}/resources/{resourceId}/owners";
+        webTestClient.get().uri(base, serviceId, resourceId).exchange().expectStatus().isOk();
+        webTestClient.get().uri(base + "/{ownerId}", serviceId, resourceId, ownerId).exchange().expectStatus().isOk();
+        webTestClient.post().uri(base, serviceId, resourceId)
+                .bodyValue(Map.of("name", "New Owner", "accountNumber", "ACC002", "level", 2))
+                .exchange().expectStatus().isCreated();
+        webTestClient.put().uri(base + "/{ownerId}", serviceId, resourceId, ownerId).bodyValue(Map.of("name", "Renamed"))
+                .exchange().expectStatus().isOk();
+        webTestClient.delete().uri(base + "/{ownerId}", serviceId, resourceId, ownerId).exchange().expectStatus().isNoContent();
+    }
+
+    @Test
+    void missingService_shouldReturnNotFoundWithoutBlocking() {
+        when(reactiveServiceRepository.findByServiceId("missing")).thenReturn(Mono.empty());
+
+        webTestClient.get().uri("/api/services/{id}", "missing").exchange().expectStatus().isNotFound();
+    }
+
+    private static Service copyOf(Service service) {
+        List<Resource> resources = new ArrayList<>();
+        for (Resource resource : service.getResources()) {
+            List<Owner> owners = new ArrayList<>();
+            for (Owner owner : resource.getOwners()) {
+                owners.add(new Owner(owner.getId(), owner.getName(), owner.getAccountNumber(), owner.getLevel()));
+            }
+            resources.add(new Resource(resource.getId(), resource.getName(), owners));
+        }
+        return new Service(service.getVersion(), service.getId(), service.getName(), resources);
+    }
+}
@@ -1,26 +1,41 @@
 package com.swisscom.crud;
 
 import com.swisscom.crud.dto.CreateResourceDto;
+import com.swisscom.crud.dto.PageDto;
 import com.swisscom.crud.dto.UpdateResourceDto;
 import com.swisscom.crud.exception.RecordNotFoundException;
+import com.swisscom.crud.mapper.DtoMapper;
 import com.swisscom.crud.model.Resource;
 import com.swisscom.crud.model.Service;
 import com.swisscom.crud.repository.ServiceRepository;
+import com.swisscom.crud.repository.Versioned;
+import com.swisscom.crud.service.CursorCodec;
 import com.swisscom.crud.service.ResourceManager;
+import com.swisscom.crud.service.ServiceCacheEvictor;
+import com.swisscom.crud.service.ServiceEvents;
 import com.swisscom.crud.service.ServiceManager;
+import com.swisscom.crud.service.WriteRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,8 +47,17 @@ class ResourceManagerTests {
     @Mock
     private ServiceManager serviceManager;
 
+    @Spy
+    private DtoMapper dtoMapper = new DtoMapper();
+
+    @Mock
+    private ServiceCacheEvictor serviceCacheEvictor;
+
     @Mock
-    private ModelMapper modelMapper;
+    private ServiceEvents serviceEvents;
+
+    @Spy
+    private WriteRetry writeRetry = new WriteRetry(new SimpleMeterRegistry(), 3, Duration.ZERO, Duration.ZERO);
 
     @InjectMocks
     private ResourceManager resourceManager;
@@ -66,65 +90,73 @@ class ResourceManagerTests {
     }
 
     @Test
-    void createResource_whenServiceExists_shouldAddResourceAndSave() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
+    void createResource_whenServiceExists_shouldPushResource() {
         Resource newResource = new Resource("newId", "New Resource", new ArrayList<>());
-        when(modelMapper.map(createResourceDto, Resource.class)).thenReturn(newResource);
-        when(serviceRepository.save(any(Service.class))).thenReturn(service);
+        when(dtoMapper.toResource(createResourceDto)).thenReturn(newResource);
+        when(serviceRepository.pushResource(serviceId, newResource)).thenReturn(Optional.of(2L));
 
         Resource created = resourceManager.createResource(createResourceDto, serviceId);
 
         assertNotNull(created);
         assertEquals("New Resource", created.getName());
-        assertTrue(service.getResources().contains(newResource));
-        verify(serviceManager).getServiceById(serviceId);
-        verify(modelMapper).map(createResourceDto, Resource.class);
-        verify(serviceRepository).save(service);
+        verify(dtoMapper).toResource(createResourceDto);
+        verify(serviceRepository).pushResource(serviceId, newResource);
+        verify(serviceRepository, never()).save(any());
+        verifyNoInteractions(serviceManager);
+        verify(serviceEvents).created(serviceId, "newId", null, 2L);
     }
 
     @Test
     void createResource_whenServiceNotFound_shouldThrowRecordNotFoundException() {
-        when(serviceManager.getServiceById(serviceId)).thenThrow(new RecordNotFoundException("Service not found"));
+        Resource newResource = new Resource("newId", "New Resource", new ArrayList<>());
+        when(dtoMapper.toResource(createResourceDto)).thenReturn(newResource);
+        when(serviceRepository.pushResource(serviceId, newResource)).thenReturn(Optional.empty());
 
-        assertThrows(RecordNotFoundException.class, () -> {
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class, () -> {
             resourceManager.createResource(createResourceDto, serviceId);
         });
 
-        verify(serviceManager).getServiceById(serviceId);
-        verify(modelMapper, never()).map(any(), any());
+        assertEquals("Service not found with id: " + serviceId, exception.getMessage());
+        verify(serviceRepository).pushResource(serviceId, newResource);
         verify(serviceRepository, never()).save(any());
+        verifyNoInteractions(serviceEvents);
     }
 
     @Test
-    void getResourceById_whenServiceAndResourceExist_shouldReturnResource() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
+    void getResourceById_whenServiceAndResourceExist_shouldReturnProjectedResource() {
+        Service projected = new Service(1L, serviceId, "Test Service", new ArrayList<>(List.of(resource1)));
+        when(serviceRepository.findServiceWithResource(serviceId, resourceId1)).thenReturn(Optional.of(projected));
 
         Resource found = resourceManager.getResourceById(resourceId1, serviceId);
 
         assertNotNull(found);
         assertEquals(resourceId1, found.getId());
         assertEquals("Test Resource 1", found.getName());
-        verify(serviceManager).getServiceById(serviceId);
+        verify(serviceRepository).findServiceWithResource(serviceId, resourceId1);
+        verifyNoInteractions(serviceManager);
     }
 
     @Test
     void getResourceById_whenServiceNotFound_shouldThrowRecordNotFoundException() {
-        when(serviceManager.getServiceById(serviceId)).thenThrow(new RecordNotFoundException("Service not found"));
+        when(serviceRepository.findServiceWithResource(serviceId, resourceId1)).thenReturn(Optional.empty());
 
-        assertThrows(RecordNotFoundException.class, () -> {
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class, () -> {
             resourceManager.getResourceById(resourceId1, serviceId);
         });
-        verify(serviceManager).getServiceById(serviceId);
+        assertEquals("Service not found with id: " + serviceId, exception.getMessage());
+        verify(serviceRepository).findServiceWithResource(serviceId, resourceId1);
     }
 
     @Test
     void getResourceById_whenResourceNotFoundInService_shouldThrowRecordNotFoundException() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
+        Service projected = new Service(1L, serviceId, "Test Service", new ArrayList<>());
+        when(serviceRepository.findServiceWithResource(serviceId, nonExistentResourceId)).thenReturn(Optional.of(projected));
 
-        assertThrows(RecordNotFoundException.class, () -> {
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class, () -> {
             resourceManager.getResourceById(nonExistentResourceId, serviceId);
         });
-        verify(serviceManager).getServiceById(serviceId);
+        assertEquals("Resource not found with id: " + nonExistentResourceId, exception.getMessage());
+        verify(serviceRepository).findServiceWithResource(serviceId, nonExistentResourceId);
     }
 
     @Test
@@ -140,6 +172,26 @@ class ResourceManagerTests {
         verify(serviceManager).getServiceById(serviceId);
     }
 
+    @Test
+    void getResourcesPage_whenMoreResourcesExist_shouldReturnOffsetCursor() {
+        when(serviceRepository.findServiceWithResourcesSlice(serviceId, 0, 2)).thenReturn(Optional.of(service));
+
+        PageDto<Resource> page = resourceManager.getResourcesPage(serviceId, null, 1);
+
+        assertEquals(List.of(resource1), page.getItems());
+        assertEquals(1, CursorCodec.decodeOffset(page.getNextCursor()));
+        verify(serviceRepository).findServiceWithResourcesSlice(serviceId, 0, 2);
+    }
+
+    @Test
+    void getResourcesPage_whenServiceNotFound_shouldThrowRecordNotFoundException() {
+        when(serviceRepository.findServiceWithResourcesSlice(serviceId, 2, 3)).thenReturn(Optional.empty());
+
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class,
+                () -> resourceManager.getResourcesPage(serviceId, CursorCodec.encodeOffset(2), 2));
+        assertEquals("Service not found with id: " + serviceId, exception.getMessage());
+    }
+
     @Test
     void getResourcePerService_whenServiceHasNullResources_shouldReturnEmptyList() {
         Service serviceWithNullResources = new Service(2L, serviceId, "Service With Null Resources", null);
@@ -176,83 +228,109 @@ class ResourceManagerTests {
 
 
     @Test
-    void updateResource_whenServiceAndResourceExist_shouldUpdateAndSave() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
-        doAnswer(invocation -> {
-            UpdateResourceDto dto = invocation.getArgument(0);
-            Resource res = invocation.getArgument(1);
-            res.setName(dto.getName());
-            return null;
-        }).when(modelMapper).map(eq(updateResourceDto), any(Resource.class));
-        when(serviceRepository.save(any(Service.class))).thenReturn(service);
-
+    void updateResource_whenServiceAndResourceExist_shouldSetChangedFields() {
+        Resource updatedResource = new Resource(resourceId1, "Updated Resource Name", new ArrayList<>());
+        when(serviceRepository.updateResourceFields(serviceId, resourceId1, Map.of("name", "Updated Resource Name")))
+                .thenReturn(Optional.of(new Versioned<>(2L, updatedResource)));
 
         Resource updated = resourceManager.updateResource(resourceId1, serviceId, updateResourceDto);
 
         assertNotNull(updated);
         assertEquals(updateResourceDto.getName(), updated.getName());
-        verify(serviceManager).getServiceById(serviceId);
-        verify(modelMapper).map(updateResourceDto, resource1);
-        verify(serviceRepository).save(service);
+        verify(serviceRepository).updateResourceFields(serviceId, resourceId1, Map.of("name", "Updated Resource Name"));
+        verify(serviceCacheEvictor).resourceChanged(serviceId, resourceId1, 2L);
+        verify(serviceRepository, never()).save(any());
+        verifyNoInteractions(serviceManager);
     }
 
     @Test
     void updateResource_whenServiceNotFound_shouldThrowRecordNotFoundException() {
-        when(serviceManager.getServiceById(serviceId)).thenThrow(new RecordNotFoundException("Service not found"));
+        when(serviceRepository.updateResourceFields(eq(serviceId), eq(resourceId1), anyMap())).thenReturn(Optional.empty());
+        when(serviceRepository.existsById(serviceId)).thenReturn(false);
 
-        assertThrows(RecordNotFoundException.class, () -> {
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class, () -> {
             resourceManager.updateResource(resourceId1, serviceId, updateResourceDto);
         });
-        verify(serviceManager).getServiceById(serviceId);
-        verify(modelMapper, never()).map(any(), any());
+        assertEquals("Service not found with id: " + serviceId, exception.getMessage());
+        verify(serviceRepository).existsById(serviceId);
         verify(serviceRepository, never()).save(any());
     }
 
     @Test
     void updateResource_whenResourceNotFoundInService_shouldThrowRecordNotFoundException() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
+        when(serviceRepository.updateResourceFields(eq(serviceId), eq(nonExistentResourceId), anyMap())).thenReturn(Optional.empty());
+        when(serviceRepository.existsById(serviceId)).thenReturn(true);
 
-        assertThrows(RecordNotFoundException.class, () -> {
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class, () -> {
             resourceManager.updateResource(nonExistentResourceId, serviceId, updateResourceDto);
         });
-        verify(serviceManager).getServiceById(serviceId);
-        verify(modelMapper, never()).map(any(), any());
+        assertEquals("Resource not found with id: " + nonExistentResourceId, exception.getMessage());
+        verify(serviceRepository).existsById(serviceId);
         verify(serviceRepository, never()).save(any());
     }
 
     @Test
-    void deleteResource_whenServiceAndResourceExist_shouldRemoveAndSave() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
-        when(serviceRepository.save(any(Service.class))).thenReturn(service);
+    void updateResource_withVersion_shouldGuardTheWrite() {
+        Resource updatedResource = new Resource(resourceId1, "Updated Resource Name", new ArrayList<>());
+        when(serviceRepository.updateResourceFields(serviceId, resourceId1, 4L, Map.of("name", "Updated Resource Name")))
+                .thenReturn(Optional.of(new Versioned<>(5L, updatedResource)));
+
+        assertEquals(updatedResource, resourceManager.updateResource(resourceId1, serviceId, updateResourceDto, 4L));
+        verify(serviceCacheEvictor).resourceChanged(serviceId, resourceId1, 5L);
+    }
+
+    @Test
+    void updateResource_whenGuardVersionMoved_shouldThrowOptimisticLockingFailure() {
+        when(serviceRepository.updateResourceFields(eq(serviceId), eq(resourceId1), eq(4L), anyMap())).thenReturn(Optional.empty());
+        when(serviceRepository.existsResource(serviceId, resourceId1)).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> resourceManager.updateResource(resourceId1, serviceId, updateResourceDto, 4L));
+        verifyNoInteractions(serviceCacheEvictor);
+    }
+
+    @Test
+    void deleteResource_withVersion_whenResourceGone_shouldThrowRecordNotFoundException() {
+        when(serviceRepository.pullResource(serviceId, resourceId1, 4L)).thenReturn(Optional.empty());
+        when(serviceRepository.existsResource(serviceId, resourceId1)).thenReturn(false);
+        when(serviceRepository.existsById(serviceId)).thenReturn(true);
+
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class, () -> resourceManager.deleteResource(resourceId1, serviceId, 4L));
+        assertEquals("Resource not found with id: " + resourceId1, exception.getMessage());
+    }
+
+    @Test
+    void deleteResource_whenServiceAndResourceExist_shouldPullResource() {
+        when(serviceRepository.pullResource(serviceId, resourceId1)).thenReturn(Optional.of(2L));
 
-        int initialSize = service.getResources().size();
         resourceManager.deleteResource(resourceId1, serviceId);
 
-        assertEquals(initialSize - 1, service.getResources().size());
-        assertFalse(service.getResources().contains(resource1));
-        verify(serviceManager).getServiceById(serviceId);
-        verify(serviceRepository).save(service);
+        verify(serviceRepository).pullResource(serviceId, resourceId1);
+        verify(serviceCacheEvictor).resourceDeleted(serviceId, resourceId1, 2L);
+        verify(serviceRepository, never()).existsById(anyString());
+        verify(serviceRepository, never()).save(any());
     }
 
     @Test
     void deleteResource_whenServiceNotFound_shouldThrowRecordNotFoundException() {
-        when(serviceManager.getServiceById(serviceId)).thenThrow(new RecordNotFoundException("Service not found"));
+        when(serviceRepository.pullResource(serviceId, resourceId1)).thenReturn(Optional.empty());
+        when(serviceRepository.existsById(serviceId)).thenReturn(false);
 
-        assertThrows(RecordNotFoundException.class, () -> {
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class, () -> {
             resourceManager.deleteResource(resourceId1, serviceId);
         });
-        verify(serviceManager).getServiceById(serviceId);
+        assertEquals("Service not found with id: " + serviceId, exception.getMessage());
         verify(serviceRepository, never()).save(any());
     }
 
     @Test
     void deleteResource_whenResourceNotFoundInService_shouldThrowRecordNotFoundException() {
-        when(serviceManager.getServiceById(serviceId)).thenReturn(service);
+        when(serviceRepository.pullResource(serviceId, nonExistentResourceId)).thenReturn(Optional.empty());
+        when(serviceRepository.existsById(serviceId)).thenReturn(true);
 
-        assertThrows(RecordNotFoundException.class, () -> {
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class, () -> {
             resourceManager.deleteResource(nonExistentResourceId, serviceId);
         });
-        verify(serviceManager).getServiceById(serviceId);
+        assertEquals("Resource not found with id: " + nonExistentResourceId, exception.getMessage());
         verify(serviceRepository, never()).save(any());
     }
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.swisscom.crud;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.model.changestream.OperationType;
+import com.swisscom.crud.repository.ServiceChange;
+import com.swisscom.crud.repository.ServiceChangeStreams;
+import com.swisscom.crud.service.ServiceCacheEvictor;
+import com.swisscom.crud.service.ServiceChangeStreamListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ServiceChangeStreamListenerTests {
+
+    private final BsonValue token1 = token("1");
+    private final BsonValue token2 = token("2");
+
+    private ServiceChangeStreams changeStreams;
+    private ServiceCacheEvictor serviceCacheEvictor;
+    private SimpleMeterRegistry meterRegistry;
+    private ServiceChangeStreamListener listener;
+
+    @BeforeEach
+    void setUp() {
+        changeStreams = mock(ServiceChangeStreams.class);
+        serviceCacheEvictor = mock(ServiceCacheEvictor.class);
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new ServiceChangeStreamListener(changeStreams, serviceCacheEvictor, meterRegistry,
+                "test", Duration.ofMillis(10));
+        when(changeStreams.saveToken(eq("test"), any())).thenReturn(Mono.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.destroy();
+    }
+
+    @Test
+    void start_shouldApplyChangesAndPersistLatestToken() {
+        when(changeStreams.loadToken("test")).thenReturn(Mono.empty());
+        when(changeStreams.changes(null)).thenReturn(Flux.concat(
+                Flux.just(change(OperationType.UPDATE, "service1", 5L, token1),
+                        change(OperationType.DELETE, "service2", null, token2)),
+                Flux.never()));
+
+        listener.start();
+
+        verify(serviceCacheEvictor, timeout(1000)).remoteServiceChanged("service1", 5L);
+        verify(serviceCacheEvictor, timeout(1000)).serviceDeleted("service2");
+        verify(changeStreams, timeout(1000)).saveToken("test", token2);
+        assertEquals(2, meterRegistry.get("crud.changestream.lag").timer().count());
+    }
+
+    @Test
+    void start_whenTokenStored_shouldResumeAfterIt() {
+        when(changeStreams.loadToken("test")).thenReturn(Mono.just(token1));
+        when(changeStreams.changes(token1)).thenReturn(Flux.never());
+
+        listener.start();
+
+        verify(changeStreams, timeout(1000)).changes(token1);
+    }
+
+    @Test
+    void start_whenHistoryLost_shouldClearCachesAndRestartFromNow() {
+        MongoCommandException historyLost = new MongoCommandException(
+                new BsonDocument("code", new BsonInt32(286)).append("errmsg", new BsonString("history lost")),
+                new ServerAddress());
+        when(changeStreams.loadToken("test")).thenReturn(Mono.just(token1));
+        when(changeStreams.changes(token1)).thenReturn(Flux.error(historyLost));
+        when(changeStreams.changes(null)).thenReturn(Flux.never());
+
+        listener.start();
+
+        verify(changeStreams, timeout(3000)).changes(null);
+        verify(serviceCacheEvictor).clearAll();
+        assertEquals(1.0, meterRegistry.get("crud.changestream.restarts").tag("reason", "history-lost").counter().count());
+    }
+
+    @Test
+    void start_whenInvalidated_shouldClearCaches() {
+        when(changeStreams.loadToken("test")).thenReturn(Mono.empty());
+        when(changeStreams.changes(any())).thenReturn(Flux.concat(
+                Flux.just(change(OperationType.INVALIDATE, null, null, token1)),
+                Flux.never()));
+
+        listener.start();
+
+        verify(serviceCacheEvictor, timeout(1000)).clearAll();
+        verify(serviceCacheEvictor, never()).remoteServiceChanged(any(), any());
+    }
+
+    private static ServiceChange change(OperationType operation, String serviceId, Long version, BsonValue token) {
+        return new ServiceChange(operation, serviceId, version, Instant.now().minusMillis(5), token);
+    }
+
+    private static BsonValue token(String data) {
+        return new BsonDocument("_data", new BsonString(data));
+    }
+}
@@ -0,0 +1,121 @@
+package com.swisscom.crud;
+
+import com.mongodb.client.result.UpdateResult;
+import com.swisscom.crud.dto.ReadServiceDto;
+import com.swisscom.crud.mapper.DtoMapper;
+import com.swisscom.crud.model.Owner;
+import com.swisscom.crud.model.Resource;
+import com.swisscom.crud.model.Service;
+import com.swisscom.crud.repository.ServiceCounterBackfill;
+import com.swisscom.crud.repository.ServiceRepositoryCustomImpl;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ServiceCountersTests {
+
+    private final String serviceId = ObjectId.get().toHexString();
+    private final String resourceId = ObjectId.get().toHexString();
+    private final String ownerId = ObjectId.get().toHexString();
+
+    private MongoTemplate mongoTemplate;
+    private ServiceRepositoryCustomImpl storage;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        storage = new ServiceRepositoryCustomImpl(mongoTemplate, "embedded");
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Service.class)))
+                .thenReturn(new Service(2L, serviceId, null, null));
+    }
+
+    @Test
+    void constructor_shouldCountResourcesAndOwners() {
+        Service service = new Service(1L, serviceId, "Service", List.of(
+                new Resource(resourceId, "Resource 1", List.of(new Owner(ownerId, "Owner", "ACC001", 1), new Owner())),
+                new Resource(ObjectId.get().toHexString(), "Resource 2", null)));
+
+        assertEquals(2, service.getResourceCount());
+        assertEquals(2, service.getOwnerCount());
+    }
+
+    @Test
+    void toReadServiceDto_shouldExposeCounters() {
+        Service service = new Service(1L, serviceId, "Service", null);
+        service.setResourceCount(3);
+        service.setOwnerCount(7);
+
+        ReadServiceDto dto = new DtoMapper().toReadServiceDto(service);
+
+        assertEquals(3, dto.getResourceCount());
+        assertEquals(7, dto.getOwnerCount());
+    }
+
+    @Test
+    void pushResource_shouldIncrementCountersWithTheResourceAndItsOwners() {
+        storage.pushResource(serviceId, new Resource(resourceId, "Resource", new ArrayList<>(List.of(
+                new Owner(ownerId, "Owner", "ACC001", 1), new Owner(ObjectId.get().toHexString(), "Owner 2", "ACC002", 2)))));
+
+        Document inc = capturedUpdate().getUpdateObject().get("$inc", Document.class);
+        assertEquals(1L, inc.get("version", Number.class).longValue());
+        assertEquals(1L, inc.get("resourceCount", Number.class).longValue());
+        assertEquals(2L, inc.get("ownerCount", Number.class).longValue());
+    }
+
+    @Test
+    void pushOwnerAndPullOwner_shouldMoveOwnerCountInTheSameUpdate() {
+        storage.pushOwner(serviceId, resourceId, new Owner(ownerId, "Owner", "ACC001", 1));
+        storage.pullOwner(serviceId, resourceId, ownerId);
+
+        ArgumentCaptor<UpdateDefinition> captor = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), captor.capture(), any(FindAndModifyOptions.class), eq(Service.class));
+        assertEquals(1L, captor.getAllValues().get(0).getUpdateObject().get("$inc", Document.class).get("ownerCount", Number.class).longValue());
+        assertEquals(-1L, captor.getAllValues().get(1).getUpdateObject().get("$inc", Document.class).get("ownerCount", Number.class).longValue());
+        assertTrue(captor.getAllValues().get(1).getUpdateObject().containsKey("$pull"));
+    }
+
+    @Test
+    void pullResource_shouldRecountInThePipelineUpdate() {
+        storage.pullResource(serviceId, resourceId);
+
+        ArgumentCaptor<UpdateDefinition> captor = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), captor.capture(), any(FindAndModifyOptions.class), eq(Service.class));
+        AggregationUpdate update = assertInstanceOf(AggregationUpdate.class, captor.getValue());
+        assertTrue(update.modifies("version"));
+        assertEquals(3, update.getPipeline().getOperations().size());
+    }
+
+    @Test
+    void backfill_shouldRecountServicesWithoutCounters() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq("services")))
+                .thenReturn(UpdateResult.acknowledged(4, 4L, null));
+
+        assertEquals(4, new ServiceCounterBackfill(mongoTemplate, "embedded", false).backfill());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateMulti(query.capture(), any(AggregationUpdate.class), eq("services"));
+        assertTrue(query.getValue().getQueryObject().containsKey("$or"));
+    }
+
+    private Update capturedUpdate() {
+        ArgumentCaptor<UpdateDefinition> captor = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), captor.capture(), any(FindAndModifyOptions.class), eq(Service.class));
+        return assertInstanceOf(Update.class, captor.getValue());
+    }
+}
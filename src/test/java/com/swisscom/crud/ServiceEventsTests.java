@@ -0,0 +1,87 @@
+package com.swisscom.crud;
+
+import com.swisscom.crud.service.ServiceEvents;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ServiceEventsTests {
+
+    @Test
+    void subscribe_shouldReceiveEventsOfTheServiceOnly() {
+        ServiceEvents serviceEvents = new ServiceEvents(new SimpleMeterRegistry(), 16, 16);
+
+        StepVerifier.create(serviceEvents.subscribe("service1", null))
+                .then(() -> {
+                    serviceEvents.created("service2", null, null, 0L);
+                    serviceEvents.created("service1", "resource1", null, 1L);
+                    serviceEvents.deleted("service1", "resource1", "owner1", 2L);
+                })
+                .assertNext(event -> {
+                    assertEquals("created", event.getType());
+                    assertEquals("resource", event.getEntity());
+                    assertEquals(1L, event.getVersion());
+                })
+                .assertNext(event -> {
+                    assertEquals("deleted", event.getType());
+                    assertEquals("owner", event.getEntity());
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void subscribe_withLastEventId_shouldReplayMissedEventsFirst() {
+        ServiceEvents serviceEvents = new ServiceEvents(new SimpleMeterRegistry(), 16, 16);
+        AtomicLong lastEventId = new AtomicLong();
+        StepVerifier.create(serviceEvents.subscribe(null, null))
+                .then(() -> serviceEvents.created("service1", null, null, 0L))
+                .assertNext(event -> lastEventId.set(event.getId()))
+                .thenCancel()
+                .verify();
+        serviceEvents.updated("service1", null, null, 1L);
+        serviceEvents.updated("service1", null, null, 2L);
+
+        StepVerifier.create(serviceEvents.subscribe(null, lastEventId.get()))
+                .assertNext(event -> assertEquals(1L, event.getVersion()))
+                .assertNext(event -> assertEquals(2L, event.getVersion()))
+                .then(() -> serviceEvents.deleted("service1", null, null, null))
+                .assertNext(event -> assertEquals("deleted", event.getType()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void subscribe_whenLastEventIdNoLongerBuffered_shouldEmitReset() {
+        ServiceEvents serviceEvents = new ServiceEvents(new SimpleMeterRegistry(), 2, 16);
+        for (long version = 0; version < 5; version++) {
+            serviceEvents.updated("service1", null, null, version);
+        }
+
+        StepVerifier.create(serviceEvents.subscribe(null, 0L))
+                .assertNext(event -> assertEquals(ServiceEvents.RESET, event.getType()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void subscribe_whenSubscriberFallsBehind_shouldComplete() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ServiceEvents serviceEvents = new ServiceEvents(meterRegistry, 16, 2);
+
+        StepVerifier.create(serviceEvents.subscribe(null, null), 0)
+                .then(() -> {
+                    for (long version = 0; version < 5; version++) {
+                        serviceEvents.updated("service1", null, null, version);
+                    }
+                })
+                .thenRequest(10)
+                .expectNextCount(2)
+                .verifyComplete();
+        assertEquals(1.0, meterRegistry.get("crud.events.overflows").counter().count());
+    }
+}
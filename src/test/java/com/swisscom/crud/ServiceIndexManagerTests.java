@@ -0,0 +1,120 @@
+package com.swisscom.crud;
+
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.swisscom.crud.model.Service;
+import com.swisscom.crud.repository.ServiceIndexManager;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceIndexManagerTests {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    @InjectMocks
+    private ServiceIndexManager serviceIndexManager;
+
+    @Test
+    void ensureIndexes_whenIndexesExist_shouldNotCreateThemAgain() {
+        when(mongoTemplate.indexOps(Service.class)).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(
+                index("resources._id"), index("resources.owners._id"), index("name"), index("resources.owners.accountNumber")));
+
+        assertEquals(0, serviceIndexManager.ensureIndexes());
+        verify(indexOperations, never()).ensureIndex(any());
+    }
+
+    @Test
+    void ensureIndexes_whenIndexesAreMissing_shouldCreateOnlyMissingOnes() {
+        when(mongoTemplate.indexOps(Service.class)).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(index("_id"), index("name")));
+        when(indexOperations.ensureIndex(any(Index.class))).thenReturn("created");
+
+        assertEquals(3, serviceIndexManager.ensureIndexes());
+        verify(indexOperations, times(3)).ensureIndex(any(Index.class));
+    }
+
+    @Test
+    void ensureIndexes_whenStorageIsNormalized_shouldAlsoIndexChildCollections() {
+        IndexOperations childIndexOperations = mock(IndexOperations.class);
+        ReflectionTestUtils.setField(serviceIndexManager, "storageMode", "normalized");
+        when(mongoTemplate.indexOps(Service.class)).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(
+                index("resources._id"), index("resources.owners._id"), index("name"), index("resources.owners.accountNumber")));
+        when(mongoTemplate.indexOps("resources")).thenReturn(childIndexOperations);
+        when(mongoTemplate.indexOps("owners")).thenReturn(childIndexOperations);
+        when(childIndexOperations.getIndexInfo()).thenReturn(List.of(index("_id")));
+
+        assertEquals(3, serviceIndexManager.ensureIndexes());
+        verify(childIndexOperations, times(3)).ensureIndex(any(Index.class));
+    }
+
+    @Test
+    void checkHotQueries_shouldExplainNestedIdLookupsWithoutServiceId() {
+        MongoCollection<Document> services = explaining("services", "IXSCAN");
+
+        assertEquals(List.of(), serviceIndexManager.checkHotQueries());
+
+        ArgumentCaptor<Bson> filters = ArgumentCaptor.forClass(Bson.class);
+        verify(services, times(4)).find(filters.capture());
+        List<Set<String>> fields = filters.getAllValues().stream().map(filter -> ((Document) filter).keySet()).toList();
+        assertTrue(fields.contains(Set.of("resources._id")));
+        assertTrue(fields.contains(Set.of("resources.owners._id")));
+        assertTrue(fields.stream().noneMatch(keys -> keys.contains("_id")));
+        verify(mongoTemplate, never()).getCollection("owners");
+    }
+
+    @Test
+    void checkHotQueries_whenStorageIsNormalized_shouldAlsoExplainChildCollectionQueries() {
+        ReflectionTestUtils.setField(serviceIndexManager, "storageMode", "normalized");
+        explaining("services", "IXSCAN");
+        explaining("resources", "IXSCAN");
+        explaining("owners", "COLLSCAN");
+
+        assertEquals(List.of("owners of resource", "owners of service", "normalized owner by account number"),
+                serviceIndexManager.checkHotQueries());
+    }
+
+    @SuppressWarnings("unchecked")
+    private MongoCollection<Document> explaining(String collectionName, String stage) {
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        FindIterable<Document> find = mock(FindIterable.class);
+        when(mongoTemplate.getCollection(collectionName)).thenReturn(collection);
+        when(collection.find(any(Bson.class))).thenReturn(find);
+        lenient().when(find.sort(any(Bson.class))).thenReturn(find);
+        when(find.explain(ExplainVerbosity.QUERY_PLANNER))
+                .thenReturn(new Document("queryPlanner", new Document("winningPlan", new Document("stage", stage))));
+        return collection;
+    }
+
+    private static IndexInfo index(String key) {
+        return new IndexInfo(List.of(IndexField.create(key, Sort.Direction.ASC)), key, false, false, "");
+    }
+}
@@ -1,27 +1,37 @@
 package com.swisscom.crud;
 
 import com.swisscom.crud.dto.CreateServiceDto;
+import com.swisscom.crud.dto.PageDto;
 import com.swisscom.crud.dto.UpdateServiceDto;
+import com.swisscom.crud.exception.InvalidRequestException;
 import com.swisscom.crud.exception.RecordNotFoundException;
+import com.swisscom.crud.mapper.DtoMapper;
 import com.swisscom.crud.model.Service;
 import com.swisscom.crud.repository.ServiceRepository;
+import com.swisscom.crud.service.CursorCodec;
+import com.swisscom.crud.service.ServiceCacheEvictor;
+import com.swisscom.crud.service.ServiceEvents;
 import com.swisscom.crud.service.ServiceManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,8 +40,14 @@ class ServiceManagerTests {
     @Mock
     private ServiceRepository serviceRepository;
 
+    @Spy
+    private DtoMapper dtoMapper = new DtoMapper();
+
+    @Mock
+    private ServiceCacheEvictor serviceCacheEvictor;
+
     @Mock
-    private ModelMapper modelMapper;
+    private ServiceEvents serviceEvents;
 
     @InjectMocks
     private ServiceManager serviceManager;
@@ -52,7 +68,7 @@ class ServiceManagerTests {
         Service mappedService = new Service(null, null, "New Service", new ArrayList<>());
         Service savedService = new Service(0L, "genId1", "New Service", new ArrayList<>());
 
-        when(modelMapper.map(createServiceDto, Service.class)).thenReturn(mappedService);
+        when(dtoMapper.toService(createServiceDto)).thenReturn(mappedService);
         when(serviceRepository.save(mappedService)).thenReturn(savedService);
 
         Service result = serviceManager.createService(createServiceDto);
@@ -61,8 +77,9 @@ class ServiceManagerTests {
         assertEquals("genId1", result.getId());
         assertEquals("New Service", result.getName());
         assertEquals(0L, result.getVersion());
-        verify(modelMapper).map(createServiceDto, Service.class);
+        verify(dtoMapper).toService(createServiceDto);
         verify(serviceRepository).save(mappedService);
+        verify(serviceEvents).created("genId1", null, null, 0L);
     }
 
     @Test
@@ -89,7 +106,7 @@ class ServiceManagerTests {
 
     @Test
     void getServiceById_whenServiceExists_shouldReturnService() {
-        when(serviceRepository.findById("service1")).thenReturn(Optional.of(service));
+        when(serviceRepository.findAggregate("service1")).thenReturn(Optional.of(service));
 
         Service result = serviceManager.getServiceById("service1");
 
@@ -100,7 +117,7 @@ class ServiceManagerTests {
 
     @Test
     void getServiceById_whenServiceNotExists_shouldThrowRecordNotFoundException() {
-        when(serviceRepository.findById("nonexistent")).thenReturn(Optional.empty());
+        when(serviceRepository.findAggregate("nonexistent")).thenReturn(Optional.empty());
 
         RecordNotFoundException exception = assertThrows(RecordNotFoundException.class, () -> {
             serviceManager.getServiceById("nonexistent");
@@ -134,32 +151,73 @@ class ServiceManagerTests {
     }
 
     @Test
-    void updateService_whenServiceExistsAndVersionMatches_shouldReturnUpdatedService() {
-        Service existingService = new Service(1L, "service1", "Test Service", new ArrayList<>());
-        Service savedService = new Service(1L, "service1", "Updated Service Name", new ArrayList<>());
+    void getServicesPage_whenMoreServicesExist_shouldReturnNextCursor() {
+        String firstId = "665f1c2b9a1e4b3d2c1a0001";
+        String secondId = "665f1c2b9a1e4b3d2c1a0002";
+        List<Service> services = List.of(
+                new Service(1L, firstId, "First", new ArrayList<>()),
+                new Service(1L, secondId, "Second", new ArrayList<>()),
+                new Service(1L, "665f1c2b9a1e4b3d2c1a0003", "Third", new ArrayList<>()));
+        when(serviceRepository.findServicesAfter(null, 3)).thenReturn(services);
+
+        PageDto<Service> page = serviceManager.getServicesPage(null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(secondId, CursorCodec.decode(page.getNextCursor()));
+        verify(serviceRepository).findServicesAfter(null, 3);
+    }
 
-        when(serviceRepository.findByServiceId("service1")).thenReturn(Optional.of(existingService));
-        doAnswer(invocation -> {
-            UpdateServiceDto dto = invocation.getArgument(0);
-            Service svc = invocation.getArgument(1);
-            svc.setName(dto.getName());
-            return null;
-        }).when(modelMapper).map(any(UpdateServiceDto.class), any(Service.class));
-        when(serviceRepository.save(existingService)).thenReturn(savedService);
+    @Test
+    void getServicesPage_whenLastPage_shouldReturnNoCursor() {
+        String afterId = "665f1c2b9a1e4b3d2c1a0002";
+        when(serviceRepository.findServicesAfter(afterId, 3))
+                .thenReturn(List.of(new Service(1L, "665f1c2b9a1e4b3d2c1a0003", "Third", new ArrayList<>())));
+
+        PageDto<Service> page = serviceManager.getServicesPage(CursorCodec.encode(afterId), 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getServicesPage_whenCursorIsInvalid_shouldThrowInvalidRequestException() {
+        assertThrows(InvalidRequestException.class, () -> serviceManager.getServicesPage("not-a-cursor!", 2));
+        verifyNoInteractions(serviceRepository);
+    }
+
+    @Test
+    void updateService_whenServiceExistsAndVersionMatches_shouldSetOnlyChangedFields() {
+        Service updatedService = new Service(2L, "service1", "Updated Service Name", null);
+
+        when(serviceRepository.updateServiceFields("service1", 1L, Map.of("name", "Updated Service Name")))
+                .thenReturn(Optional.of(updatedService));
 
         Service result = serviceManager.updateService("service1", updateServiceDto);
 
         assertNotNull(result);
         assertEquals("Updated Service Name", result.getName());
-        assertEquals(savedService.getName(), result.getName());
+        assertEquals(2L, result.getVersion());
 
-        verify(serviceRepository).findByServiceId("service1");
-        verify(modelMapper).map(updateServiceDto, existingService);
-        verify(serviceRepository).save(existingService);
+        verify(serviceRepository).updateServiceFields("service1", 1L, Map.of("name", "Updated Service Name"));
+        verify(serviceCacheEvictor).serviceChanged("service1", 2L);
+        verify(serviceRepository, never()).findByServiceId(anyString());
+        verify(serviceRepository, never()).save(any());
+    }
+
+    @Test
+    void updateService_whenNameIsNull_shouldOnlyBumpVersion() {
+        Service updatedService = new Service(2L, "service1", "Test Service", null);
+        when(serviceRepository.updateServiceFields("service1", 1L, Map.of())).thenReturn(Optional.of(updatedService));
+
+        Service result = serviceManager.updateService("service1", new UpdateServiceDto(1L, null));
+
+        assertEquals("Test Service", result.getName());
+        verify(serviceRepository).updateServiceFields("service1", 1L, Map.of());
     }
 
     @Test
     void updateService_whenServiceNotFound_shouldThrowRecordNotFoundException() {
+        when(serviceRepository.updateServiceFields(eq("nonexistent"), eq(1L), anyMap())).thenReturn(Optional.empty());
         when(serviceRepository.findByServiceId("nonexistent")).thenReturn(Optional.empty());
 
         RecordNotFoundException exception = assertThrows(RecordNotFoundException.class, () -> {
@@ -167,15 +225,15 @@ class ServiceManagerTests {
         });
         assertEquals("Service not found with id: nonexistent", exception.getMessage());
         verify(serviceRepository).findByServiceId("nonexistent");
-        verify(modelMapper, never()).map(any(), any());
         verify(serviceRepository, never()).save(any());
     }
 
     @Test
     void updateService_whenVersionMismatch_shouldThrowOptimisticLockingFailureException() {
-        Service existingServiceInDb = new Service(2L, "service1", "Test Service", new ArrayList<>());
+        Service existingServiceInDb = new Service(2L, "service1", "Test Service", null);
         UpdateServiceDto updateDtoWithOldVersion = new UpdateServiceDto(1L, "Trying to update");
 
+        when(serviceRepository.updateServiceFields(eq("service1"), eq(1L), anyMap())).thenReturn(Optional.empty());
         when(serviceRepository.findByServiceId("service1")).thenReturn(Optional.of(existingServiceInDb));
 
         OptimisticLockingFailureException exception = assertThrows(OptimisticLockingFailureException.class, () -> {
@@ -183,19 +241,20 @@ class ServiceManagerTests {
         });
         assertTrue(exception.getMessage().contains("Conflict: Service Test Service was updated by another user"));
         verify(serviceRepository).findByServiceId("service1");
-        verify(modelMapper, never()).map(any(), any());
         verify(serviceRepository, never()).save(any());
     }
 
     @Test
     void deleteService_whenServiceExists_shouldCallDeleteById() {
         when(serviceRepository.findByServiceId("service1")).thenReturn(Optional.of(service));
-        doNothing().when(serviceRepository).deleteById("service1");
+        doNothing().when(serviceRepository).deleteAggregate("service1");
 
         serviceManager.deleteService("service1");
 
         verify(serviceRepository).findByServiceId("service1");
-        verify(serviceRepository).deleteById("service1");
+        verify(serviceRepository).deleteAggregate("service1");
+        verify(serviceCacheEvictor).serviceDeleted("service1");
+        verify(serviceEvents).deleted("service1", null, null, null);
     }
 
     @Test
@@ -207,6 +266,30 @@ class ServiceManagerTests {
         });
         assertEquals("Service not found with id: nonexistent", exception.getMessage());
         verify(serviceRepository).findByServiceId("nonexistent");
-        verify(serviceRepository, never()).deleteById(anyString());
+        verify(serviceRepository, never()).deleteAggregate(anyString());
+        verifyNoInteractions(serviceCacheEvictor, serviceEvents);
+    }
+
+    @Test
+    void updateService_whenVersionMissing_shouldThrowInvalidRequestException() {
+        assertThrows(InvalidRequestException.class, () -> serviceManager.updateService("service1", new UpdateServiceDto(null, "Name")));
+        verifyNoInteractions(serviceRepository);
+    }
+
+    @Test
+    void deleteService_whenVersionIsStale_shouldThrowOptimisticLockingFailureException() {
+        when(serviceRepository.deleteAggregate("service1", 1L)).thenReturn(false);
+        when(serviceRepository.findByServiceId("service1")).thenReturn(Optional.of(service));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> serviceManager.deleteService("service1", 1L));
+        verifyNoInteractions(serviceCacheEvictor, serviceEvents);
+    }
+
+    @Test
+    void getServiceVersion_shouldUseVersionOnlyProjection() {
+        when(serviceRepository.findServiceVersions(List.of("service1"))).thenReturn(List.of(new Service(7L, "service1", null, null)));
+
+        assertEquals(7L, serviceManager.getServiceVersion("service1"));
+        verify(serviceRepository, never()).findByServiceId(anyString());
     }
 }
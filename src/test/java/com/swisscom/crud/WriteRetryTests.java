@@ -0,0 +1,105 @@
+package com.swisscom.crud;
+
+import com.swisscom.crud.service.WriteRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteRetryTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private WriteRetry writeRetry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        writeRetry = new WriteRetry(meterRegistry, 3, Duration.ofMillis(1), Duration.ofMillis(5));
+    }
+
+    @Test
+    void execute_whenTransientFailureThenSuccess_shouldRetryAndCount() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = writeRetry.execute("updateOwner", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("write conflict");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+        assertEquals(2.0, meterRegistry.get("crud.write.conflicts").tag("operation", "updateOwner").counter().count());
+        assertEquals(2.0, meterRegistry.get("crud.write.retries").tag("operation", "updateOwner").counter().count());
+    }
+
+    @Test
+    void execute_whenAttemptsExhausted_shouldRethrow() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(QueryTimeoutException.class, () -> writeRetry.execute("deleteOwner", () -> {
+            calls.incrementAndGet();
+            throw new QueryTimeoutException("timeout");
+        }));
+
+        assertEquals(3, calls.get());
+        assertEquals(1.0, meterRegistry.get("crud.write.retries.exhausted").tag("operation", "deleteOwner").counter().count());
+    }
+
+    @Test
+    void execute_whenFailureIsNotTransient_shouldNotRetry() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(DataIntegrityViolationException.class, () -> writeRetry.execute("createOwner", () -> {
+            calls.incrementAndGet();
+            throw new DataIntegrityViolationException("duplicate");
+        }));
+
+        assertEquals(1, calls.get());
+        assertTrue(meterRegistry.find("crud.write.retries").counters().isEmpty());
+    }
+
+    @Test
+    void execute_onNonBlockingThread_shouldSurfaceFailureWithoutRetrying() {
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> onEventLoop = Mono.fromSupplier(() -> writeRetry.execute("updateResource", () -> {
+            calls.incrementAndGet();
+            throw new QueryTimeoutException("timeout");
+        })).subscribeOn(Schedulers.parallel());
+
+        StepVerifier.create(onEventLoop)
+                .expectError(QueryTimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.get("crud.write.retries.skipped").tag("operation", "updateResource").counter().count());
+        assertTrue(meterRegistry.find("crud.write.retries").counters().isEmpty());
+    }
+
+    @Test
+    void reactive_whenTransientFailureThenSuccess_shouldResubscribe() {
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> write = Mono.fromCallable(() -> {
+            if (calls.incrementAndGet() < 2) {
+                throw new QueryTimeoutException("timeout");
+            }
+            return "ok";
+        });
+
+        StepVerifier.create(write.retryWhen(writeRetry.reactive("updateResource")))
+                .expectNext("ok")
+                .verifyComplete();
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.get("crud.write.retries").tag("operation", "updateResource").counter().count());
+    }
+}